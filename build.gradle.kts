@@ -2,6 +2,7 @@ plugins {
     java
     alias(libs.plugins.spring.boot)
     alias(libs.plugins.spring.dependency.management)
+    alias(libs.plugins.jmh)
     id("jacoco")
 }
 
@@ -23,6 +24,7 @@ dependencyManagement {
 
 dependencies {
     implementation(libs.spring.boot.starter.web)
+    implementation(libs.spring.boot.starter.actuator)
     compileOnly(libs.lombok)
     annotationProcessor(libs.lombok)
     annotationProcessor(libs.spring.boot.configuration.processor)
@@ -38,6 +40,39 @@ with(extensions.getByType(JacocoPluginExtension::class.java)) {
     toolVersion = "0.8.7"
 }
 
+// benchmark tasks
+// ./gradlew jmh -PjmhIncludes=PointServiceBenchmark -PjmhThreads=8
+// 할당량은 gc 프로파일러로 본다. ./gradlew jmh -PjmhIncludes=PointWireFormatBenchmark -PjmhProfilers=gc
+jmh {
+    jmhVersion.set(libs.versions.jmh.asProvider().get())
+    fork.set(1)
+    warmupIterations.set(2)
+    iterations.set(3)
+    resultFormat.set("JSON")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.set(listOf(it)) }
+    providers.gradleProperty("jmhThreads").orNull?.let { threads.set(it.toInt()) }
+    providers.gradleProperty("jmhProfilers").orNull?.let { profilers.set(it.split(",")) }
+}
+
+// load test tasks
+// ./gradlew loadTest -PloadArgs="--concurrency=64 --duration=30 --distribution=ZIPF --label=v1.2.0"
+// base-url 을 주지 않으면 애플리케이션을 임의 포트로 띄운 뒤 요청하고, 요약은 build/reports/loadtest/summary.json 에 남긴다.
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the HTTP load generator against the /point endpoints."
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("io.hhplus.tdd.loadtest.PointLoadGenerator")
+    workingDir = projectDir
+    args = providers.gradleProperty("loadArgs").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
+
 // bundling tasks
 tasks.getByName("bootJar") {
     enabled = true
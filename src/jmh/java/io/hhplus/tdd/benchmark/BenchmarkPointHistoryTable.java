@@ -0,0 +1,53 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 벤치마크용 PointHistoryTable. throttle 동작은 BenchmarkUserPointTable 과 같다.
+ * 전체 스캔 비용은 원본과 같게 유지하기 위해 selectAllByUserId 는 그대로 전체 목록을 훑는다.
+ */
+public class BenchmarkPointHistoryTable extends PointHistoryTable {
+
+    private final List<PointHistory> table = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong cursor = new AtomicLong(1);
+    private volatile boolean throttled;
+
+    public BenchmarkPointHistoryTable(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        Throttle.sleep(throttled, 300L);
+        PointHistory pointHistory = new PointHistory(cursor.getAndIncrement(), userId, amount, type, updateMillis);
+        lock.writeLock().lock();
+        try {
+            table.add(pointHistory);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return pointHistory;
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        lock.readLock().lock();
+        try {
+            return table.stream().filter(pointHistory -> pointHistory.userId() == userId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
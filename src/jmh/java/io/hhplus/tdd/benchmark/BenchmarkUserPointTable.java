@@ -0,0 +1,40 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 벤치마크용 UserPointTable
+ * - throttle 이 켜져 있으면 원본 테이블과 같은 지연(최대 200/300ms)을 흉내낸다.
+ * - 꺼져 있으면 지연 없이 메모리 맵만 사용해 순수 자료구조/락 비용을 잴 수 있다.
+ * - 대량 사전 데이터를 빠르게 넣을 수 있도록 throttle 을 중간에 켜고 끌 수 있다.
+ */
+public class BenchmarkUserPointTable extends UserPointTable {
+
+    private final ConcurrentHashMap<Long, UserPoint> table = new ConcurrentHashMap<>();
+    private volatile boolean throttled;
+
+    public BenchmarkUserPointTable(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    @Override
+    public UserPoint selectById(Long id) {
+        Throttle.sleep(throttled, 200L);
+        return table.getOrDefault(id, UserPoint.empty(id));
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        Throttle.sleep(throttled, 300L);
+        UserPoint userPoint = new UserPoint(id, amount, System.currentTimeMillis());
+        table.put(id, userPoint);
+        return userPoint;
+    }
+}
@@ -0,0 +1,107 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.concurrent.PointRequestExecutor;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.PointController;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointShardRouter;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointWriteMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동기/비동기 컨트롤러가 같은 서블릿 스레드 수로 동시 요청을 얼마나 버티는지 비교한다.
+ * - 서블릿 스레드 풀은 Tomcat 기본값과 같은 200개로 고정한다.
+ * - 한 번의 측정은 concurrency 개의 충전 요청을 동시에 보내고 모두 응답받을 때까지의 시간이다.
+ *   요청마다 다른 유저라 메일박스 순서 대기는 없고, 테이블 지연(최대 200/300ms)은 원본과 같다.
+ * - SYNC 는 서블릿 스레드가 충전이 끝날 때까지 붙잡혀 있어 concurrency 가 200을 넘으면 요청이 줄을 선다.
+ *   ASYNC 는 future 만 돌려주고 서블릿 스레드를 놓아주므로 테이블 대기는 메일박스 워커가 맡는다.
+ * - mailboxWorkers 는 메일박스 워커 수다. 32(기본값)면 두 모델 모두 워커 수에 막히므로,
+ *   서블릿 스레드 점유 차이를 보려면 워커를 충분히 늘린 경우(1024)를 본다.
+ *
+ * 측정 시간이 concurrency 가 늘어도 일정하게 유지되는 구간이 그 모델이 감당하는 동시 요청 수다.
+ * ./gradlew jmh -PjmhIncludes=ControllerConcurrencyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ControllerConcurrencyBenchmark {
+
+    private static final int SERVLET_THREADS = 200;
+
+    public enum Model {
+        SYNC, ASYNC
+    }
+
+    @Param({"SYNC", "ASYNC"})
+    public Model model;
+
+    @Param({"100", "400", "1600"})
+    public int concurrency;
+
+    @Param({"32", "1024"})
+    public int mailboxWorkers;
+
+    private final AtomicLong nextUser = new AtomicLong();
+    private ExecutorService servletThreads;
+    private UserMailboxExecutor userMailboxExecutor;
+    private PointRequestExecutor pointRequestExecutor;
+    private PointController pointController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        servletThreads = Executors.newFixedThreadPool(SERVLET_THREADS);
+        userMailboxExecutor = new UserMailboxExecutor(mailboxWorkers, UserMailboxExecutor.DEFAULT_DRAIN_BATCH_SIZE);
+        // 측정 중 타임아웃이 섞이지 않도록 넉넉히 둔다.
+        pointRequestExecutor = new PointRequestExecutor(PointRequestExecutor.DEFAULT_THREADS, concurrency,
+                TimeUnit.MINUTES.toMillis(5), false);
+        PointService pointService = new PointService(
+                new PointHistoryIndex(new BenchmarkPointHistoryTable(true)),
+                new UserPointCache(new BenchmarkUserPointTable(true)),
+                userMailboxExecutor, PointWriteMode.SERIAL, 0L, 1);
+        pointController = new PointController(new PointShardRouter(pointService), pointRequestExecutor,
+                new PointStreamHub());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        servletThreads.shutdownNow();
+        pointRequestExecutor.close();
+        userMailboxExecutor.close();
+    }
+
+    @Benchmark
+    public void chargeWave() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            long userId = nextUser.incrementAndGet();
+            responses[i] = model == Model.SYNC
+                    ? CompletableFuture.supplyAsync(() -> pointController.charge(userId, 1L), servletThreads)
+                    : CompletableFuture.supplyAsync(() -> pointController.chargeAsync(userId, 1L), servletThreads)
+                    .thenCompose(response -> response);
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.concurrent.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 만료 대기 lot 수에 따른 타이밍 휠 비용
+ * - pending : 미리 등록해둔 lot 수. 등록 비용이 이 값과 상관없이 일정한지 본다.
+ * - schedule : ttl(30일) 범위 안의 임의 시각으로 한 건 등록
+ * - advanceOneTick : 한 tick(1초) 진행. 칸 하나를 비우고, 경계에서만 위 단계 칸을 내린다.
+ *
+ * ./gradlew jmh -PjmhIncludes=PointExpirationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PointExpirationBenchmark {
+
+    private static final long TICK_MILLIS = 1000L;
+    private static final long TTL_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    @Param({"10000", "1000000", "4000000"})
+    public int pending;
+
+    private HierarchicalTimingWheel wheel;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        wheel = new HierarchicalTimingWheel(TICK_MILLIS, 0L);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < pending; i++) {
+            wheel.schedule(i, TICK_MILLIS + random.nextLong(TTL_MILLIS));
+        }
+        now = 0L;
+    }
+
+    @Benchmark
+    public long schedule() {
+        wheel.schedule(1L, now + TTL_MILLIS - ThreadLocalRandom.current().nextLong(TTL_MILLIS / 2));
+        return wheel.size();
+    }
+
+    @Benchmark
+    public long advanceOneTick() {
+        now += TICK_MILLIS;
+        long[] fired = new long[1];
+        wheel.advance(now, key -> fired[0]++);
+        return fired[0];
+    }
+}
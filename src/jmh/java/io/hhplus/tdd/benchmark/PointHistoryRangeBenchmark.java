@@ -0,0 +1,95 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryStore;
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 한 유저의 내역이 많을 때 기간 조회 비용
+ * - rows : 유저 한 명의 내역 수. 1초에 한 건씩 쌓이고, 1% 는 최대 1분 늦은 시각으로 들어온다.
+ * - window : 조회 구간(초). 구간 안의 건수가 대략 이만큼이다.
+ * - timeIndex : selectByTimeRange. 시작 위치를 이진 탐색하고 구간만 읽는다.
+ * - fullScan : 기존처럼 전체 내역을 받아 시각으로 거른다.
+ *
+ * ./gradlew jmh -PjmhIncludes=PointHistoryRangeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PointHistoryRangeBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final long START_MILLIS = 1_700_000_000_000L;
+
+    @Param({"COLUMNAR", "TABLE"})
+    public PointStoreType store;
+
+    @Param({"1000000", "4000000"})
+    public int rows;
+
+    @Param({"100", "10000"})
+    public int window;
+
+    private PointHistoryStore pointHistoryStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pointHistoryStore = store == PointStoreType.COLUMNAR
+                ? new ColumnarPointHistoryStore()
+                : new PointHistoryIndex(new BenchmarkPointHistoryTable(false));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < rows; i++) {
+            long millis = START_MILLIS + i * 1000L;
+            if (random.nextInt(100) == 0) {
+                millis -= random.nextLong(60_000L);
+            }
+            pointHistoryStore.insert(USER_ID, 100L, i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, millis);
+        }
+    }
+
+    @Benchmark
+    public int timeIndex() {
+        long from = randomFrom();
+        return pointHistoryStore.selectByTimeRange(USER_ID, from, from + window * 1000L, null).size();
+    }
+
+    @Benchmark
+    public int timeIndexWithType() {
+        long from = randomFrom();
+        return pointHistoryStore.selectByTimeRange(USER_ID, from, from + window * 1000L, TransactionType.USE).size();
+    }
+
+    @Benchmark
+    public int fullScan() {
+        long from = randomFrom();
+        long to = from + window * 1000L;
+        List<PointHistory> all = pointHistoryStore.selectAllByUserId(USER_ID);
+        int count = 0;
+        for (PointHistory pointHistory : all) {
+            if (pointHistory.updateMillis() >= from && pointHistory.updateMillis() < to) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long randomFrom() {
+        return START_MILLIS + ThreadLocalRandom.current().nextLong(rows - window) * 1000L;
+    }
+}
@@ -0,0 +1,145 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.ColumnarUserPointStore;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryStore;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointLedger;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.hhplus.tdd.point.PointWritePipeline;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PointService 핫패스 벤치마크
+ * - throttle : 테이블 지연을 원본과 같게 둘지(true), 끌지(false). false 면 락/자료구조 비용만 남는다.
+ * - skew : HOT 은 모든 스레드가 1번 유저만, UNIFORM 은 users 명에게 고르게 요청한다.
+ * - historySize : 측정 전에 미리 쌓아둘 내역 수
+ * - writeMode : PointService 반영 방식
+ * - store : 잔액/내역 저장소. COLUMNAR 는 테이블을 거치지 않으므로 throttle 과 상관없다.
+ *
+ * 스레드 수는 -PjmhThreads 로 바꿔가며 실행한다.
+ * ./gradlew jmh -PjmhIncludes=PointServiceBenchmark -PjmhThreads=16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointServiceBenchmark {
+
+    public enum Skew {
+        HOT, UNIFORM
+    }
+
+    @Param({"false", "true"})
+    public boolean throttle;
+
+    @Param({"HOT", "UNIFORM"})
+    public Skew skew;
+
+    @Param({"0", "10000", "100000"})
+    public int historySize;
+
+    @Param({"SERIAL", "GROUP_COMMIT", "LEDGER"})
+    public PointWriteMode writeMode;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"TABLE", "COLUMNAR"})
+    public PointStoreType store;
+
+    private BenchmarkUserPointTable userPointTable;
+    private BenchmarkPointHistoryTable pointHistoryTable;
+    private UserMailboxExecutor userMailboxExecutor;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userPointTable = new BenchmarkUserPointTable(false);
+        pointHistoryTable = new BenchmarkPointHistoryTable(false);
+        PointHistoryStore pointHistoryStore = store == PointStoreType.COLUMNAR
+                ? new ColumnarPointHistoryStore() : new PointHistoryIndex(pointHistoryTable);
+        UserPointStore userPointStore = store == PointStoreType.COLUMNAR
+                ? new ColumnarUserPointStore() : new UserPointCache(userPointTable);
+        userMailboxExecutor = new UserMailboxExecutor(64, UserMailboxExecutor.DEFAULT_DRAIN_BATCH_SIZE);
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        PointRollup pointRollup = new PointRollup();
+        pointService = new PointService(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryStore), userPointStore, userMailboxExecutor,
+                new StripedLockManager(), new PointLedger(), pointMetrics, new PointWriteAheadLog(), pointRollup,
+                PointExpiration.disabled(), new PointStreamHub(), PointAdmission.unlimited(), writeMode, 5L, 32));
+        // 한도/잔액 검사 때문에 측정 도중 실패가 섞이지 않도록 충분히 크게 둔다.
+        pointService.MAX_POINT = Long.MAX_VALUE;
+
+        // 사전 데이터는 throttle 없이 넣는다.
+        for (long userId = 1; userId <= users; userId++) {
+            if (store == PointStoreType.COLUMNAR) {
+                userPointStore.updatePoint(userId, Long.MAX_VALUE / 4);
+            } else {
+                userPointTable.insertOrUpdate(userId, Long.MAX_VALUE / 4);
+            }
+        }
+        for (int i = 0; i < historySize; i++) {
+            long userId = skew == Skew.HOT ? 1L : 1L + (i % users);
+            pointHistoryStore.insert(userId, 1L, TransactionType.CHARGE, System.currentTimeMillis());
+        }
+
+        userPointTable.setThrottled(throttle);
+        pointHistoryTable.setThrottled(throttle);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        userMailboxExecutor.close();
+    }
+
+    @Benchmark
+    public long chargePoints() {
+        return pointService.chargePoints(nextUser(), 1L, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long usePoints() {
+        return pointService.usePoints(nextUser(), 1L, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long searchRestPoints() {
+        return pointService.searchRestPoints(nextUser());
+    }
+
+    @Benchmark
+    public PointHistory[] searchPointhistory() {
+        return pointService.searchPointhistory(nextUser());
+    }
+
+    private long nextUser() {
+        return skew == Skew.HOT ? 1L : 1L + ThreadLocalRandom.current().nextInt(users);
+    }
+}
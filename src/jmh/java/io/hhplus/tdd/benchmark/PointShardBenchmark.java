@@ -0,0 +1,91 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointShard;
+import io.hhplus.tdd.point.PointShardRouter;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 샤드 수에 따른 처리량 벤치마크
+ * - shards : 샤드 수. 1 이면 단일 PointService 와 같은 구성이다.
+ * - workerThreads : 전체 메일박스 워커 수. 샤드 수로 나눠 배분하므로 샤드 수와 상관없이 같다.
+ * - 샤드는 제공된 테이블(지연 포함)을 직접 만들므로 COLUMNAR 저장소로 측정해 자료구조/락 경합만 남긴다.
+ * - users 명에게 고르게 요청한다.
+ * - metrics : false 면 하위 레지스트리가 없는 CompositeMeterRegistry 를 줘서 미터가 아무것도 기록하지 않게 한다.
+ *   true 와의 차이가 계측 비용이다.
+ *
+ * 스레드 수를 코어 수 근처로 올려가며 실행한다.
+ * ./gradlew jmh -PjmhIncludes=PointShardBenchmark -PjmhThreads=16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointShardBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"32"})
+    public int workerThreads;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"true", "false"})
+    public boolean metrics;
+
+    private PointShardRouter pointShardRouter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PointMetrics pointMetrics = metrics ? PointMetrics.standalone() : new PointMetrics(new CompositeMeterRegistry());
+        List<PointShard> pointShards = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            pointShards.add(new PointShard(i, PointStoreType.COLUMNAR, Math.max(1, workerThreads / shards), false, users,
+                    Math.max(1, 1024 / shards), PointWriteMode.SERIAL, 0L, 1, pointMetrics));
+        }
+        pointShardRouter = new PointShardRouter(pointShards);
+        for (PointShard pointShard : pointShards) {
+            // 한도 검사 때문에 측정 도중 실패가 섞이지 않도록 충분히 크게 둔다.
+            pointShard.pointService().MAX_POINT = Long.MAX_VALUE;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pointShardRouter.close();
+    }
+
+    @Benchmark
+    public long chargePoints() {
+        long userId = nextUser();
+        return pointShardRouter.route(userId).chargePoints(userId, 1L, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long searchRestPoints() {
+        long userId = nextUser();
+        return pointShardRouter.route(userId).searchRestPoints(userId);
+    }
+
+    private long nextUser() {
+        return 1L + ThreadLocalRandom.current().nextInt(users);
+    }
+}
@@ -0,0 +1,116 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.ColumnarUserPointStore;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointLedger;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointTransferResult;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.hhplus.tdd.point.PointWritePipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엇갈리는 이체가 몰릴 때의 처리량 벤치마크
+ * - users : 이체 상대를 고르는 유저 수. 2 면 모든 스레드가 1<->2 를 서로 반대 방향으로 보낸다.
+ * - stripes : 락 stripe 수. 작을수록 서로 다른 유저 쌍도 같은 stripe 에 걸린다. 이체는 락 대신 메일박스 차례를 잡는다.
+ * - transfer : 두 유저의 메일박스 차례를 id 순서로 잡은 한 구간에서 옮기는 이체
+ * - useThenCharge : 기존 방식. 사용과 충전을 따로 호출한다. (원자적이지 않다)
+ *
+ * 저장소는 COLUMNAR 로 두어 테이블 지연 없이 락 비용만 비교한다. 측정이 끝나면 총합이 그대로인지 확인한다.
+ * ./gradlew jmh -PjmhIncludes=PointTransferBenchmark -PjmhThreads=16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointTransferBenchmark {
+
+    private static final long INITIAL_POINT = 1_000_000_000L;
+
+    @Param({"2", "16", "1024"})
+    public int users;
+
+    @Param({"16", "1024"})
+    public int stripes;
+
+    @Param({"SERIAL", "LEDGER"})
+    public PointWriteMode writeMode;
+
+    private UserMailboxExecutor userMailboxExecutor;
+    private PointService pointService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ColumnarPointHistoryStore pointHistoryStore = new ColumnarPointHistoryStore();
+        userMailboxExecutor = new UserMailboxExecutor();
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        PointRollup pointRollup = new PointRollup();
+        pointService = new PointService(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryStore), new ColumnarUserPointStore(users), userMailboxExecutor,
+                new StripedLockManager(stripes), new PointLedger(), pointMetrics, new PointWriteAheadLog(),
+                pointRollup, PointExpiration.disabled(), new PointStreamHub(), PointAdmission.unlimited(), writeMode,
+                0L, 1));
+        pointService.MAX_POINT = Long.MAX_VALUE;
+        for (long userId = 1; userId <= users; userId++) {
+            pointService.chargePoints(userId, INITIAL_POINT, System.currentTimeMillis());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long total = 0;
+        for (long userId = 1; userId <= users; userId++) {
+            total += pointService.searchRestPoints(userId);
+        }
+        userMailboxExecutor.close();
+        if (total != INITIAL_POINT * users) {
+            throw new IllegalStateException("이체 후 총합이 맞지 않습니다. expected=" + INITIAL_POINT * users
+                    + " actual=" + total);
+        }
+    }
+
+    @Benchmark
+    public PointTransferResult transfer() {
+        long from = nextUser();
+        return pointService.transfer(from, partnerOf(from), 1L, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long useThenCharge() {
+        long from = nextUser();
+        pointService.usePoints(from, 1L, System.currentTimeMillis());
+        return pointService.chargePoints(partnerOf(from), 1L, System.currentTimeMillis());
+    }
+
+    private long nextUser() {
+        return 1L + ThreadLocalRandom.current().nextInt(users);
+    }
+
+    /**
+     * from 이 아닌 임의의 상대. 같은 쌍이 양방향으로 섞이도록 고른다.
+     */
+    private long partnerOf(long from) {
+        long to = 1L + ThreadLocalRandom.current().nextInt(users - 1);
+        return to >= from ? to + 1 : to;
+    }
+}
@@ -0,0 +1,121 @@
+package io.hhplus.tdd.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.point.PointBinaryFormat;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointJsonWriter;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답 직렬화 비용 : 기존 Jackson(ObjectMapper) / PointJsonWriter / PointBinaryFormat
+ * - histories : 내역 목록 응답의 건수
+ * - 응답 스트림 대신 쓴 바이트 수만 세는 스트림에 쓴다. 컨트롤러처럼 응답마다 새로 쓰므로 writer/generator 생성 비용도 포함된다.
+ * - 반환값은 쓴 바이트 수. 같은 응답에서 JSON 과 바이너리의 크기 차이도 볼 수 있다.
+ *
+ * ./gradlew jmh -PjmhIncludes=PointWireFormatBenchmark -PjmhProfilers=gc
+ * (gc.alloc.rate.norm 이 호출 한 번당 할당 byte 다.)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PointWireFormatBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int histories;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountingOutputStream out = new CountingOutputStream();
+    private UserPoint userPoint;
+    private List<PointHistory> pointHistories;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        userPoint = new UserPoint(1L, 1_234_567L, now);
+        pointHistories = new ArrayList<>(histories);
+        for (int i = 0; i < histories; i++) {
+            pointHistories.add(new PointHistory(i + 1, 1L, 100L + i,
+                    i % 2 == 0 ? TransactionType.CHARGE : TransactionType.USE, now + i));
+        }
+    }
+
+    @Benchmark
+    public long jacksonUserPoint() throws IOException {
+        out.count = 0;
+        objectMapper.writeValue(out, userPoint);
+        return out.count;
+    }
+
+    @Benchmark
+    public long jsonWriterUserPoint() throws IOException {
+        out.count = 0;
+        PointJsonWriter writer = new PointJsonWriter(out, 0);
+        writer.write(userPoint);
+        writer.drain();
+        return out.count;
+    }
+
+    @Benchmark
+    public long binaryUserPoint() throws IOException {
+        out.count = 0;
+        PointBinaryFormat.write(userPoint, out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long jacksonHistories() throws IOException {
+        out.count = 0;
+        objectMapper.writeValue(out, pointHistories);
+        return out.count;
+    }
+
+    @Benchmark
+    public long jsonWriterHistories() throws IOException {
+        out.count = 0;
+        PointJsonWriter writer = new PointJsonWriter(out, PointJsonWriter.bufferSizeForHistories(pointHistories.size()));
+        writer.write(pointHistories);
+        writer.drain();
+        return out.count;
+    }
+
+    @Benchmark
+    public long binaryHistories() throws IOException {
+        out.count = 0;
+        PointBinaryFormat.write(pointHistories, out);
+        return out.count;
+    }
+
+    /**
+     * 쓴 바이트 수만 센다. 복사하지 않으므로 직렬화 자체 비용만 남는다.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.hhplus.tdd.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+final class Throttle {
+
+    private Throttle() {
+    }
+
+    static void sleep(boolean enabled, long maxMillis) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep((long) (ThreadLocalRandom.current().nextDouble() * maxMillis));
+        } catch (InterruptedException ignored) {
+
+        }
+    }
+}
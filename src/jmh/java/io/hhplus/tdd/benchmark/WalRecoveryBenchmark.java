@@ -0,0 +1,98 @@
+package io.hhplus.tdd.benchmark;
+
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * WAL 재시작 복구 시간 벤치마크
+ * - rows : 미리 기록해둘 충전/사용 레코드 수 (기본 100만 건)
+ * - snapshot : true 면 90% 지점에 스냅샷을 남긴다. 스냅샷에 반영된 세그먼트는 내역 아카이브로 옮겨지고 잔액은 tail 만 다시 적용한다.
+ * - restoreHistory : 내역까지 복구할지. 켜면 스냅샷과 상관없이 아카이브와 세그먼트를 모두 읽는다.
+ * 세그먼트가 여러 개여야 스냅샷으로 건너뛸 세그먼트가 생기므로 100만 건(45MB)이 12개 세그먼트에 나뉘도록 4MB 로 쓴다.
+ *
+ * 측정 한 번이 재시작 한 번이다. (스냅샷/세그먼트 읽기 + 캐시/인덱스 채우기)
+ * ./gradlew jmh -PjmhIncludes=WalRecoveryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class WalRecoveryBenchmark {
+
+    private static final int SEGMENT_SIZE_MB = 4;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"10000"})
+    public int users;
+
+    @Param({"false", "true"})
+    public boolean snapshot;
+
+    @Param({"false", "true"})
+    public boolean restoreHistory;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("point-wal-bench");
+        long[] balances = new long[users];
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE_MB * 1024 * 1024, 2L,
+                Long.MAX_VALUE, false)) {
+            for (int i = 0; i < rows; i++) {
+                int user = i % users;
+                boolean charge = balances[user] < 100 || i % 3 != 0;
+                long amount = charge ? 100L : -50L;
+                balances[user] += amount;
+                wal.append(user + 1L, amount, charge ? TransactionType.CHARGE : TransactionType.USE,
+                        System.currentTimeMillis(), balances[user]);
+                if (snapshot && i == rows * 9 / 10) {
+                    wal.snapshot();
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public PointWriteAheadLog.Recovery restart() {
+        UserPointCache userPointCache = new UserPointCache(new BenchmarkUserPointTable(false));
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(new BenchmarkPointHistoryTable(false));
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(userPointCache, pointHistoryIndex, true,
+                directory.toString(), SEGMENT_SIZE_MB, 2L, Long.MAX_VALUE, restoreHistory)) {
+            return wal.recovered();
+        }
+    }
+}
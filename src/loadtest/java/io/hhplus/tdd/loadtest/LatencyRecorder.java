@@ -0,0 +1,96 @@
+package io.hhplus.tdd.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 워커 한 명이 엔드포인트 하나에 대해 쓰는 기록. 워커끼리 공유하지 않으므로 동기화하지 않는다.
+ * 지연 시간은 모두 남겨두었다가 끝난 뒤 합쳐서 정렬해 백분위를 구한다. (100만 건에 8MB)
+ */
+final class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+    private int count;
+    private long status2xx;
+    private long status4xx;
+    private long status5xx;
+    private long transportErrors;
+
+    void record(long latencyNanos, int status) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (status >= 500) {
+            status5xx++;
+        } else if (status >= 400) {
+            status4xx++;
+        } else {
+            status2xx++;
+        }
+    }
+
+    /**
+     * 연결 실패/타임아웃처럼 응답을 받지 못한 요청
+     */
+    void recordTransportError(long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        transportErrors++;
+    }
+
+    static Summary summarize(Iterable<LatencyRecorder> recorders, double elapsedSeconds) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        long status2xx = 0;
+        long status4xx = 0;
+        long status5xx = 0;
+        long transportErrors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, merged, offset, recorder.count);
+            offset += recorder.count;
+            status2xx += recorder.status2xx;
+            status4xx += recorder.status4xx;
+            status5xx += recorder.status5xx;
+            transportErrors += recorder.transportErrors;
+        }
+        Arrays.sort(merged);
+        return new Summary(total, total / elapsedSeconds, percentileMillis(merged, 0.50),
+                percentileMillis(merged, 0.95), percentileMillis(merged, 0.99),
+                total == 0 ? 0 : merged[total - 1] / 1_000_000.0, status2xx, status4xx, status5xx, transportErrors,
+                total == 0 ? 0 : (double) (status5xx + transportErrors) / total);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * 엔드포인트별(또는 전체) 집계
+     *
+     * @param errorRate (5xx + 전송 실패) / 요청 수. 4xx 는 잔액 부족 같은 업무 거절이라 따로 센다.
+     */
+    record Summary(
+            long requests,
+            double throughputPerSecond,
+            double p50Millis,
+            double p95Millis,
+            double p99Millis,
+            double maxMillis,
+            long status2xx,
+            long status4xx,
+            long status5xx,
+            long transportErrors,
+            double errorRate
+    ) {
+    }
+}
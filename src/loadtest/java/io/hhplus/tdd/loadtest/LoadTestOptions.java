@@ -0,0 +1,116 @@
+package io.hhplus.tdd.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 부하 생성기 설정. --key=value 형식의 인자로 받는다.
+ *
+ * @param baseUrl         대상 서버 주소. 비우면 애플리케이션을 같은 JVM 에서 임의 포트로 띄운다.
+ * @param concurrency     동시에 요청을 보내는 가상 사용자 수 (closed loop)
+ * @param warmupSeconds   집계하지 않고 먼저 돌리는 시간
+ * @param durationSeconds 집계하는 시간
+ * @param users           대상 유저 수 (1 ~ users)
+ * @param distribution    유저 id 분포
+ * @param zipfExponent    ZIPF 일 때의 기울기. 클수록 앞쪽 유저에 몰린다.
+ * @param mix             엔드포인트별 가중치
+ * @param amount          충전/사용 금액
+ * @param output          요약(JSON)을 쓸 경로
+ * @param label           요약에 남길 이름 (릴리스 비교용)
+ * @param appArgs         같은 JVM 에서 띄울 때 애플리케이션에 넘길 설정. --app.point.write.mode=LEDGER 처럼 app. 을 붙여 받는다.
+ */
+public record LoadTestOptions(
+        String baseUrl,
+        int concurrency,
+        int warmupSeconds,
+        int durationSeconds,
+        int users,
+        UserDistribution distribution,
+        double zipfExponent,
+        Map<Endpoint, Integer> mix,
+        long amount,
+        Path output,
+        String label,
+        List<String> appArgs
+) {
+
+    public enum UserDistribution {
+        UNIFORM, ZIPF
+    }
+
+    public enum Endpoint {
+        POINT("point"), HISTORIES("histories"), CHARGE("charge"), USE("use");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+    }
+
+    private static final String DEFAULT_MIX = "point=50,histories=20,charge=20,use=10";
+
+    public LoadTestOptions {
+        if (concurrency <= 0 || durationSeconds <= 0 || warmupSeconds < 0 || users <= 0) {
+            throw new IllegalArgumentException("concurrency, duration, users 는 0보다 커야 합니다.");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix 가중치 합은 0보다 커야 합니다.");
+        }
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("--key=value 형식이 아닙니다: " + arg);
+            }
+            if (arg.startsWith("--app.")) {
+                appArgs.add("--" + arg.substring("--app.".length()));
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("base-url", ""),
+                Integer.parseInt(values.getOrDefault("concurrency", "64")),
+                Integer.parseInt(values.getOrDefault("warmup", "5")),
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                UserDistribution.valueOf(values.getOrDefault("distribution", "UNIFORM").toUpperCase()),
+                Double.parseDouble(values.getOrDefault("zipf-exponent", "1.0")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Long.parseLong(values.getOrDefault("amount", "10")),
+                Path.of(values.getOrDefault("output", "build/reports/loadtest/summary.json")),
+                values.getOrDefault("label", "local"),
+                List.copyOf(appArgs));
+    }
+
+    /**
+     * "point=50,histories=20,charge=20,use=10" 형식. 빠진 엔드포인트는 0 이다.
+     */
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            weights.put(endpoint, 0);
+        }
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix 형식이 잘못되었습니다: " + entry);
+            }
+            weights.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+}
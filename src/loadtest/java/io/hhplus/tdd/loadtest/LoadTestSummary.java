@@ -0,0 +1,21 @@
+package io.hhplus.tdd.loadtest;
+
+import java.util.Map;
+
+/**
+ * 부하 테스트 결과. 그대로 JSON 으로 남겨 릴리스끼리 비교한다.
+ *
+ * @param label     실행 이름
+ * @param startedAt 측정 시작 시각 (ISO-8601)
+ * @param config    실행 설정
+ * @param total     전체 집계
+ * @param endpoints 엔드포인트별 집계 (point, histories, charge, use)
+ */
+public record LoadTestSummary(
+        String label,
+        String startedAt,
+        Map<String, Object> config,
+        LatencyRecorder.Summary total,
+        Map<String, LatencyRecorder.Summary> endpoints
+) {
+}
@@ -0,0 +1,201 @@
+package io.hhplus.tdd.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.hhplus.tdd.TddApplication;
+import io.hhplus.tdd.loadtest.LoadTestOptions.Endpoint;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * /point 엔드포인트용 부하 생성기
+ * - base-url 이 없으면 애플리케이션을 같은 JVM 에서 임의 포트로 띄운 뒤 요청한다.
+ * - concurrency 명의 가상 사용자가 응답을 받자마자 다음 요청을 보낸다. (closed loop)
+ * - warmup 동안은 집계하지 않고, duration 동안의 처리량과 p50/p95/p99/max 지연, 상태 코드별 건수를 JSON 으로 남긴다.
+ *
+ * ./gradlew loadTest -PloadArgs="--concurrency=64 --duration=30 --distribution=ZIPF --mix=point=50,charge=50"
+ */
+public class PointLoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final UserIdGenerator userIdGenerator;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    PointLoadGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.userIdGenerator = UserIdGenerator.of(options);
+        List<Endpoint> weighted = options.mix().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        this.endpoints = weighted.toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int sum = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            sum += options.mix().get(endpoints[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl.isBlank()) {
+            List<String> appArgs = new ArrayList<>(options.appArgs());
+            appArgs.add("--server.port=0");
+            context = SpringApplication.run(TddApplication.class, appArgs.toArray(new String[0]));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadTestSummary summary = new PointLoadGenerator(options).run(baseUrl);
+            write(summary, options);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    LoadTestSummary run(String baseUrl) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + Duration.ofSeconds(options.warmupSeconds()).toNanos();
+        long endNanos = measureFromNanos + Duration.ofSeconds(options.durationSeconds()).toNanos();
+        Instant startedAt = Instant.now().plusSeconds(options.warmupSeconds());
+
+        List<Map<Endpoint, LatencyRecorder>> recorders = new ArrayList<>(options.concurrency());
+        List<Thread> workers = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            Map<Endpoint, LatencyRecorder> own = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                own.put(endpoint, new LatencyRecorder());
+            }
+            recorders.add(own);
+            Thread worker = new Thread(() -> drive(baseUrl, own, measureFromNanos, endNanos), "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        double elapsedSeconds = options.durationSeconds();
+        Map<String, LatencyRecorder.Summary> byEndpoint = new LinkedHashMap<>();
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (options.mix().get(endpoint) > 0) {
+                byEndpoint.put(endpoint.key(), LatencyRecorder.summarize(
+                        recorders.stream().map(own -> own.get(endpoint)).toList(), elapsedSeconds));
+            }
+        }
+        LatencyRecorder.Summary total = LatencyRecorder.summarize(
+                recorders.stream().flatMap(own -> own.values().stream()).toList(), elapsedSeconds);
+        return new LoadTestSummary(options.label(), startedAt.toString(), config(baseUrl), total, byEndpoint);
+    }
+
+    /**
+     * 가상 사용자 한 명. 측정 구간이 끝날 때까지 요청을 보낸다.
+     */
+    private void drive(String baseUrl, Map<Endpoint, LatencyRecorder> recorders, long measureFromNanos,
+                       long endNanos) {
+        while (true) {
+            Endpoint endpoint = nextEndpoint();
+            HttpRequest request = request(baseUrl, endpoint, userIdGenerator.next());
+            long sentNanos = System.nanoTime();
+            if (sentNanos >= endNanos) {
+                return;
+            }
+            int status = -1;
+            try {
+                status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                // 응답을 받지 못한 요청은 전송 실패로 센다.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long latencyNanos = System.nanoTime() - sentNanos;
+            if (sentNanos < measureFromNanos) {
+                continue;
+            }
+            if (status < 0) {
+                recorders.get(endpoint).recordTransportError(latencyNanos);
+            } else {
+                recorders.get(endpoint).record(latencyNanos, status);
+            }
+        }
+    }
+
+    private Endpoint nextEndpoint() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private HttpRequest request(String baseUrl, Endpoint endpoint, long userId) {
+        String path = baseUrl + "/point/" + userId;
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        return switch (endpoint) {
+            case POINT -> builder.uri(URI.create(path)).GET().build();
+            case HISTORIES -> builder.uri(URI.create(path + "/histories")).GET().build();
+            case CHARGE, USE -> builder.uri(URI.create(path + "/" + endpoint.key()))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(String.valueOf(options.amount())))
+                    .build();
+        };
+    }
+
+    private Map<String, Object> config(String baseUrl) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", baseUrl);
+        config.put("concurrency", options.concurrency());
+        config.put("warmupSeconds", options.warmupSeconds());
+        config.put("durationSeconds", options.durationSeconds());
+        config.put("users", options.users());
+        config.put("distribution", options.distribution());
+        config.put("zipfExponent", options.zipfExponent());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix().forEach((endpoint, weight) -> mix.put(endpoint.key(), weight));
+        config.put("mix", mix);
+        config.put("amount", options.amount());
+        config.put("appArgs", options.appArgs());
+        return config;
+    }
+
+    private static void write(LoadTestSummary summary, LoadTestOptions options) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        String json = objectMapper.writeValueAsString(summary);
+        if (options.output().getParent() != null) {
+            Files.createDirectories(options.output().getParent());
+        }
+        Files.writeString(options.output(), json);
+        System.out.println(json);
+        System.out.println("요약 저장: " + options.output().toAbsolutePath());
+    }
+}
@@ -0,0 +1,46 @@
+package io.hhplus.tdd.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 요청마다 대상 유저 id (1 ~ users) 를 뽑는다.
+ * - UNIFORM : 모든 유저가 같은 확률
+ * - ZIPF : k 번째 유저가 1 / k^s 에 비례하는 확률. 누적 분포를 미리 계산해두고 이진 탐색으로 뽑는다.
+ */
+final class UserIdGenerator {
+
+    private final int users;
+    private final double[] cumulative;
+
+    private UserIdGenerator(int users, double[] cumulative) {
+        this.users = users;
+        this.cumulative = cumulative;
+    }
+
+    static UserIdGenerator of(LoadTestOptions options) {
+        if (options.distribution() == LoadTestOptions.UserDistribution.UNIFORM) {
+            return new UserIdGenerator(options.users(), null);
+        }
+        double[] cumulative = new double[options.users()];
+        double sum = 0;
+        for (int rank = 1; rank <= options.users(); rank++) {
+            sum += 1.0 / Math.pow(rank, options.zipfExponent());
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+        return new UserIdGenerator(options.users(), cumulative);
+    }
+
+    long next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cumulative == null) {
+            return 1L + random.nextInt(users);
+        }
+        int position = Arrays.binarySearch(cumulative, random.nextDouble());
+        int index = position < 0 ? -(position + 1) : position;
+        return 1L + Math.min(index, users - 1);
+    }
+}
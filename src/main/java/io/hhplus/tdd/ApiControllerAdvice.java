@@ -1,14 +1,54 @@
 package io.hhplus.tdd;
 
+import io.hhplus.tdd.concurrent.PointDeadlineExceededException;
+import io.hhplus.tdd.concurrent.PointOverloadedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 에러 응답(ErrorResponse)은 Accept 와 상관없이 항상 JSON 으로 내려준다.
+ * PointHttpMessageConverter 는 ErrorResponse 를 바이너리로 쓰지 못하므로, Accept 가 application/x-point-binary 뿐인
+ * 요청에서 협상에 맡기면 원래 상태 코드 대신 406 이 나간다. Content-Type 을 미리 정해 두면 협상을 건너뛴다.
+ */
 @RestControllerAdvice
 class ApiControllerAdvice extends ResponseEntityExceptionHandler {
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception e) {
-        return ResponseEntity.status(500).body(new ErrorResponse("500", "에러가 발생했습니다."));
+        return ResponseEntity.status(500).contentType(MediaType.APPLICATION_JSON).body(new ErrorResponse("500", "에러가 발생했습니다."));
+    }
+
+    /**
+     * 잔액 부족, 최대 포인트 초과처럼 요청한 거래를 규칙상 반영할 수 없는 경우. 배치 API 의 건별 실패와 같은 400 으로 내려준다.
+     */
+    @ExceptionHandler(value = IllegalStateException.class)
+    public ResponseEntity<ErrorResponse> handleRejected(IllegalStateException e) {
+        return ResponseEntity.status(400).contentType(MediaType.APPLICATION_JSON).body(new ErrorResponse("400", e.getMessage()));
+    }
+
+    /**
+     * 유저별/전체 입장 제한에 걸려 바로 거절한 경우. Retry-After(초) 뒤에 다시 시도하도록 알린다.
+     */
+    @ExceptionHandler(value = PointOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloaded(PointOverloadedException e) {
+        long retryAfterSeconds = Math.max(1L, (e.retryAfterMillis() + 999L) / 1000L);
+        return ResponseEntity.status(429)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse("429", e.getMessage()));
+    }
+
+    /**
+     * 비동기 API 가 제한 시간 안에 끝나지 않았거나, 실행기가 가득 차 받지 못했거나, 마감까지 시작하지 못해 취소한 경우
+     */
+    @ExceptionHandler(value = {TimeoutException.class, RejectedExecutionException.class, PointDeadlineExceededException.class})
+    public ResponseEntity<ErrorResponse> handleUnavailable(Exception e) {
+        return ResponseEntity.status(503).contentType(MediaType.APPLICATION_JSON).body(new ErrorResponse("503", "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요."));
     }
 }
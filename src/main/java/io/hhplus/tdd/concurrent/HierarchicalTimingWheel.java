@@ -0,0 +1,137 @@
+package io.hhplus.tdd.concurrent;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * 만료 시각에 맞춰 key(long) 를 꺼내주는 계층형 타이밍 휠
+ * - 한 칸의 크기는 tickMillis, 단계마다 64칸이며 위 단계의 한 칸은 아래 단계 한 바퀴와 같다. (6단계)
+ * - 등록 : 남은 tick 수로 단계를 고르고 그 단계의 칸에 붙인다. 등록된 건수와 상관없이 O(1) 이다.
+ * - 진행 : 아래 단계가 한 바퀴 돌 때마다 위 단계의 칸 하나를 아래 단계로 다시 나눠 담고(cascade), 0단계의 칸을 꺼낸다.
+ *   항목 하나는 최대 단계 수만큼만 옮겨진다.
+ *
+ * 등록 취소는 없다. 필요 없어진 항목은 꺼낼 때 호출자가 무시한다.
+ * 스레드 안전하지 않으므로 호출자가 락을 잡아야 한다.
+ */
+public class HierarchicalTimingWheel {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final Bucket[][] buckets = new Bucket[LEVELS][WHEEL_SIZE];
+    // 이미 꺼낸 마지막 tick. 이 tick 이하로 등록되는 항목은 다음 advance 에서 바로 꺼낸다.
+    private long currentTick;
+    private long size;
+
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("타이밍 휠 tick 은 0보다 커야 합니다.");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (Bucket[] level : buckets) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * deadlineMillis 가 지나면 key 를 꺼낸다. tick 단위로 올림하므로 deadline 보다 일찍 꺼내지는 않는다.
+     */
+    public void schedule(long key, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(key, Math.max(deadlineTick, currentTick + 1));
+        size++;
+    }
+
+    /**
+     * nowMillis 까지 만료된 항목을 모두 due 로 넘긴다.
+     */
+    public void advance(long nowMillis, LongConsumer due) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < nowTick) {
+            if (size == 0) {
+                currentTick = nowTick;
+                return;
+            }
+            currentTick++;
+            // 위 단계부터 내려야 같은 tick 에 여러 단계가 넘어갈 때 0단계 칸까지 한 번에 채워진다.
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    cascade(buckets[level][indexOf(currentTick, level)]);
+                }
+            }
+            Bucket fired = buckets[0][indexOf(currentTick, 0)];
+            size -= fired.size;
+            fired.drainTo(due);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private void cascade(Bucket bucket) {
+        int count = bucket.size;
+        long[] keys = Arrays.copyOf(bucket.keys, count);
+        long[] deadlines = Arrays.copyOf(bucket.deadlineTicks, count);
+        bucket.clear();
+        for (int i = 0; i < count; i++) {
+            place(keys[i], deadlines[i]);
+        }
+    }
+
+    private void place(long key, long deadlineTick) {
+        long remaining = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << (WHEEL_BITS * (level + 1))) {
+            level++;
+        }
+        if (remaining >= 1L << (WHEEL_BITS * LEVELS)) {
+            throw new IllegalArgumentException("타이밍 휠이 다룰 수 있는 기간을 넘었습니다.");
+        }
+        buckets[level][indexOf(deadlineTick, level)].add(key, deadlineTick);
+    }
+
+    private static int indexOf(long tick, int level) {
+        return (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    }
+
+    /**
+     * 한 칸에 담긴 항목. 항목마다 객체를 만들지 않도록 key 와 deadline 을 배열 두 개에 나눠 담는다.
+     */
+    private static final class Bucket {
+        private long[] keys = new long[0];
+        private long[] deadlineTicks = new long[0];
+        private int size;
+
+        void add(long key, long deadlineTick) {
+            if (size == keys.length) {
+                int capacity = Math.max(4, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, capacity);
+            }
+            keys[size] = key;
+            deadlineTicks[size] = deadlineTick;
+            size++;
+        }
+
+        void drainTo(LongConsumer due) {
+            for (int i = 0; i < size; i++) {
+                due.accept(keys[i]);
+            }
+            clear();
+        }
+
+        void clear() {
+            size = 0;
+            // 한 번 크게 늘어난 칸이 메모리를 계속 잡고 있지 않도록 비울 때 배열도 놓아준다.
+            keys = new long[0];
+            deadlineTicks = new long[0];
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package io.hhplus.tdd.concurrent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 쓰기 요청 입장 제한 (admission control)
+ * - 처리 중이거나 메일박스/락에서 기다리는 요청을 유저별 maxPerUser 건, 전체 maxGlobal 건까지만 받는다.
+ * - 넘치면 기다리게 하지 않고 PointOverloadedException 으로 바로 거절한다. 재시도 요청이 한 유저에 몰려도 대기열이 끝없이 늘지 않는다.
+ * - 받은 요청에는 deadlineMillis 뒤의 마감 시각을 붙인다. 마감까지 실행을 시작하지 못한 요청은 취소되어
+ *   호출자는 PointDeadlineExceededException 을 받고, 대기열에서 차례가 와도 실행하지 않는다.
+ *   이미 시작한 요청은 취소하지 않고 끝까지 기다리므로, 마감 초과로 실패했다면 반영되지 않은 것이다.
+ *
+ * 각 값이 0 이면 해당 제한을 두지 않는다.
+ */
+@Component
+public class PointAdmission implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_PER_USER = 64;
+    public static final int DEFAULT_MAX_GLOBAL = 10_000;
+    public static final long DEFAULT_DEADLINE_MILLIS = 3000L;
+    public static final long DEFAULT_RETRY_AFTER_MILLIS = 200L;
+
+    private final int maxPerUser;
+    private final int maxGlobal;
+    private final long deadlineMillis;
+    private final long retryAfterMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // 요청이 있는 유저만 담고, 0 이 되면 지운다.
+    private final ConcurrentHashMap<Long, Integer> inFlightByUser = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    // 마감이 있을 때만 만든다. 끝난 요청의 타이머는 바로 큐에서 지운다.
+    private final ScheduledThreadPoolExecutor deadlineTimer;
+
+    public static PointAdmission unlimited() {
+        return new PointAdmission(0, 0, 0L, DEFAULT_RETRY_AFTER_MILLIS);
+    }
+
+    @Autowired
+    public PointAdmission(@Value("${point.admission.max-per-user:" + DEFAULT_MAX_PER_USER + "}") int maxPerUser,
+                          @Value("${point.admission.max-global:" + DEFAULT_MAX_GLOBAL + "}") int maxGlobal,
+                          @Value("${point.admission.deadline-millis:" + DEFAULT_DEADLINE_MILLIS + "}") long deadlineMillis,
+                          @Value("${point.admission.retry-after-millis:" + DEFAULT_RETRY_AFTER_MILLIS + "}") long retryAfterMillis) {
+        if (maxPerUser < 0 || maxGlobal < 0 || deadlineMillis < 0 || retryAfterMillis < 0) {
+            throw new IllegalArgumentException("입장 제한 값은 0 이상이어야 합니다.");
+        }
+        this.maxPerUser = maxPerUser;
+        this.maxGlobal = maxGlobal;
+        this.deadlineMillis = deadlineMillis;
+        this.retryAfterMillis = retryAfterMillis;
+        if (deadlineMillis > 0) {
+            this.deadlineTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "point-admission-deadline");
+                thread.setDaemon(true);
+                return thread;
+            });
+            deadlineTimer.setRemoveOnCancelPolicy(true);
+        } else {
+            this.deadlineTimer = null;
+        }
+    }
+
+    /**
+     * 유저의 요청 하나를 받는다. 받은 요청은 끝날 때 반드시 Permit.release 를 불러야 한다.
+     */
+    public Permit admit(long userId) {
+        if (inFlight.incrementAndGet() > maxGlobal && maxGlobal > 0) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new PointOverloadedException("요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.",
+                    retryAfterMillis);
+        }
+        if (maxPerUser > 0) {
+            boolean[] admitted = new boolean[1];
+            inFlightByUser.compute(userId, (key, count) -> {
+                int current = count == null ? 0 : count;
+                if (current >= maxPerUser) {
+                    return count;
+                }
+                admitted[0] = true;
+                return current + 1;
+            });
+            if (!admitted[0]) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                throw new PointOverloadedException("같은 유저의 요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.",
+                        retryAfterMillis);
+            }
+        }
+        long deadlineNanos = deadlineMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis) : 0L;
+        return new Permit(userId, deadlineNanos);
+    }
+
+    public long deadlineMillis() {
+        return deadlineMillis;
+    }
+
+    public int inFlightCount() {
+        return inFlight.get();
+    }
+
+    public int inFlightCount(long userId) {
+        return inFlightByUser.getOrDefault(userId, 0);
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    @Override
+    public void close() {
+        if (deadlineTimer != null) {
+            deadlineTimer.shutdownNow();
+        }
+    }
+
+    private void release(long userId) {
+        inFlight.decrementAndGet();
+        if (maxPerUser > 0) {
+            inFlightByUser.computeIfPresent(userId, (key, count) -> count <= 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * 받은 요청 한 건. 대기(PENDING) → 시작(STARTED) 또는 취소(CANCELLED) 중 한 번만 바뀐다.
+     */
+    public final class Permit {
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final long userId;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long userId, long deadlineNanos) {
+            this.userId = userId;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public boolean hasDeadline() {
+            return deadlineNanos != 0L;
+        }
+
+        public long remainingNanos() {
+            return hasDeadline() ? deadlineNanos - System.nanoTime() : Long.MAX_VALUE;
+        }
+
+        /**
+         * 대기열에서 차례가 와 실행하기 직전에 부른다.
+         * 마감이 지났거나 이미 취소되었으면 호출자는 떠났으므로 실행하지 않고 실패시킨다.
+         */
+        public void begin() {
+            if (remainingNanos() <= 0) {
+                cancel();
+            }
+            if (state.compareAndSet(PENDING, STARTED) || state.get() == STARTED) {
+                return;
+            }
+            throw new PointDeadlineExceededException("처리 마감 시간이 지나 요청을 취소했습니다.");
+        }
+
+        /**
+         * 아직 시작하지 않았으면 취소한다. 이 요청이 실행되지 않는 것이 확정되면 true.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                expired.increment();
+                return true;
+            }
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * result 가 끝나면 요청을 내보낸다. 마감까지 시작하지 못하면 취소하고 PointDeadlineExceededException 으로 끝낸다.
+         * 돌려주는 future 는 내보낸 뒤에 끝나므로, 결과를 받은 호출자가 바로 다시 요청해도 자리가 비어 있다.
+         */
+        public <T> CompletableFuture<T> guard(CompletableFuture<T> result) {
+            ScheduledFuture<?> timer = null;
+            if (hasDeadline() && deadlineTimer != null && !result.isDone()) {
+                try {
+                    timer = deadlineTimer.schedule(() -> {
+                        if (cancel()) {
+                            result.completeExceptionally(
+                                    new PointDeadlineExceededException("처리 마감 시간이 지나 요청을 취소했습니다."));
+                        }
+                    }, Math.max(0L, remainingNanos()), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // 종료 중이면 대기열에서 차례가 올 때 begin 이 마감을 확인한다.
+                }
+            }
+            ScheduledFuture<?> scheduled = timer;
+            return result.whenComplete((value, e) -> {
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                // 시작 전에 다른 이유로 끝났다면 대기열의 명령만 막는다. 마감 초과로 세지 않는다.
+                state.compareAndSet(PENDING, CANCELLED);
+                release();
+            });
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                PointAdmission.this.release(userId);
+            }
+        }
+    }
+}
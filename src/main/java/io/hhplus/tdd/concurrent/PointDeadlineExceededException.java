@@ -0,0 +1,13 @@
+package io.hhplus.tdd.concurrent;
+
+/**
+ * 입장할 때 붙인 마감 시각까지 처리하지 못한 요청
+ */
+public class PointDeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PointDeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,65 @@
+package io.hhplus.tdd.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 포인트 작업용 실행기 생성
+ * - 가상 스레드 모드 : 작업마다 가상 스레드를 하나씩 쓴다. 테이블 throttle(sleep) 동안 캐리어 스레드를 놓아준다.
+ * - 기본 모드 : 고정 크기 플랫폼 스레드 풀
+ *
+ * 빌드는 Java 17 기준이라 가상 스레드 API 는 리플렉션으로 찾고,
+ * Java 21 미만에서 실행하면 경고를 남기고 플랫폼 스레드 풀을 쓴다.
+ * 리플렉션은 실행기를 만들 때 한 번만 거치고, 작업 실행 경로에는 없다.
+ */
+public final class PointExecutors {
+
+    private static final Logger log = LoggerFactory.getLogger(PointExecutors.class);
+    // Executors.newVirtualThreadPerTaskExecutor. Java 21 미만이면 null
+    private static final Method VIRTUAL_THREAD_FACTORY = virtualThreadFactoryMethod();
+
+    private PointExecutors() {
+    }
+
+    public static boolean virtualThreadsSupported() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    public static ExecutorService newWorkerPool(String threadNamePrefix, int threads, boolean virtualThreads) {
+        return newWorkerPool(threadNamePrefix, threads, virtualThreads, VIRTUAL_THREAD_FACTORY);
+    }
+
+    /**
+     * @param virtualThreadFactory 가상 스레드 실행기를 돌려주는 static 메서드. null 이면 지원하지 않는 런타임으로 본다.
+     */
+    static ExecutorService newWorkerPool(String threadNamePrefix, int threads, boolean virtualThreads,
+                                         Method virtualThreadFactory) {
+        if (virtualThreads) {
+            if (virtualThreadFactory != null) {
+                try {
+                    return (ExecutorService) virtualThreadFactory.invoke(null);
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    log.warn("가상 스레드 실행기를 만들지 못해 플랫폼 스레드를 사용합니다.", e);
+                }
+            } else {
+                log.warn("Java {} 에서는 가상 스레드를 쓸 수 없어 플랫폼 스레드를 사용합니다.", Runtime.version().feature());
+            }
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("스레드 수는 0보다 커야 합니다.");
+        }
+        return Executors.newFixedThreadPool(threads, new UserMailboxExecutor.NamedThreadFactory(threadNamePrefix));
+    }
+
+    private static Method virtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
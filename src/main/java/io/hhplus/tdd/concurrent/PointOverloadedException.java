@@ -0,0 +1,22 @@
+package io.hhplus.tdd.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 입장 제한에 걸려 바로 거절한 요청. retryAfterMillis 뒤에 다시 시도하길 권장한다.
+ */
+public class PointOverloadedException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterMillis;
+
+    public PointOverloadedException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long retryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
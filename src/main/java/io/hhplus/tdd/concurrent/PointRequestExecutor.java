@@ -0,0 +1,100 @@
+package io.hhplus.tdd.concurrent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 API 전용 실행기
+ * 서블릿 스레드는 요청을 여기에 넘기고 바로 반환되며, 테이블 지연(sleep)은 이 실행기의 스레드가 대신 기다린다.
+ * - 동시에 실행하는 작업은 threads 개, 대기는 queueCapacity 개까지 받고 넘치면 RejectedExecutionException 으로 바로 실패시킨다.
+ * - 모든 작업은 timeoutMillis 가 지나면 TimeoutException 으로 완료된다.
+ * - 가상 스레드 모드에서는 스레드 수 대신 동시에 받아둘 수 있는 작업 수(threads + queueCapacity)만 제한한다.
+ */
+@Component
+public class PointRequestExecutor implements AutoCloseable {
+
+    public static final int DEFAULT_THREADS = 64;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 3000L;
+
+    private final ExecutorService executor;
+    private final long timeoutMillis;
+    // 가상 스레드 모드에서만 쓴다. 플랫폼 스레드 풀은 큐 크기로 제한된다.
+    private final Semaphore permits;
+
+    public PointRequestExecutor() {
+        this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, DEFAULT_TIMEOUT_MILLIS, false);
+    }
+
+    @Autowired
+    public PointRequestExecutor(@Value("${point.async.threads:" + DEFAULT_THREADS + "}") int threads,
+                                @Value("${point.async.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}") int queueCapacity,
+                                @Value("${point.async.timeout-millis:" + DEFAULT_TIMEOUT_MILLIS + "}") long timeoutMillis,
+                                @Value("${point.execution.virtual-threads:false}") boolean virtualThreads) {
+        if (threads <= 0 || queueCapacity <= 0 || timeoutMillis <= 0) {
+            throw new IllegalArgumentException("스레드 수, 대기열 크기, 타임아웃은 0보다 커야 합니다.");
+        }
+        this.timeoutMillis = timeoutMillis;
+        if (virtualThreads && PointExecutors.virtualThreadsSupported()) {
+            this.executor = PointExecutors.newWorkerPool("point-async-", threads, true);
+            this.permits = new Semaphore(threads + queueCapacity);
+        } else {
+            this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new UserMailboxExecutor.NamedThreadFactory("point-async-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.permits = null;
+        }
+    }
+
+    /**
+     * action 을 실행기에서 실행한다. 실행기가 가득 찼으면 RejectedExecutionException 으로 실패한 future 를 돌려준다.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+        if (permits != null && !permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("비동기 요청 대기열이 가득 찼습니다."));
+        }
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(action, executor);
+        } catch (RejectedExecutionException e) {
+            release();
+            return CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, e) -> release());
+        return withTimeout(future);
+    }
+
+    /**
+     * 이미 다른 곳(메일박스 등)에서 실행 중인 작업에 같은 타임아웃을 건다.
+     * 시간이 지나면 넘겨받은 future 자체를 TimeoutException 으로 끝내므로, 그 future 를 만든 쪽이 완료를 보고
+     * 아직 시작하지 않은 작업을 취소할 수 있다. (PointService 의 충전/사용은 대기 중인 명령을 반영하지 않는다.)
+     */
+    public <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future) {
+        return future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.hhplus.tdd.concurrent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 고정 개수의 락(stripe)을 유저 id 해시로 나눠 쓰는 락 관리자
+ * - 유저 수와 상관없이 락 개수가 고정이라 메모리가 늘어나지 않는다.
+ * - 락 조회는 배열 인덱싱이라 O(1)이다.
+ * - 서로 다른 유저가 같은 stripe 에 걸리면 잠시 같이 기다릴 수 있어 stripe 별 경합 횟수를 기록한다.
+ */
+@Lazy
+@Component
+public class StripedLockManager {
+
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLongArray contendedByStripe;
+
+    public StripedLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    @Autowired
+    public StripedLockManager(@Value("${point.lock.stripes:" + DEFAULT_STRIPES + "}") int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("stripe 개수는 0보다 커야 합니다.");
+        }
+        // 2의 거듭제곱으로 올려 나머지 연산 대신 비트 마스크를 쓴다.
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.contendedByStripe = new AtomicLongArray(size);
+    }
+
+    public <T> T executeWithLock(long key, Supplier<T> action) {
+        int stripe = stripeOf(key);
+        ReentrantLock lock = locks[stripe];
+        acquire(lock, stripe);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 두 key 의 stripe 를 모두 잡은 상태에서 실행한다.
+     * 항상 stripe 번호가 작은 쪽부터 잡는다. 여러 락을 잡는 경로는 이것뿐이고 한 개만 잡는 경로는 잡은 채로 다른 락을 기다리지 않으므로,
+     * 락 대기 그래프에 순환이 생기지 않아 교착 상태가 될 수 없다. 두 key 가 같은 stripe 면 한 번만 잡는다.
+     */
+    public <T> T executeWithLocks(long first, long second, Supplier<T> action) {
+        int firstStripe = stripeOf(first);
+        int secondStripe = stripeOf(second);
+        if (firstStripe == secondStripe) {
+            return executeWithLock(first, action);
+        }
+        int lowStripe = Math.min(firstStripe, secondStripe);
+        int highStripe = Math.max(firstStripe, secondStripe);
+        ReentrantLock low = locks[lowStripe];
+        ReentrantLock high = locks[highStripe];
+        acquire(low, lowStripe);
+        try {
+            acquire(high, highStripe);
+            try {
+                return action.get();
+            } finally {
+                high.unlock();
+            }
+        } finally {
+            low.unlock();
+        }
+    }
+
+    public int stripeOf(long key) {
+        // 연속된 유저 id 가 인접 stripe 에 몰리지 않도록 비트를 섞는다. (murmur3 fmix64)
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public LockStats stats() {
+        int locked = 0;
+        long maxContended = 0;
+        for (int i = 0; i < locks.length; i++) {
+            if (locks[i].isLocked()) {
+                locked++;
+            }
+            maxContended = Math.max(maxContended, contendedByStripe.get(i));
+        }
+        return new LockStats(locks.length, acquisitions.sum(), contended.sum(), waitNanos.sum(), locked, maxContended);
+    }
+
+    public long contendedCount(int stripe) {
+        return contendedByStripe.get(stripe);
+    }
+
+    private void acquire(ReentrantLock lock, int stripe) {
+        acquisitions.increment();
+        // 경합이 없으면 시간 측정 없이 바로 획득한다.
+        if (lock.tryLock()) {
+            return;
+        }
+        contended.increment();
+        contendedByStripe.incrementAndGet(stripe);
+        long start = System.nanoTime();
+        lock.lock();
+        waitNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * @param stripes         stripe 개수
+     * @param acquisitions    누적 획득 횟수
+     * @param contended       바로 얻지 못하고 기다린 횟수
+     * @param waitNanos       기다린 시간 합계
+     * @param locked          현재 잡혀있는 stripe 수
+     * @param maxContended    가장 경합이 많았던 stripe 의 경합 횟수
+     */
+    public record LockStats(int stripes, long acquisitions, long contended, long waitNanos, int locked,
+                            long maxContended) {
+    }
+}
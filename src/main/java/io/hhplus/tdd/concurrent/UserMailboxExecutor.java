@@ -0,0 +1,237 @@
+package io.hhplus.tdd.concurrent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 유저별 메일박스 실행기
+ * - 유저 id 마다 메일박스(큐)를 두고, 들어온 순서대로 한 번에 하나씩만 실행한다. (single-writer, FIFO)
+ * - 실제 실행은 공용 워커 풀에서 하므로 대기 중인 요청이 스레드를 점유하지 않는다.
+ * - 메일박스가 비면 즉시 제거되어 활성 유저 수만큼만 메모리를 쓴다.
+ * - hold 로 메일박스 차례를 잡아두면 release 할 때까지 그 유저의 다음 명령은 실행되지 않는다.
+ *   여러 유저에 걸친 작업(이체)은 모든 유저의 차례를 잡은 뒤 한 구간에서 처리한다.
+ */
+@Lazy
+@Component
+public class UserMailboxExecutor implements AutoCloseable {
+
+    public static final int DEFAULT_WORKER_THREADS = 32;
+    public static final int DEFAULT_DRAIN_BATCH_SIZE = 64;
+
+    private final ExecutorService workers;
+    private final int drainBatchSize;
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public UserMailboxExecutor() {
+        this(DEFAULT_WORKER_THREADS, DEFAULT_DRAIN_BATCH_SIZE);
+    }
+
+    public UserMailboxExecutor(int workerThreads, int drainBatchSize) {
+        this(workerThreads, drainBatchSize, false);
+    }
+
+    /**
+     * virtualThreads 가 true 면 worker-threads 와 상관없이 명령마다 가상 스레드에서 drain 한다.
+     * 유저별 직렬 실행은 메일박스가 보장하므로 풀 크기로 동시성을 제한할 필요가 없다.
+     */
+    @Autowired
+    public UserMailboxExecutor(@Value("${point.mailbox.worker-threads:" + DEFAULT_WORKER_THREADS + "}") int workerThreads,
+                               @Value("${point.mailbox.drain-batch-size:" + DEFAULT_DRAIN_BATCH_SIZE + "}") int drainBatchSize,
+                               @Value("${point.execution.virtual-threads:false}") boolean virtualThreads) {
+        this(PointExecutors.newWorkerPool("point-mailbox-", workerThreads, virtualThreads), drainBatchSize);
+    }
+
+    public UserMailboxExecutor(ExecutorService workers, int drainBatchSize) {
+        if (drainBatchSize <= 0) {
+            throw new IllegalArgumentException("drainBatchSize 는 0보다 커야 합니다.");
+        }
+        this.workers = workers;
+        this.drainBatchSize = drainBatchSize;
+    }
+
+    /**
+     * 유저의 메일박스에 명령을 넣는다. 같은 유저의 명령은 submit 순서대로 실행된다.
+     */
+    public <T> CompletableFuture<T> submit(long userId, Supplier<T> command) {
+        return enqueue(userId, new Task<>(command, false));
+    }
+
+    private <T> CompletableFuture<T> enqueue(long userId, Task<T> task) {
+        boolean[] created = new boolean[1];
+        // 메일박스 생성/추가/제거는 모두 compute 안에서 일어나므로 같은 키에 대해 원자적이다.
+        mailboxes.compute(userId, (key, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox();
+                created[0] = true;
+            }
+            mailbox.tasks.add(task);
+            return mailbox;
+        });
+
+        // 메일박스를 새로 만든 호출자만 drain 을 시작하므로 유저당 drain 은 항상 하나다.
+        if (created[0]) {
+            schedule(userId);
+        }
+        return task.result;
+    }
+
+    /**
+     * 유저의 메일박스에 차례를 잡는 명령을 넣는다. 앞선 명령이 모두 끝나면 Hold 로 완료되고,
+     * Hold 를 release 할 때까지 그 뒤에 들어온 명령은 실행되지 않는다. 스레드를 붙잡지 않고 메일박스만 멈춘다.
+     * 여러 유저의 차례를 잡을 때는 모든 호출자가 같은 순서(유저 id 오름차순)로 잡아야 서로를 기다리며 멈추지 않는다.
+     * 완료되기 전에 future 를 끝내면(cancel) 차례를 잡지 않고 지나간다.
+     */
+    public CompletableFuture<Hold> hold(long userId) {
+        Hold hold = new Hold(userId);
+        return enqueue(userId, new Task<>(() -> hold, true));
+    }
+
+    /**
+     * 현재 메일박스가 살아있는(처리 중이거나 대기 명령이 있는) 유저 수
+     */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    public int pendingCount(long userId) {
+        int[] count = new int[1];
+        mailboxes.computeIfPresent(userId, (key, mailbox) -> {
+            count[0] = mailbox.tasks.size();
+            return mailbox;
+        });
+        return count[0];
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private void schedule(long userId) {
+        try {
+            workers.execute(() -> drain(userId));
+        } catch (RejectedExecutionException e) {
+            // 종료 중이라 실행할 수 없다면 남은 명령을 모두 실패 처리한다.
+            Mailbox mailbox = mailboxes.remove(userId);
+            if (mailbox != null) {
+                mailbox.tasks.forEach(task -> task.result.completeExceptionally(e));
+            }
+        }
+    }
+
+    private void drain(long userId) {
+        for (int i = 0; i < drainBatchSize; i++) {
+            Task<?> next = poll(userId);
+            if (next == null) {
+                return;
+            }
+            if (!next.run()) {
+                // 차례를 넘겨받은 Hold 가 release 할 때 다시 drain 을 시작한다.
+                return;
+            }
+        }
+        // 한 유저가 워커를 독점하지 않도록 남은 명령은 다시 줄을 세운다.
+        schedule(userId);
+    }
+
+    /**
+     * 다음 명령을 꺼낸다. 더 이상 없으면 메일박스를 제거하고 null 을 반환한다.
+     */
+    private Task<?> poll(long userId) {
+        Task<?>[] next = new Task<?>[1];
+        mailboxes.computeIfPresent(userId, (key, mailbox) -> {
+            next[0] = mailbox.tasks.poll();
+            return next[0] == null ? null : mailbox;
+        });
+        return next[0];
+    }
+
+    private static final class Mailbox {
+        // compute 블록 안에서만 접근하므로 별도 동기화가 필요 없다.
+        private final Queue<Task<?>> tasks = new ArrayDeque<>();
+    }
+
+    /**
+     * hold 로 잡은 메일박스 차례. release 는 여러 번 불러도 한 번만 반영된다.
+     */
+    public final class Hold implements AutoCloseable {
+        private final long userId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Hold(long userId) {
+            this.userId = userId;
+        }
+
+        public long userId() {
+            return userId;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                schedule(userId);
+            }
+        }
+
+        @Override
+        public void close() {
+            release();
+        }
+    }
+
+    private static final class Task<T> {
+        private final Supplier<T> command;
+        private final boolean holding;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Task(Supplier<T> command, boolean holding) {
+            this.command = command;
+            this.holding = holding;
+        }
+
+        /**
+         * @return 메일박스를 이어서 처리해도 되면 true. 호출자에게 차례를 넘긴 hold 명령이면 false
+         */
+        boolean run() {
+            // 호출자가 이미 취소한 명령은 실행하지 않는다.
+            if (result.isDone()) {
+                return true;
+            }
+            try {
+                // 취소와 겹쳐 호출자가 Hold 를 받지 못했다면 차례를 넘기지 않는다.
+                return !result.complete(command.get()) || !holding;
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return true;
+            }
+        }
+    }
+
+    static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger sequence = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
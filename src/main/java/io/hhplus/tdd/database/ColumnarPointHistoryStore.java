@@ -0,0 +1,313 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 컬럼별 primitive 배열 청크에 포인트 내역을 저장하는 저장소
+ * - id, userId, amount, updateMillis 는 long[], type 은 byte[] 청크에 행 번호 순서대로 쓴다.
+ *   청크가 차면 새 청크를 붙이므로 큰 배열을 복사하지 않는다.
+ * - 유저별로 자기 행 번호만 int[] 에 모아둬 전체를 훑지 않고 조회한다. 행 번호는 id 오름차순이라 이진 탐색할 수 있다.
+ * - 기간 조회는 updateMillis 순서인 행 번호 목록에서 이진 탐색한다. 시각이 id 순서대로 들어오는 동안은 위 목록을 그대로 쓰고,
+ *   처음으로 순서가 어긋난 유저만 updateMillis 순서 목록을 따로 만들어 유지한다.
+ * - PointHistory 는 조회 결과를 밖에 돌려줄 때만 만든다.
+ *
+ * 내역 한 건에 33 byte + 유저별 행 번호 4 byte(시각 순서가 어긋난 유저는 4 byte 더)만 쓰고 행마다 객체가 생기지 않는다.
+ * PointHistoryTable 을 거치지 않으므로 id 는 이 저장소가 1부터 매긴다. (WAL 을 쓰면 WAL 순번을 받는다.)
+ */
+public class ColumnarPointHistoryStore implements PointHistoryStore {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final long ABSENT = -1L;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[][] ids = new long[0][];
+    private long[][] userIds = new long[0][];
+    private long[][] amounts = new long[0][];
+    private long[][] updateMillis = new long[0][];
+    private byte[][] types = new byte[0][];
+    private int size;
+    private long lastId;
+
+    // 유저 id → 유저 번호, 유저 번호별 행 번호 목록
+    private final LongLongHashMap users = new LongLongHashMap(1024);
+    private int[][] rowsByUser = new int[16][];
+    // 유저 번호별 updateMillis 순서 행 번호 목록. 순서가 어긋난 적 없는 유저는 null
+    private int[][] rowsByTimeByUser = new int[16][];
+    private int[] rowCountByUser = new int[16];
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        lock.writeLock().lock();
+        try {
+            long id = ++lastId;
+            int row = append(id, userId, amount, type, updateMillis);
+            return view(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public PointHistory insert(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        lock.writeLock().lock();
+        try {
+            lastId = Math.max(lastId, id);
+            int row = append(id, userId, amount, type, updateMillis);
+            return view(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void restore(List<PointHistory> restoredHistories) {
+        lock.writeLock().lock();
+        try {
+            for (PointHistory pointHistory : restoredHistories) {
+                append(pointHistory.id(), pointHistory.userId(), pointHistory.amount(), pointHistory.type(),
+                        pointHistory.updateMillis());
+                lastId = Math.max(lastId, pointHistory.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        return selectPage(userId, 0L, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public PointHistory selectById(long userId, long historyId) {
+        lock.readLock().lock();
+        try {
+            int user = (int) users.get(userId, ABSENT);
+            if (user == ABSENT) {
+                return null;
+            }
+            int position = indexOf(user, historyId);
+            return position < 0 ? null : view(rowsByUser[user][position]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectPage(long userId, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int user = (int) users.get(userId, ABSENT);
+            if (user == ABSENT) {
+                return List.of();
+            }
+            int position = indexOf(user, afterId);
+            int from = position < 0 ? -(position + 1) : position + 1;
+            int to = (int) Math.min(rowCountByUser[user], (long) from + limit);
+            if (from >= to) {
+                return List.of();
+            }
+            List<PointHistory> page = new ArrayList<>(to - from);
+            int[] rows = rowsByUser[user];
+            for (int i = from; i < to; i++) {
+                page.add(view(rows[i]));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PointHistory> selectByTimeRange(long userId, long fromMillis, long toMillis, TransactionType type) {
+        lock.readLock().lock();
+        try {
+            int user = (int) users.get(userId, ABSENT);
+            if (user == ABSENT) {
+                return List.of();
+            }
+            int[] rows = rowsByTimeByUser[user] == null ? rowsByUser[user] : rowsByTimeByUser[user];
+            int count = rowCountByUser[user];
+            List<PointHistory> result = new ArrayList<>();
+            for (int i = firstAtOrAfter(rows, count, fromMillis); i < count; i++) {
+                int row = rows[i];
+                if (millisAt(row) >= toMillis) {
+                    break;
+                }
+                if (type == null || types[row >>> CHUNK_SHIFT][row & CHUNK_MASK] == type.ordinal()) {
+                    result.add(view(row));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean hasHistory(long userId) {
+        lock.readLock().lock();
+        try {
+            return users.get(userId, ABSENT) != ABSENT;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countByUserId(long userId) {
+        lock.readLock().lock();
+        try {
+            int user = (int) users.get(userId, ABSENT);
+            return user == ABSENT ? 0 : rowCountByUser[user];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int append(long id, long userId, long amount, TransactionType type, long millis) {
+        int row = size;
+        int chunk = row >>> CHUNK_SHIFT;
+        if (chunk == ids.length) {
+            addChunk();
+        }
+        int offset = row & CHUNK_MASK;
+        ids[chunk][offset] = id;
+        userIds[chunk][offset] = userId;
+        amounts[chunk][offset] = amount;
+        updateMillis[chunk][offset] = millis;
+        types[chunk][offset] = (byte) type.ordinal();
+        size++;
+        addUserRow(userId, row);
+        return row;
+    }
+
+    private void addChunk() {
+        int chunks = ids.length + 1;
+        ids = Arrays.copyOf(ids, chunks);
+        userIds = Arrays.copyOf(userIds, chunks);
+        amounts = Arrays.copyOf(amounts, chunks);
+        updateMillis = Arrays.copyOf(updateMillis, chunks);
+        types = Arrays.copyOf(types, chunks);
+        ids[chunks - 1] = new long[CHUNK_SIZE];
+        userIds[chunks - 1] = new long[CHUNK_SIZE];
+        amounts[chunks - 1] = new long[CHUNK_SIZE];
+        updateMillis[chunks - 1] = new long[CHUNK_SIZE];
+        types[chunks - 1] = new byte[CHUNK_SIZE];
+    }
+
+    private void addUserRow(long userId, int row) {
+        int user = (int) users.get(userId, ABSENT);
+        if (user == ABSENT) {
+            user = users.size();
+            users.put(userId, user);
+            if (user == rowsByUser.length) {
+                rowsByUser = Arrays.copyOf(rowsByUser, user << 1);
+                rowsByTimeByUser = Arrays.copyOf(rowsByTimeByUser, user << 1);
+                rowCountByUser = Arrays.copyOf(rowCountByUser, user << 1);
+            }
+            rowsByUser[user] = new int[4];
+        }
+        int count = rowCountByUser[user];
+        if (count == rowsByUser[user].length) {
+            rowsByUser[user] = Arrays.copyOf(rowsByUser[user], count << 1);
+        }
+        rowsByUser[user][count] = row;
+        rowCountByUser[user] = count + 1;
+        addTimeRow(user, count, row);
+    }
+
+    /**
+     * 유저의 updateMillis 순서 목록에 행을 넣는다. count 는 넣기 전 행 수
+     */
+    private void addTimeRow(int user, int count, int row) {
+        int[] byTime = rowsByTimeByUser[user];
+        if (byTime == null) {
+            if (count == 0 || millisAt(rowsByUser[user][count - 1]) <= millisAt(row)) {
+                return;
+            }
+            // 처음으로 순서가 어긋났다. 앞의 행들은 이미 updateMillis 순서이므로 복사해서 쓴다.
+            byTime = Arrays.copyOf(rowsByUser[user], rowsByUser[user].length);
+        } else if (count == byTime.length) {
+            byTime = Arrays.copyOf(byTime, rowsByUser[user].length);
+        }
+        // (updateMillis, 행 번호) 순서. 새 행은 유저 안에서 행 번호가 가장 크므로 같은 시각의 행들 뒤에 들어간다.
+        long millis = millisAt(row);
+        int position = millisAt(byTime[count - 1]) <= millis ? count : firstAtOrAfter(byTime, count, millis + 1);
+        System.arraycopy(byTime, position, byTime, position + 1, count - position);
+        byTime[position] = row;
+        rowsByTimeByUser[user] = byTime;
+    }
+
+    /**
+     * 유저의 행 목록에서 id 위치를 찾는다. 없으면 (-(삽입 위치) - 1)
+     */
+    private int indexOf(int user, long historyId) {
+        int[] rows = rowsByUser[user];
+        int low = 0;
+        int high = rowCountByUser[user] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(rows[mid]);
+            if (midId < historyId) {
+                low = mid + 1;
+            } else if (midId > historyId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * updateMillis 순서 행 목록에서 fromMillis 이상인 첫 위치
+     */
+    private int firstAtOrAfter(int[] rows, int count, long fromMillis) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (millisAt(rows[mid]) < fromMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long millisAt(int row) {
+        return updateMillis[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    private long idAt(int row) {
+        return ids[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+    }
+
+    private PointHistory view(int row) {
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        return new PointHistory(ids[chunk][offset], userIds[chunk][offset], amounts[chunk][offset],
+                TYPES[types[chunk][offset]], updateMillis[chunk][offset]);
+    }
+}
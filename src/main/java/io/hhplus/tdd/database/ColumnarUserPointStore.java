@@ -0,0 +1,102 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * primitive 배열에 잔액을 저장하는 저장소
+ * - 유저 id → 행 번호는 LongLongHashMap 으로 찾고, 잔액과 갱신 시각은 행 번호로 long[] 컬럼에서 읽는다.
+ * - 유저 한 명당 객체 없이 long 4개(키, 행 번호, 잔액, 시각) 정도만 쓴다.
+ * - UserPoint 는 selectById/insertOrUpdate 로 밖에 돌려줄 때만 만든다.
+ *
+ * UserPointTable 을 거치지 않으므로 테이블 지연이 없다.
+ */
+public class ColumnarUserPointStore implements UserPointStore {
+
+    private static final long ABSENT = -1L;
+
+    private final LongLongHashMap rows;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] points;
+    private long[] updateMillis;
+    private int size;
+
+    public ColumnarUserPointStore() {
+        this(1024);
+    }
+
+    public ColumnarUserPointStore(int expectedUsers) {
+        this.rows = new LongLongHashMap(expectedUsers);
+        this.points = new long[Math.max(16, expectedUsers)];
+        this.updateMillis = new long[points.length];
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        lock.readLock().lock();
+        try {
+            int row = (int) rows.get(id, ABSENT);
+            return row == ABSENT ? UserPoint.empty(id) : new UserPoint(id, points[row], updateMillis[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long selectPointById(long id) {
+        lock.readLock().lock();
+        try {
+            int row = (int) rows.get(id, ABSENT);
+            return row == ABSENT ? 0L : points[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        long now = System.currentTimeMillis();
+        write(id, amount, now);
+        return new UserPoint(id, amount, now);
+    }
+
+    @Override
+    public void updatePoint(long id, long amount) {
+        write(id, amount, System.currentTimeMillis());
+    }
+
+    @Override
+    public void restore(long id, UserPoint userPoint) {
+        write(id, userPoint.point(), userPoint.updateMillis());
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(long id, long amount, long millis) {
+        lock.writeLock().lock();
+        try {
+            int row = (int) rows.get(id, ABSENT);
+            if (row == ABSENT) {
+                row = size++;
+                if (row == points.length) {
+                    points = Arrays.copyOf(points, row << 1);
+                    updateMillis = Arrays.copyOf(updateMillis, row << 1);
+                }
+                rows.put(id, row);
+            }
+            points[row] = amount;
+            updateMillis[row] = millis;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PointHistoryTable 을 감싸 유저별 내역 인덱스를 유지한다.
+ * - insert 시 테이블에 저장한 결과를 유저별 목록 뒤에 붙인다. (append-only)
+ * - 유저별 목록은 id 오름차순이라 id 로 위치를 이진 탐색할 수 있다.
+ * - 기간 조회용 updateMillis 순서는 id 순서와 같은 동안 유저별 목록을 그대로 쓴다. 처음으로 순서가 어긋나면
+ *   목록 위치(int[])를 시각 순서로 모은 인덱스를 따로 만든다. 서비스는 내역 시각을 반영 순서대로 찍으므로 드물다.
+ * - 조회는 전체 테이블 스캔 대신 해당 유저의 내역만 읽는다.
+ */
+@Lazy
+@Component
+public class PointHistoryIndex implements PointHistoryStore {
+
+    private final PointHistoryTable pointHistoryTable;
+    private final PointMetrics pointMetrics;
+    private final ConcurrentHashMap<Long, UserHistory> histories = new ConcurrentHashMap<>();
+    // WAL 에서 복구한 내역의 마지막 id. 이후 테이블이 새로 매기는 id 는 이만큼 밀어 겹치지 않게 한다.
+    private volatile long restoredIdOffset;
+
+    public PointHistoryIndex(PointHistoryTable pointHistoryTable) {
+        this(pointHistoryTable, PointMetrics.standalone());
+    }
+
+    @Autowired
+    public PointHistoryIndex(PointHistoryTable pointHistoryTable, PointMetrics pointMetrics) {
+        this.pointHistoryTable = pointHistoryTable;
+        this.pointMetrics = pointMetrics;
+    }
+
+    @Override
+    public PointHistory insert(long userId, long amount, TransactionType type, long updateMillis) {
+        pointMetrics.recordTableCall("pointHistory", "insert");
+        PointHistory saved = pointHistoryTable.insert(userId, amount, type, updateMillis);
+        if (restoredIdOffset > 0) {
+            saved = new PointHistory(saved.id() + restoredIdOffset, saved.userId(), saved.amount(), saved.type(),
+                    saved.updateMillis());
+        }
+        histories.computeIfAbsent(userId, key -> new UserHistory()).append(saved);
+        return saved;
+    }
+
+    /**
+     * 테이블에는 그대로 저장하고, 인덱스와 조회 결과에는 테이블이 매긴 id 대신 주어진 id 를 쓴다.
+     */
+    @Override
+    public PointHistory insert(long id, long userId, long amount, TransactionType type, long updateMillis) {
+        pointMetrics.recordTableCall("pointHistory", "insert");
+        pointHistoryTable.insert(userId, amount, type, updateMillis);
+        PointHistory saved = new PointHistory(id, userId, amount, type, updateMillis);
+        histories.computeIfAbsent(userId, key -> new UserHistory()).append(saved);
+        return saved;
+    }
+
+    /**
+     * 재시작 시 WAL 에서 복구한 내역을 id 순서대로 채운다. 테이블은 거치지 않으며, 새 내역이 들어오기 전에 호출해야 한다.
+     */
+    @Override
+    public void restore(List<PointHistory> restoredHistories) {
+        long maxId = restoredIdOffset;
+        for (PointHistory pointHistory : restoredHistories) {
+            histories.computeIfAbsent(pointHistory.userId(), key -> new UserHistory()).append(pointHistory);
+            maxId = Math.max(maxId, pointHistory.id());
+        }
+        restoredIdOffset = maxId;
+    }
+
+    @Override
+    public List<PointHistory> selectAllByUserId(long userId) {
+        UserHistory history = histories.get(userId);
+        return history == null ? List.of() : history.snapshot();
+    }
+
+    /**
+     * 내역 id 로 단건 조회한다. 없으면 null
+     */
+    @Override
+    public PointHistory selectById(long userId, long historyId) {
+        UserHistory history = histories.get(userId);
+        return history == null ? null : history.find(historyId);
+    }
+
+    /**
+     * afterId 보다 큰 id 의 내역을 id 순서대로 최대 limit 건 조회한다.
+     * 시작 위치는 이진 탐색으로 찾으므로 O(log n + limit) 이다.
+     */
+    @Override
+    public List<PointHistory> selectPage(long userId, long afterId, int limit) {
+        UserHistory history = histories.get(userId);
+        return history == null ? List.of() : history.page(afterId, limit);
+    }
+
+    @Override
+    public List<PointHistory> selectByTimeRange(long userId, long fromMillis, long toMillis, TransactionType type) {
+        UserHistory history = histories.get(userId);
+        return history == null ? List.of() : history.range(fromMillis, toMillis, type);
+    }
+
+    @Override
+    public boolean hasHistory(long userId) {
+        return histories.containsKey(userId);
+    }
+
+    @Override
+    public int countByUserId(long userId) {
+        UserHistory history = histories.get(userId);
+        return history == null ? 0 : history.size();
+    }
+
+    private static final class UserHistory {
+        private static final Comparator<PointHistory> TIME_ORDER = Comparator.comparingLong(PointHistory::updateMillis)
+                .thenComparingLong(PointHistory::id);
+
+        private final List<PointHistory> rows = new ArrayList<>();
+        // rows 가 updateMillis 순서이기도 한 동안은 null. 순서가 처음 어긋날 때 rows 의 위치를 시각 순서로 모아 만들고,
+        // 이후 rows 와 함께 유지한다. 앞의 rows.size() 칸만 쓴다.
+        private int[] timeOrder;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void append(PointHistory pointHistory) {
+            lock.writeLock().lock();
+            try {
+                // 같은 유저의 insert 는 서비스에서 직렬화되므로 대부분 맨 뒤에 붙는다.
+                int position;
+                if (rows.isEmpty() || rows.get(rows.size() - 1).id() < pointHistory.id()) {
+                    position = rows.size();
+                } else {
+                    int found = indexOf(pointHistory.id());
+                    position = found < 0 ? -(found + 1) : found;
+                }
+                rows.add(position, pointHistory);
+
+                if (timeOrder != null) {
+                    addToTimeOrder(position);
+                } else if (!inTimeOrder(position)) {
+                    buildTimeOrder(position);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<PointHistory> range(long fromMillis, long toMillis, TransactionType type) {
+            lock.readLock().lock();
+            try {
+                List<PointHistory> result = new ArrayList<>();
+                for (int i = firstAtOrAfter(fromMillis); i < rows.size(); i++) {
+                    PointHistory pointHistory = rowAtTime(i);
+                    if (pointHistory.updateMillis() >= toMillis) {
+                        break;
+                    }
+                    if (type == null || pointHistory.type() == type) {
+                        result.add(pointHistory);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<PointHistory> snapshot() {
+            lock.readLock().lock();
+            try {
+                return List.copyOf(rows);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<PointHistory> page(long afterId, int limit) {
+            lock.readLock().lock();
+            try {
+                int position = indexOf(afterId);
+                int from = position < 0 ? -(position + 1) : position + 1;
+                int to = (int) Math.min(rows.size(), (long) from + limit);
+                return from >= to ? List.of() : List.copyOf(rows.subList(from, to));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        PointHistory find(long historyId) {
+            lock.readLock().lock();
+            try {
+                int position = indexOf(historyId);
+                return position < 0 ? null : rows.get(position);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return rows.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean inTimeOrder(int position) {
+            long millis = rows.get(position).updateMillis();
+            return (position == 0 || rows.get(position - 1).updateMillis() <= millis)
+                    && (position == rows.size() - 1 || millis <= rows.get(position + 1).updateMillis());
+        }
+
+        /**
+         * 시각 순서로 i 번째 내역
+         */
+        private PointHistory rowAtTime(int i) {
+            return rows.get(timeOrder == null ? i : timeOrder[i]);
+        }
+
+        /**
+         * added 위치에 끼운 한 건만 시각 순서가 어긋난 상태에서 인덱스를 만든다.
+         * 나머지는 이미 시각 순서이므로 정렬하지 않고 그대로 옮긴 뒤 added 만 제자리에 넣는다.
+         */
+        private void buildTimeOrder(int added) {
+            int size = rows.size();
+            timeOrder = new int[Math.max(16, size + (size >> 1))];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (i != added) {
+                    timeOrder[count++] = i;
+                }
+            }
+            insertTimeOrder(added, count);
+        }
+
+        /**
+         * rows 의 added 위치에 한 건이 들어왔다. 그 뒤의 위치는 하나씩 밀리므로 인덱스도 맞춘다. (id 가 늦게 도착한 드문 경우)
+         */
+        private void addToTimeOrder(int added) {
+            int count = rows.size() - 1;
+            if (added < count) {
+                for (int i = 0; i < count; i++) {
+                    if (timeOrder[i] >= added) {
+                        timeOrder[i]++;
+                    }
+                }
+            }
+            if (count == timeOrder.length) {
+                timeOrder = Arrays.copyOf(timeOrder, count + (count >> 1));
+            }
+            insertTimeOrder(added, count);
+        }
+
+        /**
+         * 앞의 count 칸이 시각 순서인 인덱스에 rows 의 position 을 끼운다. 늦게 찍힌 내역도 대부분 끝 근처에 들어간다.
+         */
+        private void insertTimeOrder(int position, int count) {
+            PointHistory pointHistory = rows.get(position);
+            int low = 0;
+            int high = count;
+            if (count == 0 || TIME_ORDER.compare(rows.get(timeOrder[count - 1]), pointHistory) <= 0) {
+                low = count;
+            }
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (TIME_ORDER.compare(rows.get(timeOrder[mid]), pointHistory) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            System.arraycopy(timeOrder, low, timeOrder, low + 1, count - low);
+            timeOrder[low] = position;
+        }
+
+        /**
+         * updateMillis 순서에서 fromMillis 이상인 첫 위치
+         */
+        private int firstAtOrAfter(long fromMillis) {
+            int low = 0;
+            int high = rows.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (rowAtTime(mid).updateMillis() < fromMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * id 오름차순 목록에서 위치를 찾는다. 없으면 (-(삽입 위치) - 1)
+         */
+        private int indexOf(long historyId) {
+            int low = 0;
+            int high = rows.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midId = rows.get(mid).id();
+                if (midId < historyId) {
+                    low = mid + 1;
+                } else if (midId > historyId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+
+import java.util.List;
+
+/**
+ * PointService 가 포인트 내역을 읽고 쓰는 저장소
+ * - TABLE : PointHistoryTable 에 저장하고 유저별 인덱스를 두는 PointHistoryIndex
+ * - COLUMNAR : 컬럼별 primitive 배열 청크에 저장하는 ColumnarPointHistoryStore
+ *
+ * 유저별 내역은 항상 id 오름차순으로 돌려준다.
+ */
+public interface PointHistoryStore {
+
+    PointHistory insert(long userId, long amount, TransactionType type, long updateMillis);
+
+    /**
+     * id 를 정해서 저장한다. WAL 을 쓰면 내역 id 는 WAL 순번이어야 재시작 후 복구한 내역과 id 가 같다.
+     * 같은 유저의 내역은 id 가 커지는 순서로 넣어야 한다.
+     */
+    PointHistory insert(long id, long userId, long amount, TransactionType type, long updateMillis);
+
+    List<PointHistory> selectAllByUserId(long userId);
+
+    /**
+     * 내역 id 로 단건 조회한다. 없으면 null
+     */
+    PointHistory selectById(long userId, long historyId);
+
+    /**
+     * afterId 보다 큰 id 의 내역을 id 순서대로 최대 limit 건 조회한다.
+     */
+    List<PointHistory> selectPage(long userId, long afterId, int limit);
+
+    /**
+     * updateMillis 가 fromMillis 이상 toMillis 미만인 내역을 updateMillis 순서(같으면 id 순서)로 조회한다.
+     * type 이 null 이면 모든 거래 종류를 돌려준다. 시작 위치는 이진 탐색으로 찾으므로 O(log n + 구간 건수) 이다.
+     */
+    List<PointHistory> selectByTimeRange(long userId, long fromMillis, long toMillis, TransactionType type);
+
+    boolean hasHistory(long userId);
+
+    int countByUserId(long userId);
+
+    /**
+     * 재시작 시 WAL 에서 복구한 내역을 id 순서대로 채운다. 새 내역이 들어오기 전에 호출해야 한다.
+     */
+    void restore(List<PointHistory> restoredHistories);
+}
@@ -0,0 +1,225 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 포인트 내역 저장 단계
+ * - 동기 모드 : 호출한 스레드에서 바로 PointHistoryStore 에 저장한다.
+ * - 비동기 모드 : 잔액 저장이 끝난 내역을 유저 id 로 나눈 대기열에 넣고, 대기열마다 하나의 writer 스레드가 순서대로 저장한다.
+ *   같은 유저의 내역은 항상 같은 대기열로 가므로 유저별 저장 순서가 유지된다.
+ *
+ * 대기열이 가득 찼을 때의 동작은 OverflowPolicy 로 정한다.
+ * writer 스레드의 테이블 호출은 요청한 기능의 스레드에서 세지지 않으므로 한 건 저장할 때마다 operation=historyWriter 로 기록한다.
+ */
+@Lazy
+@Component
+public class PointHistoryWriter implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        /** 대기열에 자리가 날 때까지 호출자가 기다린다. */
+        BLOCK,
+        /** 해당 유저의 앞선 내역이 저장되길 기다린 뒤 호출자가 직접 저장한다. */
+        CALLER_RUNS
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(PointHistoryWriter.class);
+
+    private final PointHistoryStore pointHistoryStore;
+    private final PointMetrics pointMetrics;
+    private final boolean async;
+    private final OverflowPolicy overflowPolicy;
+    private final List<BlockingQueue<PendingHistory>> partitions = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    // 유저별 마지막으로 넣은 내역. 저장이 끝나면 제거된다.
+    private final ConcurrentHashMap<Long, CompletableFuture<PointHistory>> lastWrites = new ConcurrentHashMap<>();
+
+    private volatile boolean running = true;
+
+    public PointHistoryWriter(PointHistoryStore pointHistoryStore) {
+        this(pointHistoryStore, PointMetrics.standalone(), false, 1, 1, OverflowPolicy.BLOCK);
+    }
+
+    @Autowired
+    public PointHistoryWriter(PointHistoryStore pointHistoryStore,
+                              PointMetrics pointMetrics,
+                              @Value("${point.history.async.enabled:false}") boolean async,
+                              @Value("${point.history.async.writer-threads:4}") int writerThreads,
+                              @Value("${point.history.async.queue-capacity:10000}") int queueCapacity,
+                              @Value("${point.history.async.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy) {
+        this.pointHistoryStore = pointHistoryStore;
+        this.pointMetrics = pointMetrics;
+        this.async = async;
+        this.overflowPolicy = overflowPolicy;
+        if (!async) {
+            return;
+        }
+        if (writerThreads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("writer 스레드 수와 대기열 크기는 0보다 커야 합니다.");
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            BlockingQueue<PendingHistory> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread writer = new Thread(() -> drain(queue), "point-history-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            partitions.add(queue);
+            writers.add(writer);
+        }
+    }
+
+    public CompletableFuture<PointHistory> append(long userId, long amount, TransactionType type, long updateMillis) {
+        return append(0L, userId, amount, type, updateMillis);
+    }
+
+    /**
+     * 내역을 저장한다. 비동기 모드에서는 대기열에 넣고 바로 반환한다.
+     * 같은 유저에 대한 append 는 호출 순서대로 저장되어야 하므로 호출자가 유저 단위로 직렬화해야 한다.
+     *
+     * @param historyId 내역 id (WAL 순번). 0 이면 저장소가 매긴다.
+     */
+    public CompletableFuture<PointHistory> append(long historyId, long userId, long amount, TransactionType type,
+                                                  long updateMillis) {
+        PendingHistory pending = new PendingHistory(historyId, userId, amount, type, updateMillis,
+                new CompletableFuture<>());
+        if (!async) {
+            return CompletableFuture.completedFuture(pending.insert(pointHistoryStore));
+        }
+
+        CompletableFuture<PointHistory> previous = lastWrites.put(userId, pending.result());
+        pending.result().whenComplete((saved, e) -> lastWrites.remove(userId, pending.result()));
+
+        BlockingQueue<PendingHistory> queue = partitions.get(partitionOf(userId));
+        if (queue.offer(pending)) {
+            return pending.result();
+        }
+
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS) {
+            // 앞선 내역보다 먼저 저장되면 순서가 깨지므로 먼저 기다린다.
+            if (previous != null) {
+                previous.exceptionally(e -> null).join();
+            }
+            pending.write(pointHistoryStore);
+            return pending.result();
+        }
+
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().completeExceptionally(e);
+        }
+        return pending.result();
+    }
+
+    /**
+     * 해당 유저의 대기 중인 내역이 모두 저장될 때까지 기다린다. (read-your-writes)
+     */
+    public void awaitFlushed(long userId) {
+        CompletableFuture<PointHistory> last = lastWrites.get(userId);
+        if (last != null) {
+            last.exceptionally(e -> null).join();
+        }
+    }
+
+    /**
+     * 현재까지 들어온 모든 내역이 저장될 때까지 기다린다.
+     */
+    public void flush() {
+        CompletableFuture.allOf(lastWrites.values().stream()
+                .map(last -> last.exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new)).join();
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public int pendingCount() {
+        return partitions.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+    }
+
+    private int partitionOf(long userId) {
+        return Math.floorMod(Long.hashCode(userId), partitions.size());
+    }
+
+    private void drain(BlockingQueue<PendingHistory> queue) {
+        while (running || !queue.isEmpty()) {
+            try {
+                writeOnWriterThread(queue.take());
+            } catch (InterruptedException e) {
+                if (!running) {
+                    // 종료 시점까지 들어온 내역은 마저 저장한다.
+                    PendingHistory pending;
+                    while ((pending = queue.poll()) != null) {
+                        writeOnWriterThread(pending);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 호출 수를 먼저 기록하고 완료시킨다. flush 직후 조회해도 반영되어 있다.
+     */
+    private void writeOnWriterThread(PendingHistory pending) {
+        int tableCalls = pointMetrics.beginTableCalls();
+        PointHistory saved = null;
+        RuntimeException failure = null;
+        try {
+            saved = pending.insert(pointHistoryStore);
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            pointMetrics.endTableCalls("historyWriter", tableCalls);
+        }
+        pending.complete(saved, failure);
+    }
+
+    private record PendingHistory(long historyId, long userId, long amount, TransactionType type, long updateMillis,
+                                  CompletableFuture<PointHistory> result) {
+
+        void write(PointHistoryStore pointHistoryStore) {
+            try {
+                complete(insert(pointHistoryStore), null);
+            } catch (RuntimeException e) {
+                complete(null, e);
+            }
+        }
+
+        PointHistory insert(PointHistoryStore pointHistoryStore) {
+            return historyId == 0L
+                    ? pointHistoryStore.insert(userId, amount, type, updateMillis)
+                    : pointHistoryStore.insert(historyId, userId, amount, type, updateMillis);
+        }
+
+        void complete(PointHistory saved, RuntimeException failure) {
+            if (failure == null) {
+                result.complete(saved);
+                return;
+            }
+            log.error("포인트 내역 저장 실패 userId={}", userId, failure);
+            result.completeExceptionally(failure);
+        }
+    }
+}
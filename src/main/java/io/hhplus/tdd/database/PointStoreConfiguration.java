@@ -0,0 +1,32 @@
+package io.hhplus.tdd.database;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * point.store 설정에 따라 PointService 가 쓸 잔액/내역 저장소를 고른다.
+ * UserPointCache/PointHistoryIndex 도 각 인터페이스의 구현체라 여기서 만든 빈을 @Primary 로 둔다.
+ * 기본 PointService 만 쓰므로 샤드 모드에서는 만들지 않도록 지연 초기화한다.
+ */
+@Configuration
+public class PointStoreConfiguration {
+
+    @Bean
+    @Lazy
+    @Primary
+    public UserPointStore userPointStore(@Value("${point.store:TABLE}") PointStoreType storeType,
+                                         UserPointCache userPointCache) {
+        return storeType == PointStoreType.COLUMNAR ? new ColumnarUserPointStore() : userPointCache;
+    }
+
+    @Bean
+    @Lazy
+    @Primary
+    public PointHistoryStore pointHistoryStore(@Value("${point.store:TABLE}") PointStoreType storeType,
+                                               PointHistoryIndex pointHistoryIndex) {
+        return storeType == PointStoreType.COLUMNAR ? new ColumnarPointHistoryStore() : pointHistoryIndex;
+    }
+}
@@ -0,0 +1,11 @@
+package io.hhplus.tdd.database;
+
+/**
+ * 잔액/내역 저장소 종류 (point.store)
+ */
+public enum PointStoreType {
+    /** 제공된 UserPointTable/PointHistoryTable 에 저장한다. */
+    TABLE,
+    /** 객체 없이 primitive 배열에 저장한다. 유저와 내역이 많을 때 메모리와 GC 부담이 적다. */
+    COLUMNAR
+}
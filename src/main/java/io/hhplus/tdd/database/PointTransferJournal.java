@@ -0,0 +1,268 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 이체 journal. 두 유저의 잔액을 바꾸는 이체를 WAL 두 곳(다른 샤드일 수 있다)에 걸쳐 원자적으로 남기기 위해 쓴다.
+ * - prepare : 잔액을 바꾸기 전에 두 쪽 변경(유저, 직전 WAL 순번, 금액, 종류, 시각, 반영 후 잔액)을 한 레코드로 남기고 fsync 한다.
+ * - commit : 두 쪽 WAL 이 모두 fsync 된 뒤에 남긴다. fsync 하지 않는다. 잃어버려도 복구 때 다시 확인할 뿐이다.
+ * - 재시작하면 commit 이 없는 이체를 pending 으로 돌려준다. 호출자는 각 유저의 WAL 마지막 순번이 prepare 때의 순번 이하인 쪽,
+ *   즉 WAL 에 남지 못한 쪽만 다시 반영한다. 이체는 두 유저의 메일박스 차례를 잡은 채 기록하므로, 그 순번 뒤에 오는 그 유저의
+ *   첫 레코드가 곧 이체 레코드이고, WAL 은 앞에서부터 빠짐없이 남으므로 그 뒤의 레코드가 있다면 이체 레코드도 있다.
+ * - 레코드는 고정 길이(95 byte)다. 종류 | 이체 id | 보내는 쪽 | 받는 쪽 | CRC32
+ * - 진행 중인 이체가 없을 때 파일이 compactBytes 를 넘으면 비운다. 남은 레코드는 모두 완료된 이체다.
+ *
+ * WAL 을 쓰지 않으면 아무것도 기록하지 않는다.
+ */
+@Component
+public class PointTransferJournal implements AutoCloseable {
+
+    static final int LEG_SIZE = 8 + 8 + 8 + 1 + 8 + 8;
+    static final int RECORD_SIZE = 1 + 8 + LEG_SIZE * 2 + 4;
+    private static final long DEFAULT_COMPACT_BYTES = 1024L * 1024L;
+    private static final String FILE_NAME = "transfers.log";
+    private static final byte PREPARE = 1;
+    private static final byte COMMIT = 2;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final Logger log = LoggerFactory.getLogger(PointTransferJournal.class);
+
+    private final boolean enabled;
+    private final long compactBytes;
+    private final List<Pending> pending;
+    private FileChannel channel;
+    private long nextId;
+    private int inFlight;
+
+    /**
+     * 기록하지 않는 journal
+     */
+    public PointTransferJournal() {
+        this(null, DEFAULT_COMPACT_BYTES);
+    }
+
+    @Autowired
+    public PointTransferJournal(@Value("${point.wal.enabled:false}") boolean enabled,
+                                @Value("${point.wal.directory:data/wal}") String directory) {
+        this(enabled ? Path.of(directory) : null, DEFAULT_COMPACT_BYTES);
+    }
+
+    /**
+     * directory 의 journal 을 읽어 끝나지 않은 이체를 찾은 뒤 이어서 기록한다.
+     *
+     * @param directory 기록할 디렉터리. null 이면 기록하지 않는다.
+     */
+    public PointTransferJournal(Path directory, long compactBytes) {
+        this.enabled = directory != null;
+        this.compactBytes = compactBytes;
+        if (!enabled) {
+            this.pending = List.of();
+            return;
+        }
+        Path path = directory.resolve(FILE_NAME);
+        try {
+            Files.createDirectories(directory);
+            Map<Long, Pending> prepared = new LinkedHashMap<>();
+            long lastId = read(path, prepared);
+            this.pending = List.copyOf(prepared.values());
+            this.inFlight = pending.size();
+            this.nextId = lastId + 1;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // 쓰다 끊긴 레코드 뒤에 이어 쓰지 않도록 온전한 레코드 끝에서부터 쓴다.
+            channel.truncate(channel.size() - channel.size() % RECORD_SIZE);
+            channel.position(channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("이체 journal 복구 실패 " + path, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 재시작 전에 prepare 만 남고 commit 하지 못한 이체. prepare 한 순서다.
+     */
+    public List<Pending> pending() {
+        return pending;
+    }
+
+    /**
+     * 두 쪽 변경을 남기고 fsync 한 뒤 이체 id 를 돌려준다. 기록하지 않는 journal 이면 0 이다.
+     * 돌려받은 id 로 반드시 commit 을 불러야 파일을 비울 수 있다.
+     */
+    public synchronized long prepare(Leg from, Leg to) {
+        if (!enabled) {
+            return 0L;
+        }
+        long id = nextId++;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.put(PREPARE).putLong(id);
+        putLeg(buffer, from);
+        putLeg(buffer, to);
+        write(buffer);
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("이체 journal fsync 실패", e);
+        }
+        inFlight++;
+        return id;
+    }
+
+    /**
+     * 두 쪽이 모두 WAL 에 남은 이체를 끝낸다.
+     */
+    public synchronized void commit(long id) {
+        if (!enabled || id == 0L) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.put(COMMIT).putLong(id);
+        buffer.position(RECORD_SIZE - 4);
+        write(buffer);
+        inFlight--;
+        compactIfIdle();
+    }
+
+    /**
+     * 재시작 후 pending 을 모두 다시 반영한 뒤에 부른다.
+     */
+    public synchronized void resolved() {
+        if (!enabled) {
+            return;
+        }
+        inFlight -= pending.size();
+        compactIfIdle();
+    }
+
+    public synchronized long size() {
+        if (!enabled) {
+            return 0L;
+        }
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("이체 journal 크기 조회 실패", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!enabled || channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("이체 journal 닫기 실패", e);
+        }
+        channel = null;
+    }
+
+    private void compactIfIdle() {
+        try {
+            if (inFlight == 0 && channel.size() >= compactBytes) {
+                channel.truncate(0L);
+                channel.position(0L);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            log.warn("이체 journal 비우기 실패. 다음 commit 때 다시 시도합니다.", e);
+        }
+    }
+
+    private void write(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        buffer.putInt(RECORD_SIZE - 4, (int) crc.getValue());
+        buffer.clear();
+        if (channel == null) {
+            throw new IllegalStateException("닫힌 이체 journal 에는 기록할 수 없습니다.");
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("이체 journal 기록 실패", e);
+        }
+    }
+
+    /**
+     * journal 을 읽어 commit 되지 않은 prepare 를 채우고 마지막 이체 id 를 돌려준다.
+     * CRC 가 맞지 않는 레코드(쓰다 끊긴 레코드)를 만나면 거기까지만 읽는다.
+     */
+    private static long read(Path path, Map<Long, Pending> prepared) throws IOException {
+        if (!Files.exists(path)) {
+            return 0L;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32 crc = new CRC32();
+        long lastId = 0L;
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int position = buffer.position();
+            crc.reset();
+            crc.update(buffer.array(), position, RECORD_SIZE - 4);
+            if ((int) crc.getValue() != buffer.getInt(position + RECORD_SIZE - 4)) {
+                log.warn("이체 journal 레코드 손상 position={}", position);
+                break;
+            }
+            byte kind = buffer.get();
+            long id = buffer.getLong();
+            if (kind == PREPARE) {
+                prepared.put(id, new Pending(id, getLeg(buffer), getLeg(buffer)));
+            } else {
+                prepared.remove(id);
+            }
+            lastId = Math.max(lastId, id);
+            buffer.position(position + RECORD_SIZE);
+        }
+        return lastId;
+    }
+
+    private static void putLeg(ByteBuffer buffer, Leg leg) {
+        buffer.putLong(leg.userId())
+                .putLong(leg.prevSeq())
+                .putLong(leg.amount())
+                .put((byte) leg.type().ordinal())
+                .putLong(leg.time())
+                .putLong(leg.balance());
+    }
+
+    private static Leg getLeg(ByteBuffer buffer) {
+        return new Leg(buffer.getLong(), buffer.getLong(), buffer.getLong(), TYPES[buffer.get()], buffer.getLong(),
+                buffer.getLong());
+    }
+
+    /**
+     * 이체의 한쪽 변경
+     *
+     * @param prevSeq 이 변경을 남기기 직전 그 유저의 WAL 마지막 순번
+     * @param amount  내역과 같이 보내는 쪽이면 음수
+     * @param balance 반영 후 잔액. WAL 레코드에 남기는 값과 같다.
+     */
+    public record Leg(long userId, long prevSeq, long amount, TransactionType type, long time, long balance) {
+    }
+
+    public record Pending(long id, Leg from, Leg to) {
+    }
+}
@@ -0,0 +1,736 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 충전/사용을 디스크에 남기는 append-only WAL(write-ahead log)
+ * - 레코드는 고정 길이(45 byte) 바이너리로 메모리 맵(mmap) 세그먼트 파일에 순서대로 쓴다.
+ *   순번(seq) | 유저 id | 금액 | 종류 | 시각 | 반영 후 잔액 | CRC32
+ * - fsync 는 fsyncWindowMillis 마다 한 번씩 모아서 한다. (group fsync)
+ *   호출자는 awaitDurable 로 자기 레코드가 디스크에 내려갈 때까지 기다린 뒤 응답한다. window 가 0 이면 append 마다 fsync 한다.
+ * - snapshotInterval 건마다 유저별 잔액과 마지막 레코드 순번의 스냅샷을 남긴다.
+ *   재시작하면 가장 최근 스냅샷을 읽고 그 이후의 레코드(tail)만 다시 적용해 잔액을 복구한다.
+ * - 스냅샷에 통째로 반영된 세그먼트는 잔액(45 byte 중 8 byte)을 뺀 내역 아카이브(history-*.bin)로 옮겨 적고 지운다.
+ *   그래서 디렉터리에는 스냅샷 하나와 tail 세그먼트만 남고, 재시작은 기본으로 스냅샷 + tail 만 읽는다.
+ * - restoreHistory 를 켜면 아카이브와 세그먼트를 모두 읽어 내역까지 복구한다.
+ *   복구된 내역의 id 는 WAL 순번이다. 실행 중에 저장하는 내역도 append 가 돌려준 순번을 id 로 쓰므로 재시작 전후의 id 가 같다.
+ * - 다 쓴 세그먼트와 복구 때 읽은 세그먼트의 매핑은 바로 해제한다. GC 를 기다리면 세그먼트 수만큼 가상 메모리와 파일 핸들이 남는다.
+ *
+ * 레코드에 반영 후 잔액을 같이 남기므로 복구는 더하기가 아니라 덮어쓰기이고, 같은 레코드를 두 번 적용해도 결과가 같다.
+ */
+@Lazy
+@Component
+public class PointWriteAheadLog implements AutoCloseable {
+
+    static final int RECORD_SIZE = 8 + 8 + 8 + 1 + 8 + 8 + 4;
+    // 한 세그먼트는 int 로 주소를 매기는 MappedByteBuffer 하나이므로 2GB 를 넘을 수 없다.
+    static final int MAX_SEGMENT_SIZE_MB = Integer.MAX_VALUE / (1024 * 1024);
+    // 순번 없이 잔액만 남기던 이전 형식. 읽기만 한다.
+    private static final int SNAPSHOT_MAGIC_V1 = 0x50574C53;
+    private static final int SNAPSHOT_MAGIC = 0x50574C32;
+    private static final int SNAPSHOT_ENTRY_SIZE_V1 = 8 + 8 + 8;
+    private static final int SNAPSHOT_ENTRY_SIZE = 8 + 8 + 8 + 8;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int ARCHIVE_MAGIC = 0x50574C48;
+    private static final int ARCHIVE_RECORD_SIZE = 8 + 8 + 8 + 1 + 8;
+    private static final String ARCHIVE_PREFIX = "history-";
+    private static final String ARCHIVE_SUFFIX = ".bin";
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final Logger log = LoggerFactory.getLogger(PointWriteAheadLog.class);
+    // sun.misc.Unsafe.invokeCleaner. 찾지 못하면 null 이고 매핑은 GC 때 해제된다.
+    private static final Object UNSAFE = unsafe();
+    private static final Method INVOKE_CLEANER = invokeCleaner(UNSAFE);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncWindowMillis;
+    private final long snapshotInterval;
+    private final boolean restoreHistory;
+    private final Recovery recovered;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 락 밖에서 fsync 중인 세그먼트를 교체하면서 매핑을 해제하지 않도록 fsync 와 해제를 배타적으로 한다.
+    // 순서는 항상 lock → syncLock 이며, syncLock 을 잡은 채로 lock 을 잡지 않는다.
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // 유저별 마지막 레코드. 스냅샷과 awaitDurable 에 쓴다.
+    private final ConcurrentHashMap<Long, Tail> tails = new ConcurrentHashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    // 세그먼트를 열 때마다 1씩 늘린다. (lock)
+    private long segmentGeneration;
+    // 매핑을 해제한 마지막 세그먼트 번호. 해제한 세그먼트는 해제 전에 fsync 했으므로 다시 내리지 않는다. (syncLock)
+    private long releasedGeneration;
+    private volatile long lastSeq;
+    private long snapshotSeq;
+    private CompletableFuture<Void> nextSync = new CompletableFuture<>();
+    private volatile long durableSeq;
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    /**
+     * 기록하지 않는 WAL. append 는 아무것도 하지 않고 awaitDurable 은 바로 완료된다.
+     */
+    public PointWriteAheadLog() {
+        this(null, 0, 0L, 0L, false);
+    }
+
+    @Autowired
+    public PointWriteAheadLog(UserPointStore userPointStore, PointHistoryStore pointHistoryStore,
+                              @Value("${point.wal.enabled:false}") boolean enabled,
+                              @Value("${point.wal.directory:data/wal}") String directory,
+                              @Value("${point.wal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${point.wal.fsync-window-millis:2}") long fsyncWindowMillis,
+                              @Value("${point.wal.snapshot-interval:100000}") long snapshotInterval,
+                              @Value("${point.wal.restore-history:false}") boolean restoreHistory) {
+        this(enabled ? Path.of(directory) : null, segmentSize(segmentSizeMb), fsyncWindowMillis, snapshotInterval,
+                restoreHistory);
+        if (!enabled) {
+            return;
+        }
+        recovered.balances().forEach(userPointStore::restore);
+        if (restoreHistory) {
+            pointHistoryStore.restore(recovered.histories());
+        }
+        log.info("WAL 복구 완료 users={} histories={} replayed={} snapshotSeq={} lastSeq={} elapsed={}ms",
+                recovered.balances().size(), recovered.histories().size(), recovered.replayed(),
+                recovered.snapshotSeq(), recovered.lastSeq(), recovered.elapsedMillis());
+    }
+
+    /**
+     * directory 의 스냅샷과 세그먼트로 상태를 복구한 뒤 새 세그먼트에 이어서 기록한다. 복구 결과는 recovered() 로 꺼낸다.
+     *
+     * @param directory 기록할 디렉터리. null 이면 기록하지 않는다.
+     */
+    public PointWriteAheadLog(Path directory, int segmentSize, long fsyncWindowMillis, long snapshotInterval,
+                              boolean restoreHistory) {
+        this.enabled = directory != null;
+        this.directory = directory;
+        // 레코드가 세그먼트 경계에 걸치지 않도록 레코드 크기의 배수로 맞춘다.
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.fsyncWindowMillis = fsyncWindowMillis;
+        this.snapshotInterval = snapshotInterval;
+        this.restoreHistory = restoreHistory;
+        if (!enabled) {
+            this.recovered = Recovery.EMPTY;
+            this.flusher = null;
+            return;
+        }
+        if (this.segmentSize <= 0 || fsyncWindowMillis < 0 || snapshotInterval <= 0) {
+            throw new IllegalArgumentException("세그먼트 크기와 스냅샷 간격은 0보다 커야 합니다.");
+        }
+
+        try {
+            Files.createDirectories(directory);
+            this.recovered = recover(directory, restoreHistory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("WAL 복구 실패 " + directory, e);
+        }
+        recovered.balances().forEach((userId, userPoint) -> tails.put(userId,
+                new Tail(recovered.lastSeqs().getOrDefault(userId, 0L), userPoint.point(), userPoint.updateMillis())));
+        this.lastSeq = recovered.lastSeq();
+        this.snapshotSeq = recovered.snapshotSeq();
+        this.durableSeq = lastSeq;
+        openSegment(lastSeq + 1);
+
+        this.flusher = new Thread(this::runFlusher, "point-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 레코드를 세그먼트에 쓰고 순번을 돌려준다. 기록하지 않는 WAL 이면 0 이다. 디스크 반영은 awaitDurable 로 기다린다.
+     * 같은 유저에 대한 append 는 잔액이 바뀐 순서대로, 바뀐 잔액을 다른 스레드에 보이기 전에 호출되어야 한다.
+     */
+    public long append(long userId, long amount, TransactionType type, long updateMillis, long balance) {
+        if (!enabled) {
+            return 0L;
+        }
+        lock.lock();
+        try {
+            if (segment == null) {
+                throw new IllegalStateException("닫힌 WAL 에는 기록할 수 없습니다.");
+            }
+            if (segment.remaining() < RECORD_SIZE) {
+                rollSegment();
+            }
+            long seq = ++lastSeq;
+            writeRecord(segment, seq, userId, amount, type, updateMillis, balance);
+            tails.put(userId, new Tail(seq, balance, updateMillis));
+            if (fsyncWindowMillis == 0) {
+                segment.force();
+                durableSeq = seq;
+            }
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 해당 유저의 마지막 레코드가 fsync 될 때 완료된다.
+     */
+    public CompletableFuture<Void> awaitDurable(long userId) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Tail tail = tails.get(userId);
+        if (tail == null || tail.seq() <= durableSeq) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lock.lock();
+        try {
+            // 락 안에서 다시 확인해야 flusher 가 막 대기 future 를 바꾼 경우를 놓치지 않는다.
+            return tail.seq() <= durableSeq ? CompletableFuture.completedFuture(null) : nextSync;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 지금까지 쓴 레코드를 fsync 한다.
+     */
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        CompletableFuture<Void> waiting;
+        long target;
+        MappedByteBuffer current;
+        long generation;
+        lock.lock();
+        try {
+            if (lastSeq <= durableSeq) {
+                return;
+            }
+            waiting = nextSync;
+            nextSync = new CompletableFuture<>();
+            target = lastSeq;
+            current = segment;
+            generation = segmentGeneration;
+        } finally {
+            lock.unlock();
+        }
+        syncLock.lock();
+        try {
+            // 이전 세그먼트는 교체할 때 이미 fsync 했으므로 현재 세그먼트만 내리면 된다.
+            // 그 사이 교체되어 매핑이 해제됐다면 교체할 때 이미 내렸다.
+            if (generation > releasedGeneration) {
+                current.force();
+            }
+            durableSeq = Math.max(durableSeq, target);
+            waiting.complete(null);
+        } catch (RuntimeException e) {
+            log.error("WAL fsync 실패", e);
+            waiting.completeExceptionally(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * 유저별 잔액 스냅샷을 남긴다.
+     * 스냅샷 순번까지의 레코드는 모두 스냅샷에 반영되어 있고, 그 이후 레코드가 일부 섞여 있어도 복구 때 tail 로 다시 덮어쓴다.
+     */
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        long seq;
+        lock.lock();
+        try {
+            seq = lastSeq;
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, Tail> balances = new HashMap<>(tails);
+        // 스냅샷에 들어간 잔액은 모두 디스크에 있는 레코드여야 한다.
+        sync();
+
+        Path target = directory.resolve(snapshotName(seq));
+        Path temp = directory.resolve(snapshotName(seq) + ".tmp");
+        try {
+            writeSnapshot(temp, seq, balances);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            snapshotSeq = seq;
+            deleteOlderThan(seq);
+        } catch (IOException e) {
+            throw new UncheckedIOException("스냅샷 저장 실패 " + target, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Recovery recovered() {
+        return recovered;
+    }
+
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * 해당 유저의 마지막 레코드 순번. 기록이 없으면 0 이다. 재시작 후에는 복구한 레코드의 순번이다.
+     */
+    public long lastSeqOf(long userId) {
+        Tail tail = tails.get(userId);
+        return tail == null ? 0L : tail.seq();
+    }
+
+    public long durableSeq() {
+        return durableSeq;
+    }
+
+    @Override
+    public void close() {
+        if (!enabled || !running) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        lock.lock();
+        try {
+            releaseSegment();
+        } catch (UncheckedIOException e) {
+            log.warn("WAL 세그먼트 닫기 실패", e);
+        } finally {
+            segment = null;
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        long window = Math.max(1L, fsyncWindowMillis);
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(window);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                sync();
+                if (lastSeq - snapshotSeq >= snapshotInterval) {
+                    snapshot();
+                }
+            } catch (RuntimeException e) {
+                log.error("WAL flush 실패", e);
+            }
+        }
+    }
+
+    private void rollSegment() {
+        segment.force();
+        durableSeq = lastSeq;
+        nextSync.complete(null);
+        nextSync = new CompletableFuture<>();
+        releaseSegment();
+        openSegment(lastSeq + 1);
+    }
+
+    /**
+     * 현재 세그먼트의 매핑을 해제하고 파일을 닫는다. lock 안에서 호출한다.
+     */
+    private void releaseSegment() {
+        syncLock.lock();
+        try {
+            releasedGeneration = segmentGeneration;
+            unmap(segment);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("WAL 세그먼트 닫기 실패", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void openSegment(long firstSeq) {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%020d", firstSeq) + SEGMENT_SUFFIX);
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segmentGeneration++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("WAL 세그먼트 생성 실패 " + path, e);
+        }
+    }
+
+    /**
+     * 스냅샷보다 오래된 스냅샷은 지우고, 스냅샷에 모두 반영된 세그먼트는 내역 아카이브로 옮긴 뒤 지운다.
+     * 아카이브를 fsync 하고 이름을 바꾼 뒤에 세그먼트를 지우므로 중간에 끊겨도 내역은 둘 중 한 곳에 남는다.
+     */
+    private void deleteOlderThan(long seq) throws IOException {
+        for (Path path : list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (sequenceOf(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < seq) {
+                Files.deleteIfExists(path);
+            }
+        }
+        List<Path> segments = list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // 다음 세그먼트의 첫 순번이 스냅샷 순번 이하라면 이 세그먼트는 통째로 스냅샷에 들어 있다.
+            if (sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) <= seq + 1) {
+                archive(segments.get(i));
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * 세그먼트의 레코드를 잔액을 뺀 내역 레코드로 옮겨 적는다.
+     * 순번 | 유저 id | 금액 | 종류 | 시각 ... | 전체 CRC32
+     */
+    private void archive(Path segment) throws IOException {
+        long firstSeq = sequenceOf(segment, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + segmentSize / RECORD_SIZE * ARCHIVE_RECORD_SIZE + 4);
+        buffer.putInt(ARCHIVE_MAGIC).putInt(0);
+        int count = readSegment(segment, (seq, userId, amount, type, updateMillis, balance) -> buffer.putLong(seq)
+                .putLong(userId)
+                .putLong(amount)
+                .put(type)
+                .putLong(updateMillis));
+        buffer.putInt(4, count);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path target = directory.resolve(ARCHIVE_PREFIX + String.format("%020d", firstSeq) + ARCHIVE_SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 최신 스냅샷을 읽고 세그먼트의 레코드를 순번대로 적용한다. restoreHistory 가 켜져 있으면 아카이브부터 읽어 내역을 채운다.
+     * 끝까지 쓰이지 않은 세그먼트의 빈 영역(순번 0)이나 CRC 가 맞지 않는 레코드(쓰다 끊긴 레코드)를 만나면 그 세그먼트는 거기까지만 읽는다.
+     */
+    static Recovery recover(Path directory, boolean restoreHistory) throws IOException {
+        long start = System.nanoTime();
+        Map<Long, UserPoint> balances = new HashMap<>();
+        Map<Long, Long> lastSeqs = new HashMap<>();
+        long snapshotSeq = 0L;
+        List<Path> snapshots = list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            long seq = sequenceOf(snapshots.get(i), SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            if (readSnapshot(snapshots.get(i), seq, balances, lastSeqs)) {
+                snapshotSeq = seq;
+                break;
+            }
+            balances.clear();
+            lastSeqs.clear();
+            log.warn("손상된 스냅샷을 건너뜁니다. {}", snapshots.get(i));
+        }
+
+        List<PointHistory> histories = new ArrayList<>();
+        // 아카이브로 옮긴 뒤 세그먼트를 지우기 전에 끊겼다면 같은 내역이 세그먼트에도 남아 있으므로 여기까지는 건너뛴다.
+        long archivedSeq = 0L;
+        if (restoreHistory) {
+            for (Path archive : list(directory, ARCHIVE_PREFIX, ARCHIVE_SUFFIX)) {
+                archivedSeq = Math.max(archivedSeq, readArchive(archive, histories));
+            }
+        }
+        long lastSeq = snapshotSeq;
+        int replayed = 0;
+        List<Path> segments = list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean coveredBySnapshot = i + 1 < segments.size()
+                    && sequenceOf(segments.get(i + 1), SEGMENT_PREFIX, SEGMENT_SUFFIX) <= snapshotSeq + 1;
+            if (coveredBySnapshot && !restoreHistory) {
+                continue;
+            }
+            long skipHistoryUntil = archivedSeq;
+            long snapshotUntil = snapshotSeq;
+            long[] last = {lastSeq};
+            int[] applied = {0};
+            Map<Long, UserPoint> replaying = balances;
+            readSegment(segments.get(i), (seq, userId, amount, type, updateMillis, balance) -> {
+                if (restoreHistory && seq > skipHistoryUntil) {
+                    histories.add(new PointHistory(seq, userId, amount, TYPES[type], updateMillis));
+                }
+                if (seq > snapshotUntil) {
+                    replaying.put(userId, new UserPoint(userId, balance, updateMillis));
+                    lastSeqs.put(userId, seq);
+                    applied[0]++;
+                }
+                last[0] = Math.max(last[0], seq);
+            });
+            lastSeq = last[0];
+            replayed += applied[0];
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new Recovery(balances, lastSeqs, histories, snapshotSeq, lastSeq, replayed, elapsedMillis);
+    }
+
+    /**
+     * 세그먼트의 온전한 레코드를 순서대로 넘기고 그 수를 돌려준다.
+     */
+    private static int readSegment(Path segment, RecordHandler handler) throws IOException {
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                CRC32 crc = new CRC32();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int position = buffer.position();
+                    long seq = buffer.getLong();
+                    if (seq == 0L) {
+                        break;
+                    }
+                    long userId = buffer.getLong();
+                    long amount = buffer.getLong();
+                    byte type = buffer.get();
+                    long updateMillis = buffer.getLong();
+                    long balance = buffer.getLong();
+                    int checksum = buffer.getInt();
+                    crc.reset();
+                    crc.update(buffer.duplicate().position(position).limit(position + RECORD_SIZE - 4));
+                    if ((int) crc.getValue() != checksum || type < 0 || type >= TYPES.length) {
+                        log.warn("WAL 레코드 손상 segment={} seq={}", segment.getFileName(), seq);
+                        break;
+                    }
+                    handler.accept(seq, userId, amount, type, updateMillis, balance);
+                    count++;
+                }
+            } finally {
+                unmap(buffer);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 아카이브의 내역을 histories 에 더하고 마지막 순번을 돌려준다. 형식이 맞지 않거나 CRC 가 다르면 건너뛰고 0
+     */
+    private static long readArchive(Path path, List<PointHistory> histories) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 4 + 4 + 4 || buffer.getInt() != ARCHIVE_MAGIC) {
+            log.warn("손상된 내역 아카이브를 건너뜁니다. {}", path);
+            return 0L;
+        }
+        int count = buffer.getInt();
+        int body = buffer.position() + count * ARCHIVE_RECORD_SIZE;
+        if (count < 0 || buffer.limit() != body + 4) {
+            log.warn("손상된 내역 아카이브를 건너뜁니다. {}", path);
+            return 0L;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, body);
+        if ((int) crc.getValue() != buffer.getInt(body)) {
+            log.warn("손상된 내역 아카이브를 건너뜁니다. {}", path);
+            return 0L;
+        }
+        long lastSeq = 0L;
+        for (int i = 0; i < count; i++) {
+            lastSeq = buffer.getLong();
+            histories.add(new PointHistory(lastSeq, buffer.getLong(), buffer.getLong(), TYPES[buffer.get()],
+                    buffer.getLong()));
+        }
+        return lastSeq;
+    }
+
+    private static void writeRecord(ByteBuffer buffer, long seq, long userId, long amount, TransactionType type,
+                                    long updateMillis, long balance) {
+        int position = buffer.position();
+        buffer.putLong(seq)
+                .putLong(userId)
+                .putLong(amount)
+                .put((byte) type.ordinal())
+                .putLong(updateMillis)
+                .putLong(balance);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(position).limit(position + RECORD_SIZE - 4));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private static void writeSnapshot(Path path, long seq, Map<Long, Tail> balances) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 4 + balances.size() * SNAPSHOT_ENTRY_SIZE + 4);
+        buffer.putInt(SNAPSHOT_MAGIC).putLong(seq).putInt(balances.size());
+        balances.forEach((userId, tail) -> buffer.putLong(userId)
+                .putLong(tail.balance())
+                .putLong(tail.updateMillis())
+                .putLong(tail.seq()));
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * 스냅샷을 읽어 유저별 잔액과 마지막 레코드 순번을 채운다. 형식이 맞지 않거나 CRC 가 다르면 false
+     * 순번이 없는 이전 형식이면 유저별 순번은 스냅샷 순번으로 둔다. 실제 순번보다 크거나 같다.
+     */
+    private static boolean readSnapshot(Path path, long seq, Map<Long, UserPoint> balances, Map<Long, Long> lastSeqs)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 4 + 8 + 4 + 4) {
+            return false;
+        }
+        int magic = buffer.getInt();
+        if (magic != SNAPSHOT_MAGIC && magic != SNAPSHOT_MAGIC_V1) {
+            return false;
+        }
+        int entrySize = magic == SNAPSHOT_MAGIC ? SNAPSHOT_ENTRY_SIZE : SNAPSHOT_ENTRY_SIZE_V1;
+        buffer.getLong();
+        int count = buffer.getInt();
+        int body = buffer.position() + count * entrySize;
+        if (count < 0 || buffer.limit() != body + 4) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, body);
+        if ((int) crc.getValue() != buffer.getInt(body)) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            long userId = buffer.getLong();
+            balances.put(userId, new UserPoint(userId, buffer.getLong(), buffer.getLong()));
+            lastSeqs.put(userId, magic == SNAPSHOT_MAGIC ? buffer.getLong() : seq);
+        }
+        return true;
+    }
+
+    private static List<Path> list(Path directory, String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // 순번을 0 으로 채운 고정 길이 이름이라 이름순이 곧 순번순이다.
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long sequenceOf(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String snapshotName(long seq) {
+        return SNAPSHOT_PREFIX + String.format("%020d", seq) + SNAPSHOT_SUFFIX;
+    }
+
+    /**
+     * segment-size-mb 를 byte 로 바꾼다. int 곱셈이 넘치지 않도록 범위를 먼저 검사한다.
+     */
+    public static int segmentSize(int segmentSizeMb) {
+        if (segmentSizeMb <= 0 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException("세그먼트 크기는 1 ~ " + MAX_SEGMENT_SIZE_MB + "MB 사이여야 합니다.");
+        }
+        return segmentSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * 매핑을 바로 해제한다. 해제한 버퍼에 접근하면 JVM 이 죽으므로 더 이상 쓰지 않는 버퍼에만 호출한다.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            log.debug("WAL 세그먼트 매핑 해제 실패. GC 때 해제됩니다.", e);
+        }
+    }
+
+    private static Object unsafe() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("sun.misc.Unsafe 를 쓸 수 없어 WAL 세그먼트 매핑은 GC 때 해제됩니다.");
+            return null;
+        }
+    }
+
+    private static Method invokeCleaner(Object unsafe) {
+        if (unsafe == null) {
+            return null;
+        }
+        try {
+            return unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private record Tail(long seq, long balance, long updateMillis) {
+    }
+
+    @FunctionalInterface
+    private interface RecordHandler {
+        void accept(long seq, long userId, long amount, byte type, long updateMillis, long balance);
+    }
+
+    /**
+     * @param balances      유저별 복구된 잔액
+     * @param lastSeqs      유저별 마지막 레코드 순번
+     * @param histories     복구된 내역. 아카이브 + 세그먼트 순번순 (restoreHistory 가 꺼져 있으면 빈 목록)
+     * @param snapshotSeq   읽은 스냅샷의 순번. 스냅샷이 없으면 0
+     * @param lastSeq       마지막 레코드 순번
+     * @param replayed      스냅샷 이후로 다시 적용한 레코드 수
+     * @param elapsedMillis 복구에 걸린 시간
+     */
+    public record Recovery(Map<Long, UserPoint> balances, Map<Long, Long> lastSeqs, List<PointHistory> histories,
+                           long snapshotSeq, long lastSeq, int replayed, long elapsedMillis) {
+
+        static final Recovery EMPTY = new Recovery(Map.of(), Map.of(), List.of(), 0L, 0L, 0, 0L);
+    }
+}
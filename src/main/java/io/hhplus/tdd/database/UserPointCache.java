@@ -0,0 +1,217 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.UserPoint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UserPointTable 앞단의 잔액 캐시
+ * - 조회 : 캐시에 없을 때만 테이블을 조회하고 결과를 채워둔다. (read-through)
+ * - 저장 : 테이블에 먼저 쓰고 캐시도 같은 값으로 갱신한다. (write-through)
+ * - 최대 크기를 넘으면 가장 오래 사용되지 않은 유저부터 내보낸다. (LRU)
+ * - 같은 유저의 캐시 미스가 동시에 나면 테이블 조회는 한 번만 하고 나머지는 그 결과를 같이 받는다. (single-flight)
+ *
+ * 테이블을 직접 수정하는 코드가 있다면 해당 유저는 evict 해줘야 한다.
+ */
+@Lazy
+@Component
+public class UserPointCache implements UserPointStore {
+
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final UserPointTable userPointTable;
+    private final PointMetrics pointMetrics;
+    private final int maxSize;
+    private final Map<Long, UserPoint> cache;
+    // WAL 에서 복구한 잔액. 테이블에 다시 저장되기 전까지는 테이블 대신 이 값을 읽는다.
+    private final ConcurrentHashMap<Long, UserPoint> restored = new ConcurrentHashMap<>();
+    // 진행 중인 테이블 조회. 같은 유저를 조회하는 스레드는 새로 조회하지 않고 이 결과를 기다린다.
+    private final ConcurrentHashMap<Long, CompletableFuture<UserPoint>> inFlight = new ConcurrentHashMap<>();
+    // 가상 스레드가 캐리어에 고정(pinning)되지 않도록 synchronized 대신 ReentrantLock 을 쓴다.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public UserPointCache(UserPointTable userPointTable) {
+        this(userPointTable, DEFAULT_MAX_SIZE);
+    }
+
+    public UserPointCache(UserPointTable userPointTable, int maxSize) {
+        this(userPointTable, maxSize, PointMetrics.standalone());
+    }
+
+    @Autowired
+    public UserPointCache(UserPointTable userPointTable,
+                          @Value("${point.cache.max-size:" + DEFAULT_MAX_SIZE + "}") int maxSize,
+                          PointMetrics pointMetrics) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("캐시 크기는 0보다 커야 합니다.");
+        }
+        this.userPointTable = userPointTable;
+        this.pointMetrics = pointMetrics;
+        this.maxSize = maxSize;
+        // accessOrder = true 로 두면 get 할 때마다 맨 뒤로 이동해 LRU 순서가 유지된다.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, UserPoint> eldest) {
+                if (size() > UserPointCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public UserPoint selectById(long id) {
+        UserPoint cached;
+        lock.lock();
+        try {
+            cached = cache.get(id);
+        } finally {
+            lock.unlock();
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        CompletableFuture<UserPoint> mine = new CompletableFuture<>();
+        CompletableFuture<UserPoint> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+        try {
+            UserPoint loaded = load(id);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * 테이블(또는 복구 값)에서 읽어 캐시를 채운다. 테이블 조회(최대 200ms)는 락 밖에서 수행한다.
+     */
+    private UserPoint load(long id) {
+        UserPoint loaded = restored.get(id);
+        if (loaded == null) {
+            pointMetrics.recordTableCall("userPoint", "selectById");
+            loaded = userPointTable.selectById(id);
+        }
+        lock.lock();
+        try {
+            // 조회하는 동안 insertOrUpdate 가 먼저 캐시를 채웠다면 그 값이 더 최신이다.
+            UserPoint previous = cache.putIfAbsent(id, loaded);
+            return previous != null ? previous : loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private UserPoint join(CompletableFuture<UserPoint> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public UserPoint insertOrUpdate(long id, long amount) {
+        pointMetrics.recordTableCall("userPoint", "insertOrUpdate");
+        UserPoint saved = userPointTable.insertOrUpdate(id, amount);
+        restored.remove(id);
+        lock.lock();
+        try {
+            cache.put(id, saved);
+        } finally {
+            lock.unlock();
+        }
+        // 저장 전에 시작된 조회에는 더 이상 붙지 않게 한다. 이후 조회는 방금 채운 캐시를 읽는다.
+        inFlight.remove(id);
+        return saved;
+    }
+
+    /**
+     * 재시작 시 WAL 에서 복구한 잔액을 채운다. 테이블은 거치지 않는다.
+     */
+    @Override
+    public void restore(long id, UserPoint userPoint) {
+        restored.put(id, userPoint);
+        evict(id);
+    }
+
+    public void evict(long id) {
+        lock.lock();
+        try {
+            cache.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            cache.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return cache.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 테이블을 직접 조회하지 않고 다른 스레드의 조회 결과를 받은 횟수. missCount 에 포함된다.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+
+/**
+ * PointService 가 잔액을 읽고 쓰는 저장소
+ * - TABLE : UserPointTable 앞에 LRU 캐시를 둔 UserPointCache
+ * - COLUMNAR : primitive 배열에 직접 저장하는 ColumnarUserPointStore
+ */
+public interface UserPointStore {
+
+    UserPoint selectById(long id);
+
+    UserPoint insertOrUpdate(long id, long amount);
+
+    /**
+     * 잔액만 필요할 때 쓴다. 구현체에 따라 UserPoint 를 만들지 않는다.
+     */
+    default long selectPointById(long id) {
+        return selectById(id).point();
+    }
+
+    /**
+     * 저장 결과가 필요 없을 때 쓴다. 구현체에 따라 UserPoint 를 만들지 않는다.
+     */
+    default void updatePoint(long id, long amount) {
+        insertOrUpdate(id, amount);
+    }
+
+    /**
+     * 재시작 시 WAL 에서 복구한 잔액을 채운다.
+     */
+    void restore(long id, UserPoint userPoint);
+}
@@ -1,6 +1,7 @@
 package io.hhplus.tdd.database;
 
 import io.hhplus.tdd.point.UserPoint;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
@@ -10,6 +11,7 @@ import java.util.concurrent.TimeUnit;
 /**
  * 해당 Table 클래스는 변경하지 않고 공개된 API 만을 사용해 데이터를 제어합니다.
  */
+@Lazy
 @Component
 public class UserPointTable {
 
@@ -0,0 +1,148 @@
+package io.hhplus.tdd.metrics;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointShard;
+import io.hhplus.tdd.point.PointShardRouter;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 포인트 구성요소의 현재 상태(활성 메일박스, 잡힌 락, 캐시, 대기 중인 내역, 만료 예정 lot, SSE 구독, 입장 제한)을 게이지로 노출한다.
+ * 샤드가 여럿이면 메일박스/락/캐시/내역/만료는 샤드마다 shard=N 태그를 붙여 따로 노출한다.
+ * 이때 기본 구성요소는 만들어지지 않아야 하므로 지연 프록시로 받고, 단일 모드에서만 꺼내 쓴다.
+ */
+@Component
+public class PointMeterBinder implements MeterBinder {
+
+    private final UserMailboxExecutor userMailboxExecutor;
+    private final StripedLockManager lockManager;
+    private final UserPointCache userPointCache;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointExpiration pointExpiration;
+    private final PointStreamHub pointStreamHub;
+    private final PointAdmission pointAdmission;
+    private final PointShardRouter pointShardRouter;
+
+    public PointMeterBinder(@Lazy UserMailboxExecutor userMailboxExecutor, @Lazy StripedLockManager lockManager,
+                            @Lazy UserPointCache userPointCache, @Lazy PointHistoryWriter pointHistoryWriter,
+                            @Lazy PointExpiration pointExpiration, PointStreamHub pointStreamHub,
+                            PointAdmission pointAdmission, PointShardRouter pointShardRouter) {
+        this.userMailboxExecutor = userMailboxExecutor;
+        this.lockManager = lockManager;
+        this.userPointCache = userPointCache;
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.pointExpiration = pointExpiration;
+        this.pointStreamHub = pointStreamHub;
+        this.pointAdmission = pointAdmission;
+        this.pointShardRouter = pointShardRouter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (pointShardRouter.shards().isEmpty()) {
+            bindShard(registry, Tags.empty(), userMailboxExecutor, lockManager, userPointCache, pointHistoryWriter,
+                    pointExpiration);
+        } else {
+            for (PointShard shard : pointShardRouter.shards()) {
+                // COLUMNAR 저장소를 쓰는 샤드는 캐시가 없다.
+                UserPointCache shardCache = shard.userPointStore() instanceof UserPointCache cache ? cache : null;
+                bindShard(registry, Tags.of("shard", String.valueOf(shard.index())), shard.userMailboxExecutor(),
+                        shard.lockManager(), shardCache, shard.pointHistoryWriter(), shard.pointExpiration());
+            }
+        }
+
+        Gauge.builder("point.stream.connections", pointStreamHub, PointStreamHub::connectionCount)
+                .description("열려있는 SSE 구독 수")
+                .register(registry);
+        FunctionCounter.builder("point.stream.events", pointStreamHub, PointStreamHub::deliveredCount)
+                .tag("result", "delivered")
+                .register(registry);
+        FunctionCounter.builder("point.stream.events", pointStreamHub, PointStreamHub::coalescedCount)
+                .tag("result", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("point.stream.events", pointStreamHub, PointStreamHub::droppedCount)
+                .tag("result", "dropped")
+                .register(registry);
+
+        Gauge.builder("point.admission.in-flight", pointAdmission, PointAdmission::inFlightCount)
+                .description("입장 제한을 통과해 처리 중이거나 대기 중인 쓰기 요청 수")
+                .register(registry);
+        FunctionCounter.builder("point.admission.rejected", pointAdmission, PointAdmission::rejectedCount)
+                .description("한도를 넘어 바로 거절한 요청 수")
+                .register(registry);
+        FunctionCounter.builder("point.admission.expired", pointAdmission, PointAdmission::expiredCount)
+                .description("마감까지 시작하지 못해 취소한 요청 수")
+                .register(registry);
+    }
+
+    private static void bindShard(MeterRegistry registry, Tags tags, UserMailboxExecutor userMailboxExecutor,
+                                  StripedLockManager lockManager, UserPointCache userPointCache,
+                                  PointHistoryWriter pointHistoryWriter, PointExpiration pointExpiration) {
+        Gauge.builder("point.mailbox.active", userMailboxExecutor, UserMailboxExecutor::activeMailboxes)
+                .description("처리 중이거나 대기 명령이 있는 유저 수")
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("point.lock.active", lockManager, manager -> manager.stats().locked())
+                .description("현재 잡혀있는 stripe 수")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("point.lock.acquisitions", lockManager, manager -> manager.stats().acquisitions())
+                .tags(tags)
+                .register(registry);
+        FunctionTimer.builder("point.lock.contended", lockManager,
+                        manager -> manager.stats().contended(),
+                        manager -> manager.stats().waitNanos(),
+                        TimeUnit.NANOSECONDS)
+                .description("바로 얻지 못하고 기다린 락 획득")
+                .tags(tags)
+                .register(registry);
+
+        if (userPointCache != null) {
+            Gauge.builder("point.cache.size", userPointCache, UserPointCache::size)
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::hitCount)
+                    .tag("result", "hit")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("point.cache.requests", userPointCache, UserPointCache::missCount)
+                    .tag("result", "miss")
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("point.cache.coalesced", userPointCache, UserPointCache::coalescedCount)
+                    .tags(tags)
+                    .register(registry);
+            FunctionCounter.builder("point.cache.evictions", userPointCache, UserPointCache::evictionCount)
+                    .tags(tags)
+                    .register(registry);
+        }
+
+        Gauge.builder("point.history.pending", pointHistoryWriter, PointHistoryWriter::pendingCount)
+                .tags(tags)
+                .register(registry);
+
+        Gauge.builder("point.expiration.scheduled", pointExpiration, PointExpiration::scheduledCount)
+                .description("타이밍 휠에 등록된 만료 예정 lot 수")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("point.expiration.expired", pointExpiration, PointExpiration::expiredPoints)
+                .description("만료로 차감한 포인트 합")
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,144 @@
+package io.hhplus.tdd.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 포인트 핫패스 계측
+ * - point.operation : 기능별 전체 지연
+ * - point.mailbox.wait : 메일박스에 들어가서 실행되기까지 기다린 시간
+ * - point.lock.wait / point.lock.hold : 유저 락을 얻기까지 기다린 시간 / 잡고 있던 시간
+ * - point.table.calls : 테이블 메서드별 호출 수
+ * - point.table.calls.per.operation : 기능 한 번에 발생한 테이블 호출 수.
+ *   비동기 내역 저장은 호출한 기능이 아니라 writer 스레드에서 일어나므로 operation=historyWriter 로 따로 센다.
+ *
+ * 타이머는 기본으로 건수/합계/최댓값만 남긴다. point.metrics.percentiles-enabled 를 켜면 p50/p95/p99 와 히스토그램도 남기는데,
+ * 기록마다 버킷을 갱신하는 비용이 재려는 경로에 더해지므로 지연을 분석할 때만 켠다.
+ * 대부분의 기능이 수 µs 안에 끝나므로 히스토그램 범위는 1µs ~ 10s 로 둔다.
+ * 미터는 처음 한 번만 만들어 캐시해두므로 기록 비용은 맵 조회와 카운터 증가 정도다.
+ */
+@Component
+public class PointMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final Duration MINIMUM_EXPECTED = Duration.ofNanos(1_000);
+    private static final Duration MAXIMUM_EXPECTED = Duration.ofSeconds(10);
+
+    private final MeterRegistry registry;
+    private final boolean percentilesEnabled;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> tableCallCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DistributionSummary> tableCallSummaries = new ConcurrentHashMap<>();
+    // 현재 스레드에서 발생한 테이블 호출 수. 기능 시작/끝의 차이로 기능당 호출 수를 구한다.
+    private final ThreadLocal<int[]> tableCalls = ThreadLocal.withInitial(() -> new int[1]);
+
+    public PointMetrics(MeterRegistry registry) {
+        this(registry, false);
+    }
+
+    @Autowired
+    public PointMetrics(MeterRegistry registry,
+                        @Value("${point.metrics.percentiles-enabled:false}") boolean percentilesEnabled) {
+        this.registry = registry;
+        this.percentilesEnabled = percentilesEnabled;
+    }
+
+    /**
+     * 스프링 밖(테스트, 벤치마크)에서 쓰는 단독 인스턴스
+     */
+    public static PointMetrics standalone() {
+        return new PointMetrics(new SimpleMeterRegistry());
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    public <T> T time(String operation, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            operationTimer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 완료 시점에 기록한다. 기록이 끝난 뒤 완료되는 future 를 돌려주므로 join 직후 조회해도 반영되어 있다.
+     */
+    public <T> CompletableFuture<T> timeAsync(String operation, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        return future.whenComplete((result, e) -> operationTimer(operation, e == null ? "success" : "failure")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    public void recordMailboxWait(String operation, long nanos) {
+        timer("point.mailbox.wait", operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockWait(String operation, long nanos) {
+        timer("point.lock.wait", operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordLockHold(String operation, long nanos) {
+        timer("point.lock.hold", operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordTableCall(String table, String method) {
+        tableCallCounters.computeIfAbsent(table + "." + method, key -> Counter.builder("point.table.calls")
+                .tag("table", table)
+                .tag("method", method)
+                .register(registry)).increment();
+        tableCalls.get()[0]++;
+    }
+
+    /**
+     * 기능 시작 시점의 테이블 호출 수. endTableCalls 에 그대로 넘긴다.
+     */
+    public int beginTableCalls() {
+        return tableCalls.get()[0];
+    }
+
+    public void endTableCalls(String operation, int begin) {
+        int calls = tableCalls.get()[0] - begin;
+        tableCallSummaries.computeIfAbsent(operation, key -> DistributionSummary.builder("point.table.calls.per.operation")
+                .tag("operation", operation)
+                .register(registry)).record(calls);
+    }
+
+    private Timer operationTimer(String operation, String outcome) {
+        return timers.computeIfAbsent("point.operation." + operation + "." + outcome, key -> register(Timer.builder("point.operation")
+                .tag("operation", operation)
+                .tag("outcome", outcome)));
+    }
+
+    private Timer timer(String name, String operation) {
+        return timers.computeIfAbsent(name + "." + operation, key -> register(Timer.builder(name)
+                .tag("operation", operation)));
+    }
+
+    private Timer register(Timer.Builder builder) {
+        if (percentilesEnabled) {
+            builder.publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MINIMUM_EXPECTED)
+                    .maximumExpectedValue(MAXIMUM_EXPECTED);
+        }
+        return builder.register(registry);
+    }
+}
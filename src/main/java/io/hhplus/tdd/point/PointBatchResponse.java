@@ -0,0 +1,14 @@
+package io.hhplus.tdd.point;
+
+import java.util.List;
+
+/**
+ * 일괄 처리 응답. results 는 요청 순서와 같다.
+ */
+public record PointBatchResponse(
+        List<PointBatchResult> results,
+        int successCount,
+        int failureCount,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,23 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.ErrorResponse;
+
+/**
+ * 일괄 처리 결과 한 건. 성공하면 point 에 처리 후 잔액이, 실패하면 error 가 채워진다.
+ */
+public record PointBatchResult(
+        int index,
+        long userId,
+        TransactionType type,
+        Long point,
+        ErrorResponse error
+) {
+
+    public static PointBatchResult success(int index, PointBatchOperation operation, long point) {
+        return new PointBatchResult(index, operation.userId(), operation.type(), point, null);
+    }
+
+    public static PointBatchResult failure(int index, PointBatchOperation operation, ErrorResponse error) {
+        return new PointBatchResult(index, operation.userId(), operation.type(), null, error);
+    }
+}
@@ -0,0 +1,99 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * UserPoint / PointHistory 의 고정 길이 바이너리 표현 (application/x-point-binary)
+ * - long 은 모두 8 byte big-endian, 거래 종류는 ordinal 1 byte 로 쓴다.
+ * - UserPoint : id, point, updateMillis (24 byte)
+ * - PointHistory : id, userId, amount, type, updateMillis (33 byte)
+ * - 내역 목록 : 건수(int 4 byte) 뒤에 내역을 이어 쓴다. 길이가 건수로 정해지므로 Content-Length 를 미리 알 수 있다.
+ *
+ * WAL 과 마찬가지로 ordinal 을 쓰므로 TransactionType 은 맨 뒤에만 추가한다.
+ */
+public final class PointBinaryFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-point-binary";
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-point-binary");
+
+    public static final int USER_POINT_SIZE = 8 + 8 + 8;
+    public static final int POINT_HISTORY_SIZE = 8 + 8 + 8 + 1 + 8;
+    private static final int COUNT_SIZE = 4;
+    // 내역 목록은 이 크기씩 나눠 내보낸다. 건수가 적으면 필요한 만큼만 잡는다.
+    private static final int CHUNK_SIZE = 8192 - 8192 % POINT_HISTORY_SIZE;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private PointBinaryFormat() {
+    }
+
+    public static long historiesSize(int count) {
+        return COUNT_SIZE + (long) count * POINT_HISTORY_SIZE;
+    }
+
+    public static void write(UserPoint userPoint, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(USER_POINT_SIZE);
+        put(buffer, userPoint);
+        out.write(buffer.array());
+    }
+
+    public static void write(PointHistory pointHistory, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(POINT_HISTORY_SIZE);
+        put(buffer, pointHistory);
+        out.write(buffer.array());
+    }
+
+    /**
+     * 건수를 쓰고 내역을 CHUNK_SIZE 씩 out 으로 내보낸다. 응답 전체를 한 배열에 담지 않는다.
+     */
+    public static void write(Collection<PointHistory> histories, OutputStream out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHUNK_SIZE, historiesSize(histories.size())));
+        buffer.putInt(histories.size());
+        for (PointHistory pointHistory : histories) {
+            if (buffer.remaining() < POINT_HISTORY_SIZE) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            put(buffer, pointHistory);
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    public static void put(ByteBuffer buffer, UserPoint userPoint) {
+        buffer.putLong(userPoint.id())
+                .putLong(userPoint.point())
+                .putLong(userPoint.updateMillis());
+    }
+
+    public static void put(ByteBuffer buffer, PointHistory pointHistory) {
+        buffer.putLong(pointHistory.id())
+                .putLong(pointHistory.userId())
+                .putLong(pointHistory.amount())
+                .put((byte) pointHistory.type().ordinal())
+                .putLong(pointHistory.updateMillis());
+    }
+
+    public static UserPoint readUserPoint(ByteBuffer buffer) {
+        return new UserPoint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+
+    public static PointHistory readPointHistory(ByteBuffer buffer) {
+        return new PointHistory(buffer.getLong(), buffer.getLong(), buffer.getLong(), TYPES[buffer.get()],
+                buffer.getLong());
+    }
+
+    public static List<PointHistory> readHistories(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<PointHistory> histories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            histories.add(readPointHistory(buffer));
+        }
+        return histories;
+    }
+}
@@ -1,20 +1,34 @@
 package io.hhplus.tdd.point;
 
+import io.hhplus.tdd.concurrent.PointRequestExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/point")
 public class PointController {
 
     private static final Logger log = LoggerFactory.getLogger(PointController.class);
-    private final PointService pointService;
+    private static final int STREAM_PAGE_SIZE = 500;
 
-    public PointController(PointService pointService) {
-        this.pointService = pointService;
+    private final PointShardRouter pointShardRouter;
+    private final PointRequestExecutor pointRequestExecutor;
+    private final PointStreamHub pointStreamHub;
+
+    public PointController(PointShardRouter pointShardRouter, PointRequestExecutor pointRequestExecutor, PointStreamHub pointStreamHub) {
+        this.pointShardRouter = pointShardRouter;
+        this.pointRequestExecutor = pointRequestExecutor;
+        this.pointStreamHub = pointStreamHub;
     }
 
     /**
@@ -24,17 +38,102 @@ public class PointController {
     public UserPoint point(
             @PathVariable long id
     ) {
-        return new UserPoint(id, pointService.searchRestPoints(id), System.currentTimeMillis());
+        return new UserPoint(id, pointShardRouter.route(id).searchRestPoints(id), System.currentTimeMillis());
     }
 
     /**
-     * TODO - 특정 유저의 포인트 충전/이용 내역을 조회하는 기능을 작성해주세요.
+     * 특정 유저의 포인트 충전/이용 내역을 id 순서로 조회합니다.
+     * from/to/type 중 하나라도 주면 updateMillis 가 from 이상 to 미만인 내역만 시각 순서로 조회합니다.
+     * UserPoint/PointHistory 응답은 Accept: application/x-point-binary 로 고정 길이 바이너리를 받을 수 있습니다. (PointBinaryFormat)
      */
     @GetMapping("{id}/histories")
     public List<PointHistory> history(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "false") boolean consistent,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) TransactionType type
+    ) {
+        if (from != null || to != null || type != null) {
+            return List.of(pointShardRouter.route(id).searchPointhistory(id,
+                    from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to, type, consistent));
+        }
+        if (consistent) {
+            return List.of(pointShardRouter.route(id).searchPointhistory(id, true));
+        }
+        return List.of(pointShardRouter.route(id).searchPointhistory(id));
+    }
+
+    /**
+     * 특정 유저의 누적 충전/사용 합계와 일별 집계를 조회합니다.
+     */
+    @GetMapping("{id}/summary")
+    public PointSummary summary(
             @PathVariable long id
     ) {
-        return List.of(pointService.searchPointhistory(id));
+        return pointShardRouter.route(id).searchPointSummary(id);
+    }
+
+    /**
+     * 특정 유저의 포인트 내역을 cursor(내역 id) 이후부터 limit 건씩 조회합니다.
+     */
+    @GetMapping("{id}/histories/page")
+    public PointHistoryPage historyPage(
+            @PathVariable long id,
+            @RequestParam(defaultValue = "0") long cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return pointShardRouter.route(id).searchPointhistoryPage(id, cursor, limit);
+    }
+
+    /**
+     * 특정 유저의 포인트 내역 전체를 한 줄에 한 건씩(NDJSON) 내려줍니다.
+     * 페이지 단위로 읽으면서 바로 쓰기 때문에 내역이 많아도 전체 목록을 메모리에 올리지 않습니다.
+     * StreamingResponseBody 는 변환기를 거치지 않아 produces 만으로는 Content-Type 이 붙지 않으므로 직접 정합니다.
+     */
+    @GetMapping(value = "{id}/histories/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> historyStream(
+            @PathVariable long id
+    ) {
+        PointService pointService = pointShardRouter.route(id);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(out -> {
+            PointJsonWriter writer = new PointJsonWriter(out);
+            long cursor = 0;
+            do {
+                PointHistoryPage page = pointService.searchPointhistoryPage(id, cursor, STREAM_PAGE_SIZE);
+                for (PointHistory history : page.histories()) {
+                    writer.write(history);
+                    writer.newLine();
+                }
+                writer.flush();
+                cursor = page.nextCursor() == null ? -1 : page.nextCursor();
+            } while (cursor >= 0);
+        });
+    }
+
+    /**
+     * 특정 유저의 잔액이 바뀔 때마다 UserPoint 를 SSE(event: point)로 내려줍니다.
+     * 연결 직후 현재 잔액을 한 번 보내므로 주기적으로 조회할 필요가 없습니다.
+     * 느린 클라이언트에게는 중간 값을 건너뛰고 최신 잔액만 보냅니다.
+     */
+    @GetMapping(value = "{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @PathVariable long id
+    ) {
+        // 먼저 구독한 뒤 조회해야 그 사이의 변경을 놓치지 않는다.
+        SseEmitter emitter = pointStreamHub.subscribe(id);
+        long point = pointShardRouter.route(id).searchRestPoints(id);
+        pointStreamHub.sendInitial(emitter, new UserPoint(id, point, System.currentTimeMillis()));
+        return emitter;
+    }
+
+    /**
+     * 모든 유저의 잔액 변경을 SSE 로 내려줍니다. (내부 소비자용)
+     * 구독자 버퍼(point.stream.buffer-size)를 넘게 밀리면 오래된 유저의 변경부터 버립니다.
+     */
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAll() {
+        return pointStreamHub.subscribeAll();
     }
 
     /**
@@ -45,7 +144,7 @@ public class PointController {
             @PathVariable long id,
             @RequestBody long amount
     ) {
-        return new UserPoint(id, pointService.chargePoints(id,amount,System.currentTimeMillis()), System.currentTimeMillis());
+        return new UserPoint(id, pointShardRouter.route(id).chargePoints(id,amount,System.currentTimeMillis()), System.currentTimeMillis());
     }
 
     /**
@@ -56,6 +155,92 @@ public class PointController {
             @PathVariable long id,
             @RequestBody long amount
     ) {
-        return new UserPoint(id, pointService.usePoints(id,amount,System.currentTimeMillis()), System.currentTimeMillis());
+        return new UserPoint(id, pointShardRouter.route(id).usePoints(id,amount,System.currentTimeMillis()), System.currentTimeMillis());
+    }
+
+    /**
+     * 특정 유저의 포인트를 다른 유저에게 이체합니다.
+     */
+    @PatchMapping("{id}/transfer")
+    public PointTransferResult transfer(
+            @PathVariable long id,
+            @RequestBody PointTransferRequest request
+    ) {
+        return pointShardRouter.transfer(id, request.toUserId(), request.amount(), System.currentTimeMillis());
+    }
+
+    /*
+     * 비동기 API
+     * 서블릿 스레드는 작업을 넘기고 바로 반환되고, 결과가 나오면 응답을 이어서 씁니다.
+     * point.async.timeout-millis 안에 끝나지 않으면 503 으로 응답합니다.
+     * 타임아웃 때 아직 메일박스에서 차례를 기다리던 충전/사용은 취소되지만, 이미 시작한 것은 그대로 반영됩니다.
+     */
+
+    /**
+     * 특정 유저의 포인트를 비동기로 조회합니다.
+     */
+    @GetMapping("{id}/async")
+    public DeferredResult<UserPoint> pointAsync(
+            @PathVariable long id
+    ) {
+        DeferredResult<UserPoint> result = new DeferredResult<>(pointRequestExecutor.timeoutMillis());
+        pointRequestExecutor.supply(() -> pointShardRouter.route(id).searchRestPoints(id))
+                .whenComplete((point, e) -> {
+                    if (e != null) {
+                        result.setErrorResult(unwrap(e));
+                    } else {
+                        result.setResult(new UserPoint(id, point, System.currentTimeMillis()));
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * 특정 유저의 포인트 내역을 비동기로 조회합니다.
+     */
+    @GetMapping("{id}/histories/async")
+    public CompletableFuture<List<PointHistory>> historyAsync(
+            @PathVariable long id
+    ) {
+        return pointRequestExecutor.supply(() -> List.of(pointShardRouter.route(id).searchPointhistory(id)));
+    }
+
+    /**
+     * 특정 유저의 포인트를 비동기로 충전합니다.
+     * 충전은 원래 유저 메일박스에서 실행되므로 별도 실행기를 거치지 않고 결과만 기다립니다.
+     */
+    @PatchMapping("{id}/charge/async")
+    public CompletableFuture<UserPoint> chargeAsync(
+            @PathVariable long id,
+            @RequestBody long amount
+    ) {
+        return pointRequestExecutor.withTimeout(pointShardRouter.route(id).chargePointsAsync(id, amount, System.currentTimeMillis()))
+                .thenApply(point -> new UserPoint(id, point, System.currentTimeMillis()));
+    }
+
+    /**
+     * 특정 유저의 포인트를 비동기로 사용합니다.
+     */
+    @PatchMapping("{id}/use/async")
+    public CompletableFuture<UserPoint> useAsync(
+            @PathVariable long id,
+            @RequestBody long amount
+    ) {
+        return pointRequestExecutor.withTimeout(pointShardRouter.route(id).usePointsAsync(id, amount, System.currentTimeMillis()))
+                .thenApply(point -> new UserPoint(id, point, System.currentTimeMillis()));
+    }
+
+    /**
+     * 여러 유저의 포인트 충전/사용을 한 번에 처리합니다.
+     */
+    @PostMapping("batch")
+    public PointBatchResponse batch(
+            @RequestBody List<PointBatchOperation> operations
+    ) {
+        return pointShardRouter.executeBatch(operations);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
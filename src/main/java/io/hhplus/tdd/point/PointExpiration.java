@@ -0,0 +1,295 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.concurrent.HierarchicalTimingWheel;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 충전한 포인트를 ttl 이 지나면 만료시킨다.
+ * - 충전(이체로 받은 포인트 포함) 한 건이 하나의 lot 이 되고, 유저별로 만료 시각 순서의 대기열에 둔다.
+ * - 사용/이체로 나간 포인트는 만료가 가장 가까운 lot 부터 차감한다.
+ * - 대기열이 비면(모두 사용했거나 만료) 유저 항목을 지운다. 대기열 생성/차감/제거는 모두 맵의 compute 안에서 일어나므로
+ *   같은 유저에 대해 원자적이다.
+ * - lot 의 만료 시각은 타이밍 휠에 등록한다. 내역을 훑지 않고, lot 이 몇 개든 등록은 O(1) 이다.
+ * - 휠에서 꺼낸 유저들은 ExpirySink(PointWritePipeline) 로 한 번에 넘겨 차감한다. 실제 차감액은 sink 가 유저별로 직렬화된
+ *   상태에서 dueAmount 로 다시 계산하므로, 꺼낸 뒤에 사용된 lot 은 만료되지 않는다.
+ *
+ * ttl 이 0 이면 아무것도 하지 않는다.
+ */
+@Lazy
+@Component
+public class PointExpiration implements AutoCloseable {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000L;
+
+    private static final Logger log = LoggerFactory.getLogger(PointExpiration.class);
+
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final boolean ticking;
+    private final HierarchicalTimingWheel wheel;
+    // 휠은 스레드 안전하지 않다. 등록과 진행 모두 짧게 끝나므로 하나의 락으로 묶는다.
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final ConcurrentHashMap<Long, UserLots> lots = new ConcurrentHashMap<>();
+    private final LongAdder expiredPoints = new LongAdder();
+
+    private volatile ExpirySink sink;
+    private ScheduledExecutorService ticker;
+
+    public static PointExpiration disabled() {
+        return new PointExpiration(0L, DEFAULT_TICK_MILLIS, false);
+    }
+
+    /**
+     * @param ticking true 면 sink 가 연결될 때 tick 마다 휠을 진행하는 스레드를 띄운다.
+     *                false 면 호출자가 expireDue 를 직접 불러야 한다. (테스트, 벤치마크)
+     */
+    public PointExpiration(long ttlMillis, long tickMillis, boolean ticking) {
+        if (ttlMillis < 0) {
+            throw new IllegalArgumentException("포인트 만료 기간은 0 이상이어야 합니다.");
+        }
+        this.ttlMillis = ttlMillis;
+        this.tickMillis = tickMillis;
+        this.ticking = ticking;
+        this.wheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis());
+    }
+
+    @Autowired
+    public PointExpiration(PointWriteAheadLog pointWriteAheadLog,
+                           @Value("${point.expiration.ttl-days:0}") long ttlDays,
+                           @Value("${point.expiration.tick-millis:" + DEFAULT_TICK_MILLIS + "}") long tickMillis) {
+        this(TimeUnit.DAYS.toMillis(ttlDays), tickMillis, true);
+        restore(pointWriteAheadLog.recovered().histories());
+    }
+
+    public boolean isEnabled() {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * 만료 대상 유저를 넘겨받을 곳을 연결한다. ticking 이면 이때부터 휠을 진행한다.
+     */
+    public synchronized void bind(ExpirySink sink) {
+        this.sink = sink;
+        if (!isEnabled() || !ticking || ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-expiration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(() -> {
+            try {
+                expireDue(System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                log.warn("포인트 만료 처리에 실패했습니다. 다음 tick 에 다시 시도합니다.", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 반영된 거래 한 건으로 lot 을 갱신한다. amount 는 내역과 같이 차감이면 음수다.
+     * 같은 유저에 대해서는 거래가 반영된 순서대로 호출되어야 한다.
+     */
+    public void record(long userId, long amount, TransactionType type, long updateMillis) {
+        if (!isEnabled()) {
+            return;
+        }
+        switch (type) {
+            // TRANSFER_REFUND 는 이전 버전의 WAL 을 복구할 때만 온다. 되돌려받은 포인트도 새 lot 으로 둔다.
+            case CHARGE, TRANSFER_IN, TRANSFER_REFUND -> {
+                long expireAt = updateMillis + ttlMillis;
+                lots.compute(userId, (key, userLots) -> {
+                    UserLots target = userLots == null ? new UserLots() : userLots;
+                    target.add(amount, expireAt);
+                    return target;
+                });
+                wheelLock.lock();
+                try {
+                    wheel.schedule(userId, expireAt);
+                } finally {
+                    wheelLock.unlock();
+                }
+            }
+            case USE, EXPIRE, TRANSFER_OUT -> lots.computeIfPresent(userId, (key, userLots) -> {
+                userLots.consume(-amount);
+                return userLots.isEmpty() ? null : userLots;
+            });
+        }
+    }
+
+    public void restore(List<PointHistory> histories) {
+        for (PointHistory history : histories) {
+            record(history.userId(), history.amount(), history.type(), history.updateMillis());
+        }
+    }
+
+    /**
+     * nowMillis 까지 만료 시각이 지난 lot 의 남은 포인트 합
+     */
+    public long dueAmount(long userId, long nowMillis) {
+        UserLots userLots = lots.get(userId);
+        return userLots == null ? 0L : userLots.dueAmount(nowMillis);
+    }
+
+    /**
+     * 잔액이 모자라 다 차감하지 못한 만료 lot 을 버린다. 버리지 않으면 다시 휠에 오르지 않은 채 대기열 앞에 남는다.
+     */
+    public void discardDue(long userId, long nowMillis) {
+        lots.computeIfPresent(userId, (key, userLots) -> {
+            userLots.discardDue(nowMillis);
+            return userLots.isEmpty() ? null : userLots;
+        });
+    }
+
+    /**
+     * 휠을 nowMillis 까지 진행하고, 만료된 lot 이 있는 유저들을 sink 로 넘긴다.
+     */
+    public void expireDue(long nowMillis) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(nowMillis, userIds::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        ExpirySink target = sink;
+        if (!userIds.isEmpty() && target != null) {
+            target.expire(userIds, nowMillis);
+        }
+    }
+
+    void recordExpired(long amount) {
+        expiredPoints.add(amount);
+    }
+
+    public long expiredPoints() {
+        return expiredPoints.sum();
+    }
+
+    /**
+     * 휠에 등록된 만료 예정 건수. 이미 다 사용된 lot 도 만료 시각까지는 포함된다.
+     */
+    public long scheduledCount() {
+        wheelLock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * 남은 lot 이 있는 유저 수. 다 쓰거나 만료된 유저의 대기열은 그 자리에서 지우므로 충전한 적 있는 유저 수만큼 커지지 않는다.
+     */
+    public int trackedUsers() {
+        return lots.size();
+    }
+
+    public long remainingLotPoints(long userId) {
+        UserLots userLots = lots.get(userId);
+        return userLots == null ? 0L : userLots.remaining();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ExpirySink {
+        void expire(Set<Long> userIds, long nowMillis);
+    }
+
+    /**
+     * 유저 한 명의 lot 대기열. 만료 시각 오름차순이다.
+     */
+    private static final class UserLots {
+        private final Deque<Lot> queue = new ArrayDeque<>();
+
+        synchronized void add(long amount, long expireAt) {
+            Lot lot = new Lot(amount, expireAt);
+            if (queue.isEmpty() || queue.peekLast().expireAt <= expireAt) {
+                queue.addLast(lot);
+                return;
+            }
+            // 시각이 뒤섞여 도착한 경우. 드물기 때문에 뒤에서부터 자리를 찾는다.
+            Deque<Lot> later = new ArrayDeque<>();
+            while (!queue.isEmpty() && queue.peekLast().expireAt > expireAt) {
+                later.addFirst(queue.pollLast());
+            }
+            queue.addLast(lot);
+            queue.addAll(later);
+        }
+
+        synchronized void consume(long amount) {
+            long left = amount;
+            while (left > 0 && !queue.isEmpty()) {
+                Lot oldest = queue.peekFirst();
+                long piece = Math.min(oldest.remaining, left);
+                oldest.remaining -= piece;
+                left -= piece;
+                if (oldest.remaining == 0) {
+                    queue.pollFirst();
+                }
+            }
+        }
+
+        synchronized long dueAmount(long nowMillis) {
+            long due = 0;
+            for (Lot lot : queue) {
+                if (lot.expireAt > nowMillis) {
+                    break;
+                }
+                due += lot.remaining;
+            }
+            return due;
+        }
+
+        synchronized void discardDue(long nowMillis) {
+            Iterator<Lot> iterator = queue.iterator();
+            while (iterator.hasNext() && iterator.next().expireAt <= nowMillis) {
+                iterator.remove();
+            }
+        }
+
+        synchronized boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        synchronized long remaining() {
+            return queue.stream().mapToLong(lot -> lot.remaining).sum();
+        }
+    }
+
+    private static final class Lot {
+        private final long expireAt;
+        private long remaining;
+
+        Lot(long remaining, long expireAt) {
+            this.remaining = remaining;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * UserPoint / PointHistory / PointHistory 목록 응답을 Jackson 을 거치지 않고 쓴다. (쓰기 전용)
+ * - application/x-point-binary : PointBinaryFormat. 길이가 정해져 있어 Content-Length 를 붙인다.
+ * - application/json : PointJsonWriter. jsonEnabled 가 false 면 JSON 은 Jackson 에 맡긴다.
+ * 둘 다 버퍼가 찰 때마다 응답 스트림으로 바로 내보내므로 내역이 많아도 응답 전체를 byte[] 로 만들지 않는다.
+ *
+ * 그 외 타입(요약, 페이지, 이체 결과 등)은 canWrite 가 false 라 기존 Jackson 변환기가 그대로 맡는다.
+ * 에러 응답(ErrorResponse)도 바이너리로는 쓰지 않는다. ApiControllerAdvice 가 항상 JSON 으로 내려주므로
+ * 바이너리를 요청한 클라이언트는 상태 코드를 먼저 보고, 2xx 가 아니면 본문을 JSON 으로 읽어야 한다.
+ */
+public class PointHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public PointHttpMessageConverter(boolean jsonEnabled) {
+        super(jsonEnabled
+                ? new MediaType[]{MediaType.APPLICATION_JSON, PointBinaryFormat.MEDIA_TYPE}
+                : new MediaType[]{PointBinaryFormat.MEDIA_TYPE});
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == UserPoint.class || clazz == PointHistory.class;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (supports(clazz) || isHistoryList(type, clazz)) && canWrite(mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        // 목록은 canWrite(Type, ...) 에서 원소 타입을 확인한 뒤에만 물어본다.
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("포인트 응답 변환기는 읽기를 지원하지 않습니다.", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("포인트 응답 변환기는 읽기를 지원하지 않습니다.", inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        if (isBinary(outputMessage.getHeaders().getContentType())) {
+            if (value instanceof UserPoint userPoint) {
+                PointBinaryFormat.write(userPoint, body);
+            } else if (value instanceof PointHistory pointHistory) {
+                PointBinaryFormat.write(pointHistory, body);
+            } else {
+                PointBinaryFormat.write((Collection<PointHistory>) value, body);
+            }
+            return;
+        }
+        if (value instanceof Collection<?> histories) {
+            PointJsonWriter writer = new PointJsonWriter(body, PointJsonWriter.bufferSizeForHistories(histories.size()));
+            writer.write((Collection<PointHistory>) histories);
+            writer.drain();
+            return;
+        }
+        PointJsonWriter writer = new PointJsonWriter(body, 0);
+        if (value instanceof UserPoint userPoint) {
+            writer.write(userPoint);
+        } else {
+            writer.write((PointHistory) value);
+        }
+        writer.drain();
+    }
+
+    @Override
+    protected Long getContentLength(Object value, MediaType contentType) {
+        if (!isBinary(contentType)) {
+            return null;
+        }
+        if (value instanceof UserPoint) {
+            return (long) PointBinaryFormat.USER_POINT_SIZE;
+        }
+        if (value instanceof PointHistory) {
+            return (long) PointBinaryFormat.POINT_HISTORY_SIZE;
+        }
+        return PointBinaryFormat.historiesSize(((Collection<?>) value).size());
+    }
+
+    private static boolean isBinary(MediaType contentType) {
+        return contentType != null && PointBinaryFormat.MEDIA_TYPE.equalsTypeAndSubtype(contentType);
+    }
+
+    private static boolean isHistoryList(Type type, Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz)
+                && type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getActualTypeArguments()[0] == PointHistory.class;
+    }
+}
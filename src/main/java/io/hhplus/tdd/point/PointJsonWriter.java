@@ -0,0 +1,162 @@
+package io.hhplus.tdd.point;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UserPoint / PointHistory 를 Jackson 과 같은 JSON 으로 바로 바이트에 쓴다.
+ * - 필드 이름과 거래 종류는 미리 만들어둔 바이트를 복사하고, 숫자는 버퍼에 자릿수를 직접 쓴다.
+ *   한 건을 쓸 때 문자열이나 객체를 만들지 않는다.
+ * - 버퍼가 차면 out 으로 내보내므로 내역이 많아도 응답 전체를 메모리에 올리지 않는다.
+ *
+ * 필드 순서는 record 선언 순서로, Jackson 기본 설정의 출력과 같다. 스레드 안전하지 않으며 응답 하나에 하나씩 쓴다.
+ */
+public final class PointJsonWriter implements Flushable {
+
+    // 한 건이 차지할 수 있는 최대 길이. 쓰기 전에 이만큼 비어있지 않으면 먼저 내보낸다.
+    private static final int MAX_RECORD_SIZE = 192;
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private static final byte[] ID = ascii("{\"id\":");
+    private static final byte[] POINT = ascii(",\"point\":");
+    private static final byte[] USER_ID = ascii(",\"userId\":");
+    private static final byte[] AMOUNT = ascii(",\"amount\":");
+    private static final byte[] UPDATE_MILLIS = ascii(",\"updateMillis\":");
+    private static final byte[] LONG_MIN = ascii(Long.toString(Long.MIN_VALUE));
+    private static final byte[][] TYPES = new byte[TransactionType.values().length][];
+
+    static {
+        for (TransactionType type : TransactionType.values()) {
+            TYPES[type.ordinal()] = ascii(",\"type\":\"" + type.name() + "\"");
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public PointJsonWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize 응답이 작으면 작게 잡는다. 한 건 최대 길이보다 작으면 그 길이로 올린다.
+     */
+    public PointJsonWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MAX_RECORD_SIZE)];
+    }
+
+    /**
+     * count 건의 내역 목록에 맞는 버퍼 크기
+     */
+    public static int bufferSizeForHistories(int count) {
+        return (int) Math.min(DEFAULT_BUFFER_SIZE, 2L + (long) count * MAX_RECORD_SIZE);
+    }
+
+    public void write(UserPoint userPoint) throws IOException {
+        ensureRecord();
+        put(ID);
+        putLong(userPoint.id());
+        put(POINT);
+        putLong(userPoint.point());
+        put(UPDATE_MILLIS);
+        putLong(userPoint.updateMillis());
+        buffer[position++] = '}';
+    }
+
+    public void write(PointHistory pointHistory) throws IOException {
+        ensureRecord();
+        put(ID);
+        putLong(pointHistory.id());
+        put(USER_ID);
+        putLong(pointHistory.userId());
+        put(AMOUNT);
+        putLong(pointHistory.amount());
+        put(TYPES[pointHistory.type().ordinal()]);
+        put(UPDATE_MILLIS);
+        putLong(pointHistory.updateMillis());
+        buffer[position++] = '}';
+    }
+
+    /**
+     * JSON 배열로 쓴다.
+     */
+    public void write(Iterable<PointHistory> histories) throws IOException {
+        ensureRecord();
+        buffer[position++] = '[';
+        boolean first = true;
+        for (PointHistory pointHistory : histories) {
+            if (!first) {
+                ensureRecord();
+                buffer[position++] = ',';
+            }
+            write(pointHistory);
+            first = false;
+        }
+        ensureRecord();
+        buffer[position++] = ']';
+    }
+
+    /**
+     * NDJSON 처럼 한 줄에 한 건씩 쓸 때 줄을 바꾼다.
+     */
+    public void newLine() throws IOException {
+        ensureRecord();
+        buffer[position++] = '\n';
+    }
+
+    /**
+     * 버퍼에 쌓인 것을 out 으로 내보낸다. out 자체는 flush 하지 않는다.
+     */
+    public void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void ensureRecord() throws IOException {
+        if (buffer.length - position < MAX_RECORD_SIZE) {
+            drain();
+        }
+    }
+
+    private void put(byte[] bytes) {
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            put(LONG_MIN);
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int end = position + digits;
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,137 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 락 없이 CAS 로 잔액을 바꾸는 메모리 원장
+ * - 잔액은 유저별 AtomicLong 에 primitive long 으로 둔다.
+ * - 충전/사용은 compare-and-set 재시도 루프 안에서 한도(maxPoint)와 잔액 부족을 함께 검사하므로
+ *   동시에 몇 개의 요청이 들어와도 0 미만이나 한도 초과가 될 수 없다.
+ * - UserPointTable 은 원장의 저장 사본이다. 변경이 생기면 dirty 로 표시하고, syncIfDirty 로 최신 잔액만 한 번 저장한다.
+ * - 저장한 뒤 더 바뀌지 않은 계정은 evictIfSynced 로 원장에서 내린다. 다음 요청은 저장 사본에서 잔액을 다시 읽어온다.
+ *   내릴 때 잔액을 RETIRED 로 CAS 하므로, 그 전에 계정을 잡아둔 요청의 CAS 는 실패하고 새 계정으로 다시 시도한다.
+ */
+@Lazy
+@Component
+public class PointLedger {
+
+    // 원장에서 내린 계정의 잔액. 실제 잔액은 0 이상이라 겹치지 않는다.
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * delta 만큼 잔액을 바꾸고 바뀐 잔액을 반환한다.
+     *
+     * @param initialBalance 원장에 처음 들어오는(또는 내렸다가 다시 들어오는) 유저의 잔액을 저장 사본에서 읽어온다.
+     */
+    public long apply(long userId, long delta, long maxPoint, LongSupplier initialBalance) {
+        Account account = accountOf(userId, initialBalance);
+        while (true) {
+            long current = account.balance.get();
+            if (current == RETIRED) {
+                accounts.remove(userId, account);
+                account = accountOf(userId, initialBalance);
+                continue;
+            }
+            long next = current + delta;
+            if (delta > 0 && next > maxPoint) {
+                throw new IllegalStateException("이미 최대 포인트 입니다.");
+            }
+            if (delta < 0 && next < 0) {
+                throw new IllegalStateException("포인트가 부족합니다.");
+            }
+            if (account.balance.compareAndSet(current, next)) {
+                account.dirty.set(true);
+                return next;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 원장에 있는 유저면 잔액을, 없으면 null 을 반환한다.
+     */
+    public Long balanceOf(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            return null;
+        }
+        long balance = account.balance.get();
+        return balance == RETIRED ? null : balance;
+    }
+
+    /**
+     * 마지막 저장 이후 바뀐 적이 있으면 최신 잔액을 writer 로 넘긴다.
+     * 같은 유저에 대한 호출은 직렬화되어 있어야 한다.
+     */
+    public boolean syncIfDirty(long userId, LongConsumer writer) {
+        Account account = accounts.get(userId);
+        if (account == null || !account.dirty.compareAndSet(true, false)) {
+            return false;
+        }
+        long balance = account.balance.get();
+        if (balance == RETIRED) {
+            return false;
+        }
+        try {
+            writer.accept(balance);
+            account.saved = balance;
+            return true;
+        } catch (RuntimeException e) {
+            // 저장에 실패하면 다음 동기화 때 다시 시도한다.
+            account.dirty.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * 마지막으로 저장한 뒤 잔액이 바뀌지 않았으면 원장에서 내린다. 내린 유저는 다시 들어올 때 저장 사본에서 읽어온다.
+     * syncIfDirty 와 같은 방법으로 직렬화된 상태에서 호출한다.
+     */
+    public boolean evictIfSynced(long userId) {
+        Account account = accounts.get(userId);
+        if (account == null || account.dirty.get()) {
+            return false;
+        }
+        // 그 사이 CAS 한 요청이 있으면 잔액이 달라져 실패한다. 바뀌었다가 제자리로 돌아왔다면 저장 사본과 같으므로 내려도 된다.
+        if (!account.balance.compareAndSet(account.saved, RETIRED)) {
+            return false;
+        }
+        accounts.remove(userId, account);
+        return true;
+    }
+
+    public int size() {
+        return accounts.size();
+    }
+
+    private Account accountOf(long userId, LongSupplier initialBalance) {
+        Account account = accounts.get(userId);
+        if (account != null) {
+            return account;
+        }
+        // 내린 계정을 다시 올릴 때는 밖에서 읽은 잔액이 그 사이 저장된 값보다 오래됐을 수 있으므로 computeIfAbsent 안에서 읽는다.
+        // 저장 사본 앞의 캐시가 대부분 바로 응답한다.
+        return accounts.computeIfAbsent(userId, key -> new Account(initialBalance.getAsLong()));
+    }
+
+    private static final class Account {
+        private final AtomicLong balance;
+        private final AtomicBoolean dirty = new AtomicBoolean(false);
+        // 저장 사본에 있는 잔액. 같은 유저의 syncIfDirty/evictIfSynced 는 직렬화되어 있어 그 안에서만 읽고 쓴다.
+        private volatile long saved;
+
+        private Account(long balance) {
+            this.balance = new AtomicLong(balance);
+            this.saved = balance;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 유저별 충전/사용 집계를 쓰기 시점에 갱신한다.
+ * - 누적 합계와 건수는 거래마다 더하기만 하므로 조회는 내역 수와 상관없이 O(1) 이다.
+ * - 일별 집계는 보관 기간(retentionDays) 크기의 링 버퍼에 둔다. 날짜가 바뀌면 가장 오래된 칸을 비워 재사용한다.
+ * - 재시작 시 WAL 에서 복구한 내역이 있으면 그것으로 다시 채운다.
+ */
+@Lazy
+@Component
+public class PointRollup {
+
+    public static final int DEFAULT_RETENTION_DAYS = 90;
+
+    private final ZoneId zone;
+    private final int retentionDays;
+    private final ConcurrentHashMap<Long, UserRollup> rollups = new ConcurrentHashMap<>();
+
+    public PointRollup() {
+        this(ZoneId.systemDefault(), DEFAULT_RETENTION_DAYS);
+    }
+
+    public PointRollup(ZoneId zone, int retentionDays) {
+        if (retentionDays <= 0) {
+            throw new IllegalArgumentException("일별 집계 보관 기간은 0보다 커야 합니다.");
+        }
+        this.zone = zone;
+        this.retentionDays = retentionDays;
+    }
+
+    @Autowired
+    public PointRollup(PointWriteAheadLog pointWriteAheadLog,
+                       @Value("${point.rollup.zone:Asia/Seoul}") String zone,
+                       @Value("${point.rollup.retention-days:" + DEFAULT_RETENTION_DAYS + "}") int retentionDays) {
+        this(ZoneId.of(zone), retentionDays);
+        restore(pointWriteAheadLog.recovered().histories());
+    }
+
+    /**
+     * 반영된 거래 한 건을 집계에 더한다. amount 는 내역과 같이 사용이면 음수다.
+     */
+    public void record(long userId, long amount, TransactionType type, long updateMillis) {
+        long epochDay = Instant.ofEpochMilli(updateMillis).atZone(zone).toLocalDate().toEpochDay();
+        rollups.computeIfAbsent(userId, key -> new UserRollup(retentionDays)).add(amount, type, epochDay);
+    }
+
+    public void restore(List<PointHistory> histories) {
+        for (PointHistory history : histories) {
+            record(history.userId(), history.amount(), history.type(), history.updateMillis());
+        }
+    }
+
+    public PointSummary summaryOf(long userId) {
+        UserRollup rollup = rollups.get(userId);
+        return rollup == null
+                ? new PointSummary(userId, 0L, 0L, 0L, 0L, 0L, 0L, 0L, List.of())
+                : rollup.summary(userId);
+    }
+
+    public int size() {
+        return rollups.size();
+    }
+
+    private static final class UserRollup {
+        private long totalCharged;
+        private long totalUsed;
+        private long chargeCount;
+        private long useCount;
+        private long transferredIn;
+        private long transferredOut;
+        private long expired;
+        // 지금까지 들어온 가장 늦은 날짜. 이 날부터 보관 기간만큼이 일별 집계 범위다.
+        private long latestDay = Long.MIN_VALUE / 2;
+        private final DailyBucket[] buckets;
+
+        UserRollup(int retentionDays) {
+            this.buckets = new DailyBucket[retentionDays];
+        }
+
+        synchronized void add(long amount, TransactionType type, long epochDay) {
+            DailyBucket bucket = bucketOf(epochDay);
+            switch (type) {
+                case CHARGE -> {
+                    totalCharged += amount;
+                    chargeCount++;
+                    if (bucket != null) {
+                        bucket.charged += amount;
+                        bucket.chargeCount++;
+                    }
+                }
+                case USE -> {
+                    totalUsed -= amount;
+                    useCount++;
+                    if (bucket != null) {
+                        bucket.used -= amount;
+                        bucket.useCount++;
+                    }
+                }
+                case TRANSFER_IN -> transferredIn += amount;
+                case TRANSFER_OUT -> transferredOut -= amount;
+                case EXPIRE -> expired -= amount;
+                // 되돌려받은 금액은 받은 이체가 아니라 보낸 이체를 취소한 것이다.
+                case TRANSFER_REFUND -> transferredOut -= amount;
+            }
+        }
+
+        synchronized PointSummary summary(long userId) {
+            List<PointSummary.Daily> daily = new ArrayList<>();
+            for (DailyBucket bucket : buckets) {
+                if (bucket != null && bucket.epochDay > latestDay - buckets.length) {
+                    daily.add(new PointSummary.Daily(LocalDate.ofEpochDay(bucket.epochDay), bucket.charged,
+                            bucket.used, bucket.chargeCount, bucket.useCount));
+                }
+            }
+            daily.sort(Comparator.comparing(PointSummary.Daily::date));
+            return new PointSummary(userId, totalCharged, totalUsed, chargeCount, useCount, transferredIn,
+                    transferredOut, expired, List.copyOf(daily));
+        }
+
+        /**
+         * 날짜의 칸을 찾는다. 보관 기간보다 오래된 날짜면 null (누적 합계에만 반영된다)
+         */
+        private DailyBucket bucketOf(long epochDay) {
+            if (epochDay <= latestDay - buckets.length) {
+                return null;
+            }
+            latestDay = Math.max(latestDay, epochDay);
+            int index = (int) Math.floorMod(epochDay, (long) buckets.length);
+            DailyBucket bucket = buckets[index];
+            if (bucket == null || bucket.epochDay != epochDay) {
+                bucket = new DailyBucket(epochDay);
+                buckets[index] = bucket;
+            }
+            return bucket;
+        }
+    }
+
+    private static final class DailyBucket {
+        private final long epochDay;
+        private long charged;
+        private long used;
+        private long chargeCount;
+        private long useCount;
+
+        DailyBucket(long epochDay) {
+            this.epochDay = epochDay;
+        }
+    }
+}
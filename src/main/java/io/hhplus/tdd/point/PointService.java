@@ -1,91 +1,289 @@
 package io.hhplus.tdd.point;
 
+import io.hhplus.tdd.ErrorResponse;
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.PointDeadlineExceededException;
+import io.hhplus.tdd.concurrent.PointOverloadedException;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryStore;
 import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointTransferJournal;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointStore;
 import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.metrics.PointMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 
+/**
+ * 포인트 충전/사용/이체 요청의 입력값을 검증하고 조회를 처리한다.
+ * 잔액을 바꾸는 일(순서 보장, 쓰기 모드별 반영, WAL/내역 기록, fsync 대기)은 PointWritePipeline 에 맡긴다.
+ */
+@Lazy
 @Service
 public class PointService {
 
-    private final PointHistoryTable pointHistoryTable;
-    private final UserPointTable userPointTable;
-
-    private final ConcurrentHashMap<Long, Object> userLocks = new ConcurrentHashMap<>();
+    private final PointHistoryStore pointHistoryStore;
+    private final PointRollup pointRollup;
+    private final PointMetrics pointMetrics;
+    private final PointWritePipeline pointWritePipeline;
 
 
     public PointService(PointHistoryTable pointHistoryTable, UserPointTable userPointTable) {
-        this.pointHistoryTable = pointHistoryTable;
-        this.userPointTable = userPointTable;
+        this(new PointHistoryIndex(pointHistoryTable), new UserPointCache(userPointTable), new UserMailboxExecutor(),
+                PointWriteMode.SERIAL, 0L, 1);
+    }
+
+    public PointService(PointHistoryStore pointHistoryStore, UserPointStore userPointStore,
+                        UserMailboxExecutor userMailboxExecutor, PointWriteMode writeMode,
+                        long groupCommitWindowMillis, int groupCommitMaxBatchSize) {
+        this(pointHistoryStore, new PointRollup(), PointMetrics.standalone(), userPointStore, userMailboxExecutor,
+                writeMode, groupCommitWindowMillis, groupCommitMaxBatchSize);
+    }
+
+    private PointService(PointHistoryStore pointHistoryStore, PointRollup pointRollup, PointMetrics pointMetrics,
+                         UserPointStore userPointStore, UserMailboxExecutor userMailboxExecutor,
+                         PointWriteMode writeMode, long groupCommitWindowMillis, int groupCommitMaxBatchSize) {
+        this(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryStore), userPointStore, userMailboxExecutor,
+                new StripedLockManager(), new PointLedger(), pointMetrics, new PointWriteAheadLog(), pointRollup,
+                PointExpiration.disabled(), new PointStreamHub(), PointAdmission.unlimited(),
+                writeMode, groupCommitWindowMillis, groupCommitMaxBatchSize));
+    }
+
+    /**
+     * @param pointRollup        쓰기 경로가 갱신하는 집계. pointWritePipeline 에 넘긴 것과 같은 인스턴스여야 한다.
+     * @param pointWritePipeline 잔액을 바꾸는 모든 요청이 거치는 쓰기 경로
+     */
+    @Autowired
+    public PointService(PointHistoryStore pointHistoryStore, PointRollup pointRollup, PointMetrics pointMetrics,
+                        PointWritePipeline pointWritePipeline) {
+        this.pointHistoryStore = pointHistoryStore;
+        this.pointRollup = pointRollup;
+        this.pointMetrics = pointMetrics;
+        this.pointWritePipeline = pointWritePipeline;
     }
     public long MAX_POINT = 10000L;
+    public static final int MAX_PAGE_SIZE = 1000;
 
     public long searchRestPoints(long id) {
-        return userPointTable.selectById(id).point();
+        return pointMetrics.time("searchRestPoints", () -> restPoints(id));
+    }
+
+    private long restPoints(long id) {
+        return pointWritePipeline.restPoints(id);
     }
 
     public PointHistory[] searchPointhistory(long id) {
-        return pointHistoryTable.selectAllByUserId(id).toArray(new PointHistory[0]);
+        return searchPointhistory(id, false);
+    }
+
+    /**
+     * consistent 가 true 면 비동기로 저장 중인 내역과, LEDGER 모드에서 응답 뒤에 남기는 내역까지 반영된 뒤 조회한다.
+     */
+    public PointHistory[] searchPointhistory(long id, boolean consistent) {
+        return pointMetrics.time("searchPointhistory", () -> {
+            if (consistent) {
+                pointWritePipeline.awaitFlushed(id);
+            }
+            return pointHistoryStore.selectAllByUserId(id).toArray(new PointHistory[0]);
+        });
+    }
+
+    /**
+     * updateMillis 가 fromMillis 이상 toMillis 미만인 내역을 시각 순서로 조회한다. type 이 null 이면 모든 거래 종류를 조회한다.
+     * 유저의 시각 인덱스에서 시작 위치를 이진 탐색하므로 전체 내역을 읽지 않는다.
+     */
+    public PointHistory[] searchPointhistory(long id, long fromMillis, long toMillis, TransactionType type,
+                                             boolean consistent) {
+        if (fromMillis > toMillis) {
+            throw new IllegalStateException("조회 시작 시각이 종료 시각보다 늦을 수 없습니다.");
+        }
+        return pointMetrics.time("searchPointhistoryRange", () -> {
+            if (consistent) {
+                pointWritePipeline.awaitFlushed(id);
+            }
+            return pointHistoryStore.selectByTimeRange(id, fromMillis, toMillis, type).toArray(new PointHistory[0]);
+        });
+    }
+
+    /**
+     * cursor(내역 id) 이후의 내역을 최대 limit 건 조회한다. cursor 가 0 이면 처음부터 조회한다.
+     */
+    public PointHistoryPage searchPointhistoryPage(long id, long cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalStateException("조회 건수는 1 ~ " + MAX_PAGE_SIZE + " 사이여야 합니다.");
+        }
+        // 한 건 더 읽어 다음 페이지가 있는지 판단한다.
+        List<PointHistory> rows = pointMetrics.time("searchPointhistoryPage",
+                () -> pointHistoryStore.selectPage(id, cursor, limit + 1));
+        if (rows.size() <= limit) {
+            return new PointHistoryPage(rows, null);
+        }
+        List<PointHistory> page = rows.subList(0, limit);
+        return new PointHistoryPage(List.copyOf(page), page.get(limit - 1).id());
+    }
+
+    /**
+     * 유저의 누적 충전/사용 합계와 일별 집계를 조회한다. 쓰기 때마다 갱신해둔 값을 읽으므로 내역을 훑지 않는다.
+     */
+    public PointSummary searchPointSummary(long id) {
+        return pointMetrics.time("searchPointSummary", () -> pointRollup.summaryOf(id));
     }
 
      public long chargePoints(long id, long amount,long time) {
+         return await(chargePointsAsync(id, amount, time));
+     }
 
-         if(!isChargeable(id,amount)){
-             throw new IllegalStateException("이미 최대 포인트 입니다.");
-         }
+     public CompletableFuture<Long> chargePointsAsync(long id, long amount,long time) {
+         return pointWritePipeline.admitted("charge", id, permit -> charge(id, amount, time, permit));
+     }
+
+     private CompletableFuture<Long> charge(long id, long amount,long time, PointAdmission.Permit permit) {
 
          if(amount <= 0){
-             throw new IllegalStateException("0원은 충전할 수 없습니다.");
+             return CompletableFuture.failedFuture(new IllegalStateException("0원은 충전할 수 없습니다."));
          }
 
-         return executeWithLock(id, () -> updatePoint(id, amount, TransactionType.CHARGE, time));
+         return pointWritePipeline.submit("charge", id, amount, TransactionType.CHARGE, time, MAX_POINT, permit);
      }
 
      public long usePoints(long id, long amount,long time) {
+         return await(usePointsAsync(id, amount, time));
+     }
 
-         if(!isAvailable(id,amount)){
-             throw new IllegalStateException("포인트가 부족합니다.");
-         }
+     public CompletableFuture<Long> usePointsAsync(long id, long amount,long time) {
+         return pointWritePipeline.admitted("use", id, permit -> use(id, amount, time, permit));
+     }
+
+     private CompletableFuture<Long> use(long id, long amount,long time, PointAdmission.Permit permit) {
 
          if(amount <= 0){
-             throw new IllegalStateException("사용할 포인트 입력 필수");
+             return CompletableFuture.failedFuture(new IllegalStateException("사용할 포인트 입력 필수"));
          }
 
-        return executeWithLock(id, () -> updatePoint(id, -amount, TransactionType.USE, time));
+         return pointWritePipeline.submit("use", id, -amount, TransactionType.USE, time, MAX_POINT, permit);
      }
 
-     public long updatePoint(long id,long amount,TransactionType type,long time) {
-         userPointTable.insertOrUpdate(id,searchRestPoints(id) + amount);
-         pointHistoryTable.insert(id,amount,type,time);
+     /**
+      * 여러 유저의 충전/사용을 한 번에 처리한다.
+      * 요청 순서대로 각 유저의 메일박스에 넣으므로 같은 유저끼리는 순서가 유지되고, 다른 유저끼리는 워커 풀에서 병렬로 처리된다.
+      * 한 건이 실패해도 나머지는 계속 진행하고, 결과는 요청 순서대로 돌려준다.
+      */
+     public PointBatchResponse executeBatch(List<PointBatchOperation> operations) {
+         return executeBatch(operations, userId -> this);
+     }
 
-         return searchRestPoints(id);
+     /**
+      * 샤드 모드에서는 유저마다 담당 PointService 가 다르므로 serviceOf 로 찾아 넣는다.
+      */
+     public PointBatchResponse executeBatch(List<PointBatchOperation> operations, LongFunction<PointService> serviceOf) {
+         return pointMetrics.time("batch", () -> batch(operations, serviceOf));
+     }
+
+     private PointBatchResponse batch(List<PointBatchOperation> operations, LongFunction<PointService> serviceOf) {
+         long startNanos = System.nanoTime();
+         List<CompletableFuture<Long>> futures = new ArrayList<>(operations.size());
+         for (PointBatchOperation operation : operations) {
+             futures.add(serviceOf.apply(operation.userId())
+                     .submitBatchOperation(operation, System.currentTimeMillis()));
+         }
+
+         List<PointBatchResult> results = new ArrayList<>(operations.size());
+         int successCount = 0;
+         for (int i = 0; i < operations.size(); i++) {
+             PointBatchOperation operation = operations.get(i);
+             try {
+                 results.add(PointBatchResult.success(i, operation, await(futures.get(i))));
+                 successCount++;
+             } catch (IllegalStateException e) {
+                 results.add(PointBatchResult.failure(i, operation, new ErrorResponse("400", e.getMessage())));
+             } catch (PointOverloadedException e) {
+                 results.add(PointBatchResult.failure(i, operation, new ErrorResponse("429", e.getMessage())));
+             } catch (PointDeadlineExceededException e) {
+                 results.add(PointBatchResult.failure(i, operation, new ErrorResponse("503", e.getMessage())));
+             } catch (RuntimeException e) {
+                 results.add(PointBatchResult.failure(i, operation, new ErrorResponse("500", "에러가 발생했습니다.")));
+             }
+         }
+         long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+         return new PointBatchResponse(results, successCount, results.size() - successCount, elapsedMillis);
+     }
+
+     private CompletableFuture<Long> submitBatchOperation(PointBatchOperation operation, long time) {
+         if (operation.type() == null) {
+             return CompletableFuture.failedFuture(new IllegalStateException("거래 종류 입력 필수"));
+         }
+         return switch (operation.type()) {
+             case CHARGE -> chargePointsAsync(operation.userId(), operation.amount(), time);
+             case USE -> usePointsAsync(operation.userId(), operation.amount(), time);
+             case TRANSFER_OUT, TRANSFER_IN, TRANSFER_REFUND -> CompletableFuture.failedFuture(
+                     new IllegalStateException("일괄 처리에서는 이체를 할 수 없습니다."));
+             case EXPIRE -> CompletableFuture.failedFuture(
+                     new IllegalStateException("만료는 직접 요청할 수 없습니다."));
+         };
+     }
+
+     /**
+      * from 의 포인트 amount 를 to 로 옮긴다.
+      * 두 유저의 메일박스 차례를 잡은 한 구간 안에서 잔액/한도를 모두 확인한 뒤 두 잔액과 두 내역을 쓰므로
+      * 한쪽만 반영되는 일이 없다. WAL 을 쓰면 두 쪽이 모두 디스크에 남은 뒤에 응답한다.
+      * 두 유저 모두 입장 제한을 통과해야 하고, 차례가 왔을 때 마감이 지났으면 아무것도 반영하지 않는다.
+      */
+     public PointTransferResult transfer(long from, long to, long amount, long time) {
+         return transfer(from, this, to, amount, time);
+     }
+
+     /**
+      * to 가 다른 샤드(toService)에 있는 이체. 두 샤드의 메일박스 차례를 모두 잡은 뒤 같은 방법으로 옮긴다.
+      */
+     public PointTransferResult transfer(long from, PointService toService, long to, long amount, long time) {
+         if (amount <= 0) {
+             throw new IllegalStateException("0원은 이체할 수 없습니다.");
+         }
+         if (from == to) {
+             throw new IllegalStateException("자기 자신에게는 이체할 수 없습니다.");
+         }
+         return await(pointWritePipeline.transfer(toService.pointWritePipeline, from, to, amount, time, MAX_POINT));
+     }
+
+     /**
+      * 재시작 전에 이체 journal 에만 남고 이 서비스의 WAL 에는 남지 못한 이체의 한쪽을 반영한다.
+      *
+      * @return 새로 반영했으면 true
+      */
+     boolean redoTransferLeg(PointTransferJournal.Leg leg) {
+         return pointWritePipeline.redoTransferLeg(leg);
      }
 
      public boolean isAvailable(long id,long usage) {
-         return searchRestPoints(id) >= usage;
+         return restPoints(id) >= usage;
      }
 
      public boolean isChargeable(long id,long amount) {
-         return searchRestPoints(id) + amount <= MAX_POINT;
+         return restPoints(id) + amount <= MAX_POINT;
      }
 
-    private long executeWithLock(long id, CriticalOperation critical) {
-        Object lock = userLocks.computeIfAbsent(id, key -> new Object());
-
-        synchronized (lock) {
-            try {
-                return critical.execute();
-            } finally {
-                if (pointHistoryTable.selectAllByUserId(id).isEmpty()) {
-                    userLocks.remove(id);
-                }
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
     }
-
-    @FunctionalInterface
-    private interface CriticalOperation {
-        long execute();
-    }
 }
@@ -0,0 +1,123 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.PointExecutors;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.ColumnarUserPointStore;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryStore;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.database.PointTransferJournal;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.metrics.PointMetrics;
+
+import java.util.function.Function;
+
+/**
+ * 유저 일부를 전담하는 PointService 한 벌
+ * - 테이블, 캐시/인덱스, 메일박스 워커, stripe 락, 원장을 모두 샤드 안에서 새로 만든다.
+ * - 다른 샤드와 공유하는 것은 PointMetrics(레지스트리)뿐이다.
+ * - 내역 writer 는 만드는 쪽이 정한다. point.history.async 를 켜면 샤드마다 writer 스레드를 띄운다.
+ */
+public final class PointShard implements AutoCloseable {
+
+    private final int index;
+    private final PointService pointService;
+    private final UserMailboxExecutor userMailboxExecutor;
+    private final StripedLockManager lockManager;
+    private final UserPointStore userPointStore;
+    private final PointHistoryWriter pointHistoryWriter;
+    private final PointWriteAheadLog pointWriteAheadLog;
+    private final PointExpiration pointExpiration;
+
+    public PointShard(int index, PointStoreType storeType, int workerThreads, boolean virtualThreads,
+                      int cacheMaxSize, int lockStripes, PointWriteMode writeMode, long groupCommitWindowMillis,
+                      int groupCommitMaxBatchSize, PointMetrics pointMetrics) {
+        this(index, storeType, workerThreads, virtualThreads, cacheMaxSize, lockStripes, writeMode,
+                groupCommitWindowMillis, groupCommitMaxBatchSize, pointMetrics, new PointWriteAheadLog(),
+                new PointTransferJournal(), new PointRollup(), PointExpiration.disabled(), new PointStreamHub(),
+                PointAdmission.unlimited(), PointHistoryWriter::new);
+    }
+
+    /**
+     * @param pointWriteAheadLog   이 샤드 전용 WAL. 복구된 잔액/내역은 샤드 저장소와 집계에 채운다.
+     * @param pointTransferJournal 이체 journal. 다른 샤드로 보내는 이체도 기록하므로 모든 샤드가 하나를 같이 쓴다.
+     * @param pointRollup          이 샤드 전용 집계
+     * @param pointExpiration      이 샤드 전용 만료 처리. 샤드의 PointWritePipeline 에 연결된다.
+     * @param pointStreamHub       잔액 변경 구독. 구독은 유저 단위이므로 모든 샤드가 하나를 같이 쓴다.
+     * @param pointAdmission       입장 제한. 전체 한도가 샤드 수와 무관하도록 모든 샤드가 하나를 같이 쓴다.
+     * @param historyWriterFactory 샤드 내역 저장소로 이 샤드 전용 내역 writer 를 만든다. 샤드를 닫을 때 같이 닫는다.
+     */
+    public PointShard(int index, PointStoreType storeType, int workerThreads, boolean virtualThreads,
+                      int cacheMaxSize, int lockStripes, PointWriteMode writeMode, long groupCommitWindowMillis,
+                      int groupCommitMaxBatchSize, PointMetrics pointMetrics, PointWriteAheadLog pointWriteAheadLog,
+                      PointTransferJournal pointTransferJournal, PointRollup pointRollup,
+                      PointExpiration pointExpiration, PointStreamHub pointStreamHub, PointAdmission pointAdmission,
+                      Function<PointHistoryStore, PointHistoryWriter> historyWriterFactory) {
+        PointHistoryStore pointHistoryStore = storeType == PointStoreType.COLUMNAR
+                ? new ColumnarPointHistoryStore() : new PointHistoryIndex(new PointHistoryTable(), pointMetrics);
+        UserPointStore userPointStore = storeType == PointStoreType.COLUMNAR
+                ? new ColumnarUserPointStore() : new UserPointCache(new UserPointTable(), cacheMaxSize, pointMetrics);
+        pointWriteAheadLog.recovered().balances().forEach(userPointStore::restore);
+        pointHistoryStore.restore(pointWriteAheadLog.recovered().histories());
+        pointRollup.restore(pointWriteAheadLog.recovered().histories());
+        pointExpiration.restore(pointWriteAheadLog.recovered().histories());
+
+        this.index = index;
+        this.userMailboxExecutor = new UserMailboxExecutor(
+                PointExecutors.newWorkerPool("point-shard-" + index + "-", workerThreads, virtualThreads),
+                UserMailboxExecutor.DEFAULT_DRAIN_BATCH_SIZE);
+        this.lockManager = new StripedLockManager(lockStripes);
+        this.userPointStore = userPointStore;
+        this.pointHistoryWriter = historyWriterFactory.apply(pointHistoryStore);
+        this.pointWriteAheadLog = pointWriteAheadLog;
+        this.pointExpiration = pointExpiration;
+        this.pointService = new PointService(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                pointHistoryWriter, userPointStore, userMailboxExecutor, lockManager, new PointLedger(), pointMetrics,
+                pointWriteAheadLog, pointTransferJournal, pointRollup, pointExpiration, pointStreamHub, pointAdmission,
+                writeMode, groupCommitWindowMillis, groupCommitMaxBatchSize));
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public PointService pointService() {
+        return pointService;
+    }
+
+    public UserMailboxExecutor userMailboxExecutor() {
+        return userMailboxExecutor;
+    }
+
+    public StripedLockManager lockManager() {
+        return lockManager;
+    }
+
+    public UserPointStore userPointStore() {
+        return userPointStore;
+    }
+
+    public PointHistoryWriter pointHistoryWriter() {
+        return pointHistoryWriter;
+    }
+
+    public PointExpiration pointExpiration() {
+        return pointExpiration;
+    }
+
+    @Override
+    public void close() {
+        pointExpiration.close();
+        userMailboxExecutor.close();
+        pointHistoryWriter.close();
+        pointWriteAheadLog.close();
+    }
+}
@@ -0,0 +1,80 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.database.PointTransferJournal;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.metrics.PointMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * point.shard.count 설정에 따라 PointShardRouter 를 만든다.
+ * 샤드가 여럿이면 캐시 크기와 락 stripe 수는 샤드 수로 나눠 전체 합이 단일 모드와 비슷하게 둔다.
+ * WAL 을 켜면 샤드마다 {directory}/shard-{n} 에 따로 기록하고 복구한다. 이체 journal 은 {directory} 에 하나를 두고 같이 쓴다.
+ * 내역 비동기 저장(point.history.async)을 켜면 샤드마다 writer 를 두고, writer 스레드 수도 샤드 수로 나눈다.
+ * 샤드가 여럿이면 기본 PointService 와 그 구성요소(WAL, 메일박스 워커, 내역 writer 등)는 만들지 않는다. 모두 지연 초기화 빈이다.
+ */
+@Configuration
+public class PointShardConfiguration {
+
+    @Bean
+    public PointShardRouter pointShardRouter(ObjectProvider<PointService> pointService,
+                                             PointTransferJournal pointTransferJournal,
+                                             PointMetrics pointMetrics, PointStreamHub pointStreamHub,
+                                             PointAdmission pointAdmission,
+                                             @Value("${point.shard.count:1}") int shardCount,
+                                             @Value("${point.shard.worker-threads:4}") int workerThreads,
+                                             @Value("${point.execution.virtual-threads:false}") boolean virtualThreads,
+                                             @Value("${point.store:TABLE}") PointStoreType storeType,
+                                             @Value("${point.cache.max-size:10000}") int cacheMaxSize,
+                                             @Value("${point.lock.stripes:1024}") int lockStripes,
+                                             @Value("${point.write.mode:SERIAL}") PointWriteMode writeMode,
+                                             @Value("${point.write.group-commit.window-millis:5}") long groupCommitWindowMillis,
+                                             @Value("${point.write.group-commit.max-batch-size:32}") int groupCommitMaxBatchSize,
+                                             @Value("${point.wal.enabled:false}") boolean walEnabled,
+                                             @Value("${point.wal.directory:data/wal}") String walDirectory,
+                                             @Value("${point.wal.segment-size-mb:64}") int walSegmentSizeMb,
+                                             @Value("${point.wal.fsync-window-millis:2}") long walFsyncWindowMillis,
+                                             @Value("${point.wal.snapshot-interval:100000}") long walSnapshotInterval,
+                                             @Value("${point.wal.restore-history:false}") boolean walRestoreHistory,
+                                             @Value("${point.history.async.enabled:false}") boolean historyAsync,
+                                             @Value("${point.history.async.writer-threads:4}") int historyWriterThreads,
+                                             @Value("${point.history.async.queue-capacity:10000}") int historyQueueCapacity,
+                                             @Value("${point.history.async.overflow-policy:BLOCK}") PointHistoryWriter.OverflowPolicy historyOverflowPolicy,
+                                             @Value("${point.rollup.zone:Asia/Seoul}") String rollupZone,
+                                             @Value("${point.rollup.retention-days:90}") int rollupRetentionDays,
+                                             @Value("${point.expiration.ttl-days:0}") long expirationTtlDays,
+                                             @Value("${point.expiration.tick-millis:1000}") long expirationTickMillis) {
+        if (shardCount <= 1) {
+            return new PointShardRouter(pointService.getObject(), pointTransferJournal);
+        }
+        List<PointShard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            PointWriteAheadLog pointWriteAheadLog = walEnabled
+                    ? new PointWriteAheadLog(Path.of(walDirectory, "shard-" + i),
+                    PointWriteAheadLog.segmentSize(walSegmentSizeMb), walFsyncWindowMillis, walSnapshotInterval,
+                    walRestoreHistory)
+                    : new PointWriteAheadLog();
+            shards.add(new PointShard(i, storeType, workerThreads, virtualThreads,
+                    Math.max(1, cacheMaxSize / shardCount), Math.max(1, lockStripes / shardCount), writeMode,
+                    groupCommitWindowMillis, groupCommitMaxBatchSize, pointMetrics, pointWriteAheadLog,
+                    pointTransferJournal, new PointRollup(ZoneId.of(rollupZone), rollupRetentionDays),
+                    new PointExpiration(TimeUnit.DAYS.toMillis(expirationTtlDays), expirationTickMillis, true),
+                    pointStreamHub, pointAdmission,
+                    pointHistoryStore -> new PointHistoryWriter(pointHistoryStore, pointMetrics, historyAsync,
+                            Math.max(1, historyWriterThreads / shardCount), historyQueueCapacity,
+                            historyOverflowPolicy)));
+        }
+        return new PointShardRouter(shards, pointTransferJournal);
+    }
+}
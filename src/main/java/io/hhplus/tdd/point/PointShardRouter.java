@@ -0,0 +1,121 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.database.PointTransferJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * 유저 id 를 해시해 담당 PointService 로 보낸다.
+ * - 샤드가 하나면 스프링이 만든 PointService 를 그대로 쓴다.
+ * - 샤드가 여럿이면 같은 유저는 항상 같은 샤드로 가므로, 유저별 순서 보장은 샤드 안의 메일박스가 그대로 맡는다.
+ * - 샤드 수는 실행 중에 바뀌지 않는다. 바꾸면 유저가 다른 샤드로 옮겨가므로 WAL 로 복구해도 잔액이 이어지지 않는다.
+ * - 이체는 두 유저가 다른 샤드에 있어도 두 메일박스의 차례를 모두 잡은 한 구간에서 처리한다.
+ *   WAL 을 쓰면 모든 샤드가 이체 journal 하나를 같이 쓰고, 만들 때 journal 에만 남은 이체의 나머지 쪽을 담당 샤드에 반영한다.
+ */
+public class PointShardRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PointShardRouter.class);
+
+    private final PointService[] services;
+    private final List<PointShard> shards;
+
+    public PointShardRouter(PointService pointService) {
+        this(pointService, new PointTransferJournal());
+    }
+
+    /**
+     * @param pointTransferJournal pointService 의 쓰기 경로가 쓰는 이체 journal
+     */
+    public PointShardRouter(PointService pointService, PointTransferJournal pointTransferJournal) {
+        this.services = new PointService[]{pointService};
+        this.shards = List.of();
+        recoverTransfers(pointTransferJournal);
+    }
+
+    public PointShardRouter(List<PointShard> shards) {
+        this(shards, new PointTransferJournal());
+    }
+
+    /**
+     * @param pointTransferJournal 모든 샤드가 같이 쓰는 이체 journal
+     */
+    public PointShardRouter(List<PointShard> shards, PointTransferJournal pointTransferJournal) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("샤드는 하나 이상이어야 합니다.");
+        }
+        this.shards = List.copyOf(shards);
+        this.services = shards.stream().map(PointShard::pointService).toArray(PointService[]::new);
+        recoverTransfers(pointTransferJournal);
+    }
+
+    public PointService route(long userId) {
+        return services[shardOf(userId)];
+    }
+
+    /**
+     * 연속된 id 가 한 샤드에 몰리지 않도록 곱셈 해시로 섞은 뒤 나머지를 구한다.
+     */
+    public int shardOf(long userId) {
+        if (services.length == 1) {
+            return 0;
+        }
+        long hash = userId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) services.length);
+    }
+
+    public int shardCount() {
+        return services.length;
+    }
+
+    public List<PointShard> shards() {
+        return shards;
+    }
+
+    /**
+     * 배치는 여러 샤드에 걸칠 수 있으므로 건마다 담당 샤드에 넣고 결과만 모은다.
+     */
+    public PointBatchResponse executeBatch(List<PointBatchOperation> operations) {
+        if (services.length == 1) {
+            return services[0].executeBatch(operations);
+        }
+        return services[0].executeBatch(operations, this::route);
+    }
+
+    /**
+     * 두 유저가 같은 샤드면 그 샤드에서, 다르면 보내는 쪽 샤드가 받는 쪽 샤드의 메일박스 차례까지 잡아 한 번에 옮긴다.
+     */
+    public PointTransferResult transfer(long from, long to, long amount, long time) {
+        PointService fromService = route(from);
+        PointService toService = route(to);
+        if (fromService == toService) {
+            return fromService.transfer(from, to, amount, time);
+        }
+        return fromService.transfer(from, toService, to, amount, time);
+    }
+
+    /**
+     * 재시작 전에 journal 에만 남은 이체를 마저 반영한다. 요청을 받기 전에 부른다.
+     */
+    private void recoverTransfers(PointTransferJournal pointTransferJournal) {
+        List<PointTransferJournal.Pending> pending = pointTransferJournal.pending();
+        int redone = 0;
+        for (PointTransferJournal.Pending transfer : pending) {
+            for (PointTransferJournal.Leg leg : List.of(transfer.from(), transfer.to())) {
+                if (route(leg.userId()).redoTransferLeg(leg)) {
+                    redone++;
+                }
+            }
+        }
+        pointTransferJournal.resolved();
+        if (!pending.isEmpty()) {
+            log.info("이체 journal 복구 완료 pending={} redone={}", pending.size(), redone);
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(PointShard::close);
+    }
+}
@@ -0,0 +1,306 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.concurrent.PointExecutors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 잔액 변경을 SSE 구독자에게 나눠 보낸다.
+ * - 구독은 유저 한 명(/point/{id}/stream) 또는 전체 유저(/point/stream) 단위다.
+ * - 잔액이 저장될 때마다 publish 되지만, 구독자가 없으면 카운터 하나만 읽고 돌아간다.
+ * - 구독자마다 유저 id 별 최신 잔액만 담는 버퍼를 둔다. 보내기 전에 같은 유저가 또 바뀌면 덮어쓰고(coalesce),
+ *   서로 다른 유저가 bufferSize 를 넘게 쌓이면 가장 오래된 것부터 버린다(drop). 잔액은 최신 값만 의미가 있으므로 순서 대신 최신을 택한다.
+ * - 전송은 dispatch 스레드 풀에서 한다. 구독자당 스레드를 쓰지 않고, 버퍼도 보낼 것이 있을 때만 만든다.
+ * - heartbeat 주기마다 주석 한 줄을 보내 끊긴 연결을 정리한다.
+ */
+@Component
+public class PointStreamHub implements AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64;
+
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> userSubscribers = new ConcurrentHashMap<>();
+    private final Set<Subscriber> allSubscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public PointStreamHub() {
+        this(DEFAULT_BUFFER_SIZE, 0L, 0L, 1, false);
+    }
+
+    @Autowired
+    public PointStreamHub(@Value("${point.stream.buffer-size:" + DEFAULT_BUFFER_SIZE + "}") int bufferSize,
+                          @Value("${point.stream.timeout-millis:1800000}") long timeoutMillis,
+                          @Value("${point.stream.heartbeat-millis:15000}") long heartbeatMillis,
+                          @Value("${point.stream.dispatch-threads:2}") int dispatchThreads,
+                          @Value("${point.execution.virtual-threads:false}") boolean virtualThreads) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("구독자 버퍼 크기는 0보다 커야 합니다.");
+        }
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        // 고정 풀의 스레드는 첫 전송 때 만들어지므로 구독자가 없으면 비용이 없다.
+        this.dispatcher = PointExecutors.newWorkerPool("point-stream-", dispatchThreads, virtualThreads);
+        if (heartbeatMillis > 0) {
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "point-stream-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeat.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.heartbeat = null;
+        }
+    }
+
+    /**
+     * 유저 한 명의 잔액 변경을 구독한다.
+     */
+    public SseEmitter subscribe(long userId) {
+        return register(new Subscriber(userId, newEmitter()));
+    }
+
+    /**
+     * 모든 유저의 잔액 변경을 구독한다. (내부 소비자용)
+     */
+    public SseEmitter subscribeAll() {
+        return register(new Subscriber(null, newEmitter()));
+    }
+
+    /**
+     * 구독 직후의 현재 잔액을 보낸다. 그 사이 더 최신 변경이 들어왔다면 보내지 않는다.
+     */
+    public void sendInitial(SseEmitter emitter, UserPoint userPoint) {
+        for (Subscriber subscriber : userSubscribers.getOrDefault(userPoint.id(), Set.of())) {
+            if (subscriber.emitter == emitter) {
+                subscriber.offerInitial(userPoint);
+            }
+        }
+    }
+
+    /**
+     * 잔액이 저장된 뒤 호출된다. 구독자 버퍼에 넣기만 하고 전송은 기다리지 않는다.
+     */
+    public void publish(long userId, long point, long updateMillis) {
+        if (connections.get() == 0) {
+            return;
+        }
+        published.increment();
+        Set<Subscriber> subscribers = userSubscribers.get(userId);
+        if (subscribers == null && allSubscribers.isEmpty()) {
+            return;
+        }
+        UserPoint userPoint = new UserPoint(userId, point, updateMillis);
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(userPoint));
+        }
+        allSubscribers.forEach(subscriber -> subscriber.offer(userPoint));
+    }
+
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long deliveredCount() {
+        return delivered.sum();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        dispatcher.shutdownNow();
+        List<Subscriber> subscribers = new ArrayList<>(allSubscribers);
+        userSubscribers.values().forEach(subscribers::addAll);
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    protected SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private SseEmitter register(Subscriber subscriber) {
+        subscriber.emitter.onCompletion(() -> unregister(subscriber));
+        subscriber.emitter.onTimeout(() -> unregister(subscriber));
+        subscriber.emitter.onError(e -> unregister(subscriber));
+        if (subscriber.userId == null) {
+            allSubscribers.add(subscriber);
+        } else {
+            // 해제하면서 빈 집합을 지우는 unregister 와 겹쳐도 사라진 집합에 넣지 않도록 compute 안에서 넣는다.
+            userSubscribers.compute(subscriber.userId, (key, subscribers) -> {
+                Set<Subscriber> target = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+                target.add(subscriber);
+                return target;
+            });
+        }
+        connections.incrementAndGet();
+        return subscriber.emitter;
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscriber.userId == null) {
+            allSubscribers.remove(subscriber);
+        } else {
+            userSubscribers.computeIfPresent(subscriber.userId, (key, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        connections.decrementAndGet();
+    }
+
+    private void sendHeartbeats() {
+        allSubscribers.forEach(Subscriber::offerHeartbeat);
+        userSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::offerHeartbeat));
+    }
+
+    private final class Subscriber {
+        // null 이면 전체 유저 구독
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // 아래 필드는 this 로 보호한다. 버퍼는 보낼 것이 생길 때 만들고 다 보내면 놓는다.
+        private LinkedHashMap<Long, UserPoint> pending;
+        private boolean heartbeatDue;
+        private boolean received;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(UserPoint userPoint) {
+            synchronized (this) {
+                received = true;
+                if (pending == null) {
+                    pending = new LinkedHashMap<>(4);
+                }
+                // 지우고 다시 넣어야 순서상 맨 뒤(가장 최근)로 간다.
+                if (pending.remove(userPoint.id()) != null) {
+                    coalesced.increment();
+                } else if (pending.size() >= bufferSize) {
+                    Iterator<Long> eldest = pending.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    dropped.increment();
+                }
+                pending.put(userPoint.id(), userPoint);
+            }
+            schedule();
+        }
+
+        void offerInitial(UserPoint userPoint) {
+            synchronized (this) {
+                if (received) {
+                    return;
+                }
+            }
+            offer(userPoint);
+        }
+
+        void offerHeartbeat() {
+            synchronized (this) {
+                heartbeatDue = true;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        /**
+         * 쌓인 것을 모두 보낸다. 보내는 동안 들어온 것은 다음 차례에 보낸다.
+         */
+        private void drain() {
+            while (true) {
+                Map<Long, UserPoint> batch;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    batch = pending;
+                    sendHeartbeat = heartbeatDue;
+                    pending = null;
+                    heartbeatDue = false;
+                    if (batch == null && !sendHeartbeat) {
+                        scheduled.set(false);
+                        return;
+                    }
+                }
+                try {
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    if (batch != null) {
+                        for (UserPoint userPoint : batch.values()) {
+                            emitter.send(SseEmitter.event()
+                                    .name("point")
+                                    .id(String.valueOf(userPoint.updateMillis()))
+                                    .data(userPoint, MediaType.APPLICATION_JSON));
+                            delivered.increment();
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // 끊긴 연결. 남은 것은 버리고 구독을 정리한다.
+                    unregister(this);
+                    emitter.completeWithError(e);
+                    scheduled.set(false);
+                    return;
+                }
+            }
+        }
+    }
+}
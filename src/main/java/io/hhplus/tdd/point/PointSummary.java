@@ -0,0 +1,33 @@
+package io.hhplus.tdd.point;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 유저별 포인트 집계
+ * - totalCharged / totalUsed : 지금까지 충전/사용한 포인트 합 (사용도 양수)
+ * - totalTransferredIn / totalTransferredOut : 이체로 받은/보낸 포인트 합. 일별 집계에는 넣지 않는다.
+ * - totalExpired : 보관 기간이 지나 소멸된 포인트 합 (양수). 일별 집계에는 넣지 않는다.
+ * - daily : 최근 보관 기간 안의 일별 집계, 날짜 오름차순. 거래가 없던 날은 빠진다.
+ */
+public record PointSummary(
+        long userId,
+        long totalCharged,
+        long totalUsed,
+        long chargeCount,
+        long useCount,
+        long totalTransferredIn,
+        long totalTransferredOut,
+        long totalExpired,
+        List<Daily> daily
+) {
+
+    public record Daily(
+            LocalDate date,
+            long charged,
+            long used,
+            long chargeCount,
+            long useCount
+    ) {
+    }
+}
@@ -0,0 +1,10 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 이체 요청. 보내는 유저는 경로의 id 다.
+ */
+public record PointTransferRequest(
+        long toUserId,
+        long amount
+) {
+}
@@ -0,0 +1,13 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 이체 결과. 두 유저의 이체 직후 잔액을 담는다.
+ */
+public record PointTransferResult(
+        long fromUserId,
+        long fromPoint,
+        long toUserId,
+        long toPoint,
+        long amount
+) {
+}
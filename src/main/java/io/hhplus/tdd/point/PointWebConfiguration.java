@@ -0,0 +1,33 @@
+package io.hhplus.tdd.point;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 포인트 응답 변환기(PointHttpMessageConverter)를 등록한다.
+ * Jackson 변환기보다 앞에 둬야 UserPoint / PointHistory 의 application/json 을 먼저 맡는다.
+ * point.wire.fast-json 을 끄면 바이너리만 맡고 JSON 은 Jackson 으로 쓴다. 이때는 맨 뒤에 둬서
+ * Accept 를 주지 않은 요청이 바이너리로 협상되지 않게 한다.
+ */
+@Configuration
+public class PointWebConfiguration implements WebMvcConfigurer {
+
+    private final boolean fastJson;
+
+    public PointWebConfiguration(@Value("${point.wire.fast-json:true}") boolean fastJson) {
+        this.fastJson = fastJson;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        if (fastJson) {
+            converters.add(0, new PointHttpMessageConverter(true));
+        } else {
+            converters.add(new PointHttpMessageConverter(false));
+        }
+    }
+}
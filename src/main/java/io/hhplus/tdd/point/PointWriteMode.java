@@ -0,0 +1,12 @@
+package io.hhplus.tdd.point;
+
+/**
+ * 포인트 충전/사용 반영 방식
+ * - SERIAL : 요청마다 잔액을 읽고 바로 저장
+ * - GROUP_COMMIT : 같은 유저의 대기 요청을 모아 순서대로 계산한 뒤 최종 잔액만 한 번 저장
+ * - LEDGER : 메모리 원장에서 CAS 로 잔액을 확정하고, 테이블 저장과 내역은 메일박스에서 뒤따라 반영
+ *            (WAL 을 쓰지 않으면 CAS 직후에 응답한다. 내역을 바로 읽어야 하면 consistent 조회를 쓴다.)
+ */
+public enum PointWriteMode {
+    SERIAL, GROUP_COMMIT, LEDGER
+}
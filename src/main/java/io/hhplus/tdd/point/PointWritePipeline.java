@@ -0,0 +1,671 @@
+package io.hhplus.tdd.point;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.PointDeadlineExceededException;
+import io.hhplus.tdd.concurrent.PointOverloadedException;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointTransferJournal;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointStore;
+import io.hhplus.tdd.metrics.PointMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 잔액을 바꾸는 모든 요청이 거치는 쓰기 경로
+ * - 입장 제한 → 유저별 순서 보장(메일박스 + stripe 락) → 잔액 반영 → WAL/내역 기록 → fsync 대기 순서로 처리한다.
+ *   이체도 두 유저의 메일박스 차례를 잡아 같은 순서를 따른다. 유저의 잔액을 바꾸는 쓰기는 모두 그 유저의 메일박스를 거친다.
+ * - 쓰기 모드(SERIAL / GROUP_COMMIT / LEDGER)에 따라 잔액을 반영하는 방법만 다르고, 한도/잔액 검사는 금액의 부호로 같게 한다.
+ * - 만료 차감도 같은 경로로 처리한다. PointExpiration 의 sink 로 연결된다.
+ * - 내역 시각은 반영하는 구간 안에서 찍는다. (stamp)
+ * 입력값 검증과 조회는 PointService 가 맡는다.
+ */
+@Lazy
+@Component
+public class PointWritePipeline {
+
+    private final PointHistoryWriter pointHistoryWriter;
+    private final UserPointStore userPointStore;
+    private final UserMailboxExecutor userMailboxExecutor;
+    private final StripedLockManager lockManager;
+    private final PointLedger pointLedger;
+    private final PointMetrics pointMetrics;
+    private final PointWriteAheadLog pointWriteAheadLog;
+    private final PointTransferJournal pointTransferJournal;
+    private final PointRollup pointRollup;
+    private final PointExpiration pointExpiration;
+    private final PointStreamHub pointStreamHub;
+    private final PointAdmission pointAdmission;
+
+    private final PointWriteMode writeMode;
+    private final long groupCommitWindowMillis;
+    private final int groupCommitMaxBatchSize;
+    private final ConcurrentHashMap<Long, Queue<PendingPoint>> pendingPoints = new ConcurrentHashMap<>();
+
+    /**
+     * 이체 journal 을 쓰지 않는 쓰기 경로. WAL 을 쓰면 이체 도중에 멈췄을 때 한쪽만 남을 수 있다.
+     */
+    public PointWritePipeline(PointHistoryWriter pointHistoryWriter, UserPointStore userPointStore,
+                              UserMailboxExecutor userMailboxExecutor, StripedLockManager lockManager,
+                              PointLedger pointLedger, PointMetrics pointMetrics, PointWriteAheadLog pointWriteAheadLog,
+                              PointRollup pointRollup, PointExpiration pointExpiration, PointStreamHub pointStreamHub,
+                              PointAdmission pointAdmission, PointWriteMode writeMode, long groupCommitWindowMillis,
+                              int groupCommitMaxBatchSize) {
+        this(pointHistoryWriter, userPointStore, userMailboxExecutor, lockManager, pointLedger, pointMetrics,
+                pointWriteAheadLog, new PointTransferJournal(), pointRollup, pointExpiration, pointStreamHub,
+                pointAdmission, writeMode, groupCommitWindowMillis, groupCommitMaxBatchSize);
+    }
+
+    /**
+     * @param pointTransferJournal 이체를 WAL 에 남기기 전에 기록하는 journal. 샤드가 여럿이면 모든 샤드가 하나를 같이 쓴다.
+     */
+    @Autowired
+    public PointWritePipeline(PointHistoryWriter pointHistoryWriter, UserPointStore userPointStore,
+                              UserMailboxExecutor userMailboxExecutor, StripedLockManager lockManager,
+                              PointLedger pointLedger, PointMetrics pointMetrics, PointWriteAheadLog pointWriteAheadLog,
+                              PointTransferJournal pointTransferJournal, PointRollup pointRollup,
+                              PointExpiration pointExpiration, PointStreamHub pointStreamHub,
+                              PointAdmission pointAdmission,
+                              @Value("${point.write.mode:SERIAL}") PointWriteMode writeMode,
+                              @Value("${point.write.group-commit.window-millis:5}") long groupCommitWindowMillis,
+                              @Value("${point.write.group-commit.max-batch-size:32}") int groupCommitMaxBatchSize) {
+        if (groupCommitMaxBatchSize <= 0) {
+            throw new IllegalArgumentException("group commit 최대 배치 크기는 0보다 커야 합니다.");
+        }
+        this.pointHistoryWriter = pointHistoryWriter;
+        this.userPointStore = userPointStore;
+        this.userMailboxExecutor = userMailboxExecutor;
+        this.lockManager = lockManager;
+        this.pointLedger = pointLedger;
+        this.pointMetrics = pointMetrics;
+        this.pointWriteAheadLog = pointWriteAheadLog;
+        this.pointTransferJournal = pointTransferJournal;
+        this.pointRollup = pointRollup;
+        this.pointExpiration = pointExpiration;
+        this.pointStreamHub = pointStreamHub;
+        this.pointAdmission = pointAdmission;
+        this.writeMode = writeMode;
+        this.groupCommitWindowMillis = groupCommitWindowMillis;
+        this.groupCommitMaxBatchSize = groupCommitMaxBatchSize;
+        pointExpiration.bind(this::expireDue);
+    }
+
+    long restPoints(long id) {
+        if (writeMode == PointWriteMode.LEDGER) {
+            Long balance = pointLedger.balanceOf(id);
+            if (balance != null) {
+                return balance;
+            }
+        }
+        return userPointStore.selectPointById(id);
+    }
+
+    /**
+     * 이 시점까지 응답한 거래의 내역이 모두 저장될 때까지 기다린다.
+     * LEDGER 모드는 CAS 직후에 응답하고 내역은 메일박스에서 뒤따라 남기므로, 같은 메일박스 뒤에 줄을 서서 앞선 동기화를 기다린다.
+     */
+    void awaitFlushed(long id) {
+        if (writeMode == PointWriteMode.LEDGER) {
+            userMailboxExecutor.submit(id, () -> 0L).join();
+        }
+        pointHistoryWriter.awaitFlushed(id);
+    }
+
+    /**
+     * 입장 제한을 통과한 요청만 실행한다. 넘치면 실행하지 않고 PointOverloadedException 으로 실패한 future 를 돌려준다.
+     * 받은 요청은 결과가 나오면 내보내고, 마감까지 시작하지 못하면 PointDeadlineExceededException 으로 끝낸다.
+     * 호출자가 돌려받은 future 를 먼저 끝내면(비동기 API 타임아웃, cancel) 아직 시작하지 않은 요청은 취소해 반영하지 않는다.
+     */
+    CompletableFuture<Long> admitted(String operationName, long id,
+                                     Function<PointAdmission.Permit, CompletableFuture<Long>> operation) {
+        PointAdmission.Permit permit;
+        try {
+            permit = pointAdmission.admit(id);
+        } catch (PointOverloadedException e) {
+            return pointMetrics.timeAsync(operationName, CompletableFuture.failedFuture(e));
+        }
+        CompletableFuture<Long> result;
+        try {
+            result = durable(id, operation.apply(permit));
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+        CompletableFuture<Long> response = pointMetrics.timeAsync(operationName, permit.guard(result));
+        response.whenComplete((point, e) -> {
+            // 정상적으로 끝났다면 이미 시작했거나 취소된 뒤라 아무 일도 없다.
+            if (e != null) {
+                permit.cancel();
+            }
+        });
+        return response;
+    }
+
+    /**
+     * 충전(amount 양수)/사용(amount 음수) 한 건을 쓰기 모드에 맞게 반영한다.
+     * 잔액이 0 미만이 되거나 maxPoint 를 넘으면 IllegalStateException 으로 실패한 future 를 돌려준다.
+     */
+    CompletableFuture<Long> submit(String operation, long id, long amount, TransactionType type, long time,
+                                   long maxPoint, PointAdmission.Permit permit) {
+        if (writeMode == PointWriteMode.GROUP_COMMIT) {
+            return enqueueGroupCommit(id, amount, type, time, maxPoint, permit);
+        }
+        if (writeMode == PointWriteMode.LEDGER) {
+            return applyWithLedger(id, amount, type, time, maxPoint, permit);
+        }
+        // 검증도 메일박스 안에서 해야 앞선 요청이 반영된 잔액으로 판단할 수 있다.
+        return executeInOrder(operation, id, () -> {
+            permit.begin();
+            checkBalance(restPoints(id), amount, maxPoint);
+            return applyPoint(id, amount, type, time);
+        });
+    }
+
+    /**
+     * from 의 포인트 amount 를 to 로 옮긴다. to 는 다른 샤드의 쓰기 경로(toPipeline)에 있을 수 있다.
+     * - 두 유저의 메일박스 차례를 유저 id 순서로 잡은 뒤 한 구간 안에서 두 쪽의 잔액/한도를 모두 확인하고 두 잔액과 두 내역을 쓴다.
+     *   차례를 잡은 동안 두 유저의 다른 쓰기는 메일박스에서 기다리므로, 한쪽만 반영된 잔액으로 판단하는 쓰기가 없다.
+     *   스레드는 차례를 기다리며 붙잡히지 않고, 두 번째 차례가 잡힌 워커에서 구간을 실행한다.
+     * - WAL 을 쓰면 잔액을 바꾸기 전에 두 쪽 변경을 이체 journal 에 남기고 fsync 한다. 두 WAL 중 한쪽만 남은 채 멈춰도
+     *   재시작할 때 journal 로 나머지 쪽을 마저 반영한다. (redoTransferLeg)
+     * - 두 유저 모두 입장 제한을 통과해야 하고, 차례를 잡았을 때 마감이 지났으면 아무것도 반영하지 않는다.
+     * - 두 쪽 WAL 이 모두 fsync 된 뒤에 완료된다.
+     */
+    CompletableFuture<PointTransferResult> transfer(PointWritePipeline toPipeline, long from, long to, long amount,
+                                                    long time, long maxPoint) {
+        PointAdmission.Permit fromPermit;
+        PointAdmission.Permit toPermit;
+        try {
+            fromPermit = pointAdmission.admit(from);
+        } catch (PointOverloadedException e) {
+            return pointMetrics.timeAsync("transfer", CompletableFuture.failedFuture(e));
+        }
+        try {
+            toPermit = toPipeline.pointAdmission.admit(to);
+        } catch (PointOverloadedException e) {
+            fromPermit.release();
+            return pointMetrics.timeAsync("transfer", CompletableFuture.failedFuture(e));
+        }
+
+        long enqueuedNanos = System.nanoTime();
+        PointWritePipeline firstPipeline = from < to ? this : toPipeline;
+        PointWritePipeline secondPipeline = from < to ? toPipeline : this;
+        CompletableFuture<TransferCommit> committed = firstPipeline.userMailboxExecutor.hold(Math.min(from, to))
+                .thenCompose(first -> {
+                    CompletableFuture<UserMailboxExecutor.Hold> second;
+                    try {
+                        second = secondPipeline.userMailboxExecutor.hold(Math.max(from, to));
+                    } catch (RuntimeException e) {
+                        first.release();
+                        throw e;
+                    }
+                    return second.handle((held, e) -> {
+                        try (first) {
+                            if (e != null) {
+                                throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                            }
+                            try (held) {
+                                pointMetrics.recordMailboxWait("transfer", System.nanoTime() - enqueuedNanos);
+                                fromPermit.begin();
+                                toPermit.begin();
+                                return transferHeld(toPipeline, from, to, amount, time, maxPoint);
+                            }
+                        }
+                    });
+                });
+        CompletableFuture<PointTransferResult> result = committed.thenCompose(commit -> pointWriteAheadLog
+                .awaitDurable(from)
+                .thenCombine(toPipeline.pointWriteAheadLog.awaitDurable(to), (ignored, alsoIgnored) -> {
+                    pointTransferJournal.commit(commit.journalId());
+                    return commit.result();
+                }));
+        return pointMetrics.timeAsync("transfer", fromPermit.guard(toPermit.guard(result)));
+    }
+
+    /**
+     * 두 유저의 메일박스 차례를 잡은 채 실행한다. journal 에 남기기 전에 실패하면 아무것도 반영하지 않는다.
+     */
+    private TransferCommit transferHeld(PointWritePipeline toPipeline, long from, long to, long amount, long time,
+                                        long maxPoint) {
+        long fromPoint;
+        long toPoint;
+        if (writeMode == PointWriteMode.LEDGER) {
+            // 원장은 메일박스 밖에서도 CAS 로 바뀌므로 미리 확인하지 않고 CAS 결과로 판단한다.
+            fromPoint = pointLedger.apply(from, -amount, maxPoint, () -> userPointStore.selectPointById(from));
+            try {
+                toPoint = toPipeline.pointLedger.apply(to, amount, maxPoint,
+                        () -> toPipeline.userPointStore.selectPointById(to));
+            } catch (IllegalStateException e) {
+                // 받는 쪽이 한도를 넘으면 보낸 쪽을 되돌린다. 아직 WAL/내역에 남기기 전이다.
+                pointLedger.apply(from, amount, Long.MAX_VALUE, () -> 0L);
+                throw e;
+            }
+        } else {
+            fromPoint = restPoints(from) - amount;
+            toPoint = toPipeline.restPoints(to) + amount;
+            if (fromPoint < 0) {
+                throw new IllegalStateException("포인트가 부족합니다.");
+            }
+            if (toPoint > maxPoint) {
+                throw new IllegalStateException("이미 최대 포인트 입니다.");
+            }
+        }
+
+        long stamped = stamp(time);
+        // LEDGER 는 WAL 에 유저의 최신 잔액을 남긴다. 두 쪽 WAL 과 journal 에 같은 값을 남긴다.
+        PointTransferJournal.Leg out = new PointTransferJournal.Leg(from, pointWriteAheadLog.lastSeqOf(from), -amount,
+                TransactionType.TRANSFER_OUT, stamped, writeMode == PointWriteMode.LEDGER ? restPoints(from) : fromPoint);
+        PointTransferJournal.Leg in = new PointTransferJournal.Leg(to, toPipeline.pointWriteAheadLog.lastSeqOf(to),
+                amount, TransactionType.TRANSFER_IN, stamped,
+                writeMode == PointWriteMode.LEDGER ? toPipeline.restPoints(to) : toPoint);
+        long journalId;
+        try {
+            journalId = pointTransferJournal.prepare(out, in);
+        } catch (RuntimeException e) {
+            if (writeMode == PointWriteMode.LEDGER) {
+                pointLedger.apply(from, amount, Long.MAX_VALUE, () -> 0L);
+                toPipeline.pointLedger.apply(to, -amount, Long.MAX_VALUE, () -> 0L);
+            }
+            throw e;
+        }
+
+        // journal 에 남은 뒤로는 되돌리지 않는다. WAL 에 남기지 못한 쪽은 재시작할 때 journal 로 반영된다.
+        commitTransferLeg(out);
+        toPipeline.commitTransferLeg(in);
+        return new TransferCommit(new PointTransferResult(from, fromPoint, to, toPoint, amount), journalId);
+    }
+
+    /**
+     * 이체의 한쪽을 WAL 에 남기고 잔액을 저장한 뒤 내역을 남긴다. 유저의 메일박스 차례를 잡은 채 호출한다.
+     */
+    private void commitTransferLeg(PointTransferJournal.Leg leg) {
+        long id = leg.userId();
+        long historyId = pointWriteAheadLog.append(id, leg.amount(), leg.type(), leg.time(), leg.balance());
+        if (writeMode == PointWriteMode.LEDGER) {
+            pointLedger.syncIfDirty(id, latest -> userPointStore.updatePoint(id, latest));
+        } else {
+            userPointStore.updatePoint(id, leg.balance());
+        }
+        recordCommitted(historyId, id, leg.amount(), leg.type(), leg.time(), leg.balance());
+    }
+
+    /**
+     * 재시작 전에 journal 에만 남고 이 WAL 에는 남지 못한 이체의 한쪽을 반영한다. 요청을 받기 전에 부른다.
+     * 그 유저의 WAL 마지막 순번이 journal 에 남긴 직전 순번보다 크면 이미 남아 있으므로 아무것도 하지 않는다.
+     *
+     * @return 새로 반영했으면 true
+     */
+    boolean redoTransferLeg(PointTransferJournal.Leg leg) {
+        long id = leg.userId();
+        if (pointWriteAheadLog.lastSeqOf(id) > leg.prevSeq()) {
+            return false;
+        }
+        // 원장은 아직 비어 있으므로 모드와 상관없이 저장소에 바로 반영한다.
+        long historyId = pointWriteAheadLog.append(id, leg.amount(), leg.type(), leg.time(), leg.balance());
+        userPointStore.updatePoint(id, leg.balance());
+        recordCommitted(historyId, id, leg.amount(), leg.type(), leg.time(), leg.balance());
+        pointWriteAheadLog.awaitDurable(id).join();
+        return true;
+    }
+
+    private static void checkBalance(long current, long amount, long maxPoint) {
+        if (amount < 0 && current + amount < 0) {
+            throw new IllegalStateException("포인트가 부족합니다.");
+        }
+        if (amount > 0 && current + amount > maxPoint) {
+            throw new IllegalStateException("이미 최대 포인트 입니다.");
+        }
+    }
+
+    /**
+     * 거래를 WAL 에 남기고 원장의 최신 잔액을 저장한다. 유저의 stripe 락 안에서 호출한다.
+     * WAL 에 남기지 못하면 원장에서 되돌려, 디스크에 없는 거래가 잔액에 남지 않게 한다.
+     * 저장한 뒤 메일박스에 기다리는 요청이 없으면 원장에서 내려, 원장이 한 번이라도 쓴 유저 수만큼 커지지 않게 한다.
+     */
+    private void syncLedger(long id, long amount, TransactionType type, long requestedTime) {
+        long time = stamp(requestedTime);
+        // 바뀌었다가 제자리로 돌아온 계정은 이 동기화 전에 내려졌을 수 있다. 그때는 저장 사본이 최신 잔액이다.
+        Long ledgerBalance = pointLedger.balanceOf(id);
+        long balance = ledgerBalance != null ? ledgerBalance : userPointStore.selectPointById(id);
+        long historyId;
+        try {
+            historyId = pointWriteAheadLog.append(id, amount, type, time, balance);
+        } catch (RuntimeException e) {
+            revertLedger(id, amount, e);
+            throw e;
+        }
+        pointLedger.syncIfDirty(id, latest -> userPointStore.updatePoint(id, latest));
+        recordCommitted(historyId, id, amount, type, time, balance);
+        if (userMailboxExecutor.pendingCount(id) == 0) {
+            pointLedger.evictIfSynced(id);
+        }
+    }
+
+    private void revertLedger(long id, long amount, RuntimeException cause) {
+        try {
+            pointLedger.apply(id, -amount, Long.MAX_VALUE, () -> 0L);
+        } catch (RuntimeException e) {
+            // 그 사이 사용되어 되돌릴 잔액이 없다. 원장과 WAL 이 어긋났으므로 원인과 함께 남긴다.
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * 테이블 잔액에 바로 반영한다. LEDGER 모드는 원장이 잔액의 기준이므로 여기를 거치지 않고 syncLedger 로 맞춘다.
+     * 바뀐 잔액을 저장해 다른 요청에 보이기 전에 WAL 에 먼저 남긴다.
+     */
+    private long applyPoint(long id, long amount, TransactionType type, long requestedTime) {
+        long time = stamp(requestedTime);
+        long updated = restPoints(id) + amount;
+        long historyId = pointWriteAheadLog.append(id, amount, type, time, updated);
+        userPointStore.updatePoint(id, updated);
+        recordCommitted(historyId, id, amount, type, time, updated);
+        return updated;
+    }
+
+    /**
+     * 만료 시각이 지난 lot 이 있는 유저들의 포인트를 차감한다. PointExpiration 이 tick 마다 부른다.
+     * 유저별 메일박스에 한 번에 넣어 병렬로 처리하고, 모두 끝날 때까지 기다린 뒤 다음 tick 으로 넘어간다.
+     */
+    private void expireDue(Set<Long> userIds, long now) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>(userIds.size());
+        for (long id : userIds) {
+            futures.add(durable(id, expire(id, now)));
+        }
+        pointMetrics.time("expire", () -> CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .exceptionally(e -> null)
+                .join());
+    }
+
+    /**
+     * 만료된 lot 의 남은 포인트를 EXPIRE 내역 한 건으로 차감한다.
+     * 만료액은 메일박스 안에서 다시 계산하므로, 휠에서 꺼낸 뒤 먼저 처리된 사용분은 만료되지 않는다.
+     * 잔액보다 많이 만료될 수는 없으므로 잔액까지만 차감하고 나머지 만료 lot 은 버린다.
+     */
+    private CompletableFuture<Long> expire(long id, long now) {
+        return executeInOrder("expire", id, () -> {
+            long due = pointExpiration.dueAmount(id, now);
+            if (due == 0) {
+                return restPoints(id);
+            }
+            long balance;
+            if (writeMode == PointWriteMode.LEDGER) {
+                balance = expireWithLedger(id, due, now);
+            } else {
+                long debit = Math.min(due, restPoints(id));
+                balance = debit > 0 ? applyPoint(id, -debit, TransactionType.EXPIRE, now) : restPoints(id);
+                pointExpiration.recordExpired(debit);
+            }
+            pointExpiration.discardDue(id, now);
+            return balance;
+        });
+    }
+
+    /**
+     * 원장은 메일박스 밖에서도 CAS 로 줄어들 수 있으므로, 실패하면 바뀐 잔액으로 다시 계산한다.
+     */
+    private long expireWithLedger(long id, long due, long now) {
+        while (true) {
+            long current = restPoints(id);
+            long debit = Math.min(due, current);
+            if (debit <= 0) {
+                return current;
+            }
+            try {
+                // 차감만 하므로 한도는 보지 않는다.
+                long balance = pointLedger.apply(id, -debit, Long.MAX_VALUE, () -> userPointStore.selectPointById(id));
+                syncLedger(id, -debit, TransactionType.EXPIRE, now);
+                pointExpiration.recordExpired(debit);
+                return balance;
+            } catch (IllegalStateException e) {
+                // 그 사이 사용되어 잔액이 부족해졌다. 줄어든 잔액으로 다시 시도한다.
+            }
+        }
+    }
+
+    /**
+     * 유저별 메일박스에 넣어 도착 순서대로, 한 번에 하나씩 실행한다.
+     * 실행 중에는 유저의 stripe 락을 잡는다. 이체는 두 유저의 메일박스 차례를 잡으므로 락 없이도 이 구간과 겹치지 않는다.
+     * 메일박스 대기, 락 대기, 락 보유 시간과 그 동안의 테이블 호출 수를 operation 별로 기록한다.
+     */
+    private CompletableFuture<Long> executeInOrder(String operation, long id, CriticalOperation critical) {
+        long enqueuedNanos = System.nanoTime();
+        return userMailboxExecutor.submit(id, () -> {
+            long startedNanos = System.nanoTime();
+            pointMetrics.recordMailboxWait(operation, startedNanos - enqueuedNanos);
+            return lockManager.executeWithLock(id, () -> {
+                long acquiredNanos = System.nanoTime();
+                pointMetrics.recordLockWait(operation, acquiredNanos - startedNanos);
+                int tableCalls = pointMetrics.beginTableCalls();
+                try {
+                    return critical.execute();
+                } finally {
+                    pointMetrics.recordLockHold(operation, System.nanoTime() - acquiredNanos);
+                    pointMetrics.endTableCalls(operation, tableCalls);
+                }
+            });
+        });
+    }
+
+    /**
+     * 원장에서 CAS 로 잔액을 확정하고 바로 결과를 돌려준다.
+     * 테이블 저장과 내역 기록은 유저 메일박스에서 뒤따라 처리하며, 밀린 변경이 여럿이어도 잔액은 최신 값만 한 번 저장한다.
+     */
+    private CompletableFuture<Long> applyWithLedger(long id, long amount, TransactionType type, long time,
+                                                    long maxPoint, PointAdmission.Permit permit) {
+        long balance;
+        try {
+            // CAS 는 바로 끝나므로 대기 없이 시작한다. 이후의 메일박스 동기화는 취소하지 않는다.
+            permit.begin();
+            balance = pointLedger.apply(id, amount, maxPoint, () -> userPointStore.selectPointById(id));
+        } catch (IllegalStateException | PointDeadlineExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Long> synced = executeInOrder("ledgerSync", id, () -> {
+            // CAS 순서와 메일박스 순서가 다를 수 있어 WAL 에는 이 시점의 최신 잔액을 남긴다.
+            // 유저의 마지막 레코드는 항상 마지막 CAS 이후에 쓰이므로 복구 결과는 원장과 같다.
+            syncLedger(id, amount, type, time);
+            return balance;
+        });
+        // WAL 을 쓰면 디스크에 남은 뒤에 응답해야 하므로 메일박스 처리를 기다린다.
+        return pointWriteAheadLog.isEnabled() ? synced : CompletableFuture.completedFuture(balance);
+    }
+
+    /**
+     * group commit 대기열에 넣는다.
+     * 대기열이 비어있을 때 들어온 첫 요청이 window 뒤의 flush 를 예약하고,
+     * 최대 배치 크기가 차면 window 를 기다리지 않고 바로 flush 한다.
+     */
+    private CompletableFuture<Long> enqueueGroupCommit(long id, long amount, TransactionType type, long time,
+                                                       long maxPoint, PointAdmission.Permit permit) {
+        PendingPoint pending = new PendingPoint(amount, type, time, maxPoint, permit, new CompletableFuture<>());
+        int[] size = new int[1];
+        pendingPoints.compute(id, (key, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+            }
+            queue.add(pending);
+            size[0] = queue.size();
+            return queue;
+        });
+
+        if (size[0] == groupCommitMaxBatchSize) {
+            scheduleGroupCommit(id, 0L);
+        } else if (size[0] == 1) {
+            scheduleGroupCommit(id, groupCommitWindowMillis);
+        }
+        return pending.result();
+    }
+
+    private void scheduleGroupCommit(long id, long delayMillis) {
+        Executor executor = delayMillis > 0
+                ? CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS)
+                : Runnable::run;
+        executor.execute(() -> executeInOrder("groupCommit", id, () -> {
+            commitGroup(id);
+            return 0L;
+        }));
+    }
+
+    /**
+     * 대기 중인 요청을 순서대로 메모리 잔액에 반영하고, 최종 잔액은 한 번만 저장한다.
+     * 한도 초과/잔액 부족인 요청만 개별 실패시키고 나머지는 그대로 진행한다.
+     * 마감이 지나 호출자가 떠난 요청은 반영하지 않는다.
+     */
+    private void commitGroup(long id) {
+        List<PendingPoint> batch = takePending(id);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<PendingPoint> accepted = new ArrayList<>(batch.size());
+        List<Long> balances = new ArrayList<>(batch.size());
+        long balance;
+        try {
+            balance = restPoints(id);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+
+        for (PendingPoint pending : batch) {
+            try {
+                pending.permit().begin();
+                checkBalance(balance, pending.amount(), pending.maxPoint());
+            } catch (PointDeadlineExceededException | IllegalStateException e) {
+                pending.result().completeExceptionally(e);
+                continue;
+            }
+            balance += pending.amount();
+            accepted.add(pending);
+            balances.add(balance);
+        }
+
+        if (!accepted.isEmpty()) {
+            commitAccepted(id, accepted, balances);
+        }
+
+        // 최대 배치 크기를 넘겨 남은 요청이 있다면 바로 이어서 처리한다.
+        if (pendingPoints.containsKey(id)) {
+            scheduleGroupCommit(id, 0L);
+        }
+    }
+
+    /**
+     * 받아들인 요청을 WAL 에 남긴 뒤 최종 잔액을 한 번 저장하고 내역을 남긴다.
+     * WAL 에 남기다 실패하면 남긴 요청까지의 잔액만 저장하고, 나머지 요청은 실패시킨다.
+     */
+    private void commitAccepted(long id, List<PendingPoint> accepted, List<Long> balances) {
+        long[] historyIds = new long[accepted.size()];
+        long[] times = new long[accepted.size()];
+        int logged = 0;
+        RuntimeException failure = null;
+        for (; logged < accepted.size(); logged++) {
+            PendingPoint pending = accepted.get(logged);
+            // 앞 요청보다 이르게 찍히지 않도록 배치 안에서도 시각이 줄어들지 않게 한다.
+            times[logged] = Math.max(stamp(pending.time()), logged == 0 ? Long.MIN_VALUE : times[logged - 1]);
+            try {
+                historyIds[logged] = pointWriteAheadLog.append(id, pending.amount(), pending.type(), times[logged],
+                        balances.get(logged));
+            } catch (RuntimeException e) {
+                failure = e;
+                break;
+            }
+        }
+        for (int i = logged; i < accepted.size(); i++) {
+            accepted.get(i).result().completeExceptionally(failure);
+        }
+        if (logged == 0) {
+            return;
+        }
+
+        try {
+            userPointStore.updatePoint(id, balances.get(logged - 1));
+        } catch (RuntimeException e) {
+            accepted.subList(0, logged).forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < logged; i++) {
+            PendingPoint pending = accepted.get(i);
+            try {
+                recordCommitted(historyIds[i], id, pending.amount(), pending.type(), times[i], balances.get(i));
+                pending.result().complete(balances.get(i));
+            } catch (RuntimeException e) {
+                pending.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    private List<PendingPoint> takePending(long id) {
+        List<PendingPoint> batch = new ArrayList<>();
+        pendingPoints.computeIfPresent(id, (key, queue) -> {
+            while (batch.size() < groupCommitMaxBatchSize && !queue.isEmpty()) {
+                batch.add(queue.poll());
+            }
+            return queue.isEmpty() ? null : queue;
+        });
+        return batch;
+    }
+
+    /**
+     * 내역 시각. 호출자가 넘긴 time 은 메일박스/group commit 을 기다리기 전에 잡은 값이라, 그대로 쓰면 같은 유저의
+     * 내역 시각이 반영 순서(id 순서)와 자주 어긋난다. 반영하는 구간 안에서 현재 시각보다 이르면 현재 시각으로 올린다.
+     * 시각 순서가 id 순서와 같으면 내역 저장소는 시각 인덱스를 따로 두지 않는다.
+     */
+    private static long stamp(long time) {
+        return Math.max(time, System.currentTimeMillis());
+    }
+
+    /**
+     * WAL 에 남기고 잔액까지 저장한 거래 한 건을 집계, 만료 lot, 내역 순서로 남기고 구독자에게 알린다.
+     * 모든 쓰기 경로가 같은 유저에 대해 직렬화된 상태에서 호출한다.
+     *
+     * @param historyId WAL 순번. 내역 id 로 써서 재시작 후 복구한 내역과 id 가 같게 한다. WAL 을 쓰지 않으면 0 이고 저장소가 id 를 매긴다.
+     */
+    private void recordCommitted(long historyId, long id, long amount, TransactionType type, long time, long balance) {
+        pointRollup.record(id, amount, type, time);
+        pointExpiration.record(id, amount, type, time);
+        // 비동기 모드에서는 잔액이 확정된 뒤 내역 저장을 기다리지 않는다.
+        pointHistoryWriter.append(historyId, id, amount, type, time);
+        pointStreamHub.publish(id, balance, time);
+    }
+
+    /**
+     * WAL 을 쓰면 해당 유저의 레코드가 fsync 된 뒤에 결과를 돌려준다.
+     */
+    private CompletableFuture<Long> durable(long id, CompletableFuture<Long> result) {
+        if (!pointWriteAheadLog.isEnabled()) {
+            return result;
+        }
+        return result.thenCompose(point -> pointWriteAheadLog.awaitDurable(id).thenApply(ignored -> point));
+    }
+
+    private record TransferCommit(PointTransferResult result, long journalId) {
+    }
+
+    private record PendingPoint(long amount, TransactionType type, long time, long maxPoint,
+                                PointAdmission.Permit permit, CompletableFuture<Long> result) {
+    }
+
+    @FunctionalInterface
+    private interface CriticalOperation {
+        long execute();
+    }
+}
@@ -5,7 +5,14 @@ package io.hhplus.tdd.point;
  * 포인트 트랜잭션 종류
  * - CHARGE : 충전
  * - USE : 사용
+ * - TRANSFER_OUT : 이체로 보냄 (금액은 사용처럼 음수)
+ * - TRANSFER_IN : 이체로 받음
+ * - EXPIRE : 충전 후 보관 기간이 지나 소멸 (금액은 음수)
+ * - TRANSFER_REFUND : 이전 버전에서 다른 샤드의 받는 쪽이 거절해 보낸 쪽에 되돌려줌 (받은 이체가 아니다)
+ *   이체가 두 샤드에 한 번에 반영되면서 더 이상 남기지 않는다. 이전에 남긴 WAL/내역을 읽을 때만 쓴다.
+ *
+ * WAL 과 컬럼 저장소는 ordinal 로 기록하므로 새 종류는 항상 맨 뒤에 추가한다.
  */
 public enum TransactionType {
-    CHARGE, USE
+    CHARGE, USE, TRANSFER_OUT, TRANSFER_IN, EXPIRE, TRANSFER_REFUND
 }
\ No newline at end of file
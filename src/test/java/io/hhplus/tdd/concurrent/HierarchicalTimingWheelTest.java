@@ -0,0 +1,86 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    void 만료시각전에는_꺼내지않음() {
+        // given
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10L, 0L);
+        wheel.schedule(1L, 95L);
+        List<Long> due = new ArrayList<>();
+
+        // when
+        wheel.advance(90L, due::add);
+
+        // then
+        assertThat(due).isEmpty();
+        wheel.advance(100L, due::add);
+        assertThat(due).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    /**
+     * 테스트 시나리오 : 여러 단계에 걸친 만료 시각이 cascade 를 거쳐 모두 정확한 tick 에 꺼내진다.
+     */
+    @Test
+    void 여러단계_만료시각_순서대로_꺼냄() {
+        // given : 1, 64, 4096, 262144 tick 경계를 모두 지나도록 등록한다.
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1L, 0L);
+        long[] deadlines = {1L, 63L, 64L, 65L, 4095L, 4096L, 5000L, 262_144L, 300_000L};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        // when : 한 tick 씩 진행하며 꺼낸 시각을 기록한다.
+        List<Long> firedAt = new ArrayList<>();
+        for (long now = 1; now <= 300_000L; now++) {
+            long tick = now;
+            wheel.advance(now, key -> {
+                assertThat(key).isEqualTo(tick);
+                firedAt.add(key);
+            });
+        }
+
+        // then
+        assertThat(firedAt).containsExactly(1L, 63L, 64L, 65L, 4095L, 4096L, 5000L, 262_144L, 300_000L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void 지난시각_등록하면_다음진행에_꺼냄() {
+        // given
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(10L, 1_000L);
+        wheel.schedule(7L, 500L);
+        List<Long> due = new ArrayList<>();
+
+        // when
+        wheel.advance(1_010L, due::add);
+
+        // then
+        assertThat(due).containsExactly(7L);
+    }
+
+    @Test
+    void 한번에_멀리진행해도_모두꺼냄() {
+        // given
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1_000L, 0L);
+        for (long key = 0; key < 10_000; key++) {
+            wheel.schedule(key, key * 60_000L);
+        }
+        List<Long> due = new ArrayList<>();
+
+        // when : 약 7일치를 한 번에 진행
+        wheel.advance(10_000L * 60_000L, due::add);
+
+        // then
+        assertThat(due).hasSize(10_000);
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,108 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointAdmissionTest {
+
+    private final PointAdmission pointAdmission = new PointAdmission(2, 3, 50L, 1500L);
+
+    @AfterEach
+    void tearDown() {
+        pointAdmission.close();
+    }
+
+    @Test
+    void 유저별_한도넘으면_바로거절() {
+        // given
+        pointAdmission.admit(1L);
+        pointAdmission.admit(1L);
+
+        // when & then
+        assertThatThrownBy(() -> pointAdmission.admit(1L))
+                .isInstanceOf(PointOverloadedException.class)
+                .satisfies(e -> assertThat(((PointOverloadedException) e).retryAfterMillis()).isEqualTo(1500L));
+        assertThat(pointAdmission.admit(2L)).isNotNull();
+        assertThat(pointAdmission.rejectedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void 전체_한도넘으면_바로거절() {
+        // given
+        pointAdmission.admit(1L);
+        pointAdmission.admit(2L);
+        pointAdmission.admit(3L);
+
+        // when & then
+        assertThatThrownBy(() -> pointAdmission.admit(4L)).isInstanceOf(PointOverloadedException.class);
+        assertThat(pointAdmission.inFlightCount()).isEqualTo(3);
+    }
+
+    @Test
+    void 내보내면_다시받음() {
+        // given
+        PointAdmission.Permit first = pointAdmission.admit(1L);
+        pointAdmission.admit(1L);
+
+        // when : 여러 번 내보내도 한 번만 반영된다.
+        first.release();
+        first.release();
+
+        // then
+        assertThat(pointAdmission.inFlightCount(1L)).isEqualTo(1);
+        assertThat(pointAdmission.admit(1L)).isNotNull();
+    }
+
+    /**
+     * 테스트 시나리오 : 마감까지 시작하지 못한 요청은 호출자에게 마감 초과로 끝나고, 뒤늦게 차례가 와도 실행되지 않는다.
+     */
+    @Test
+    void 마감지나면_취소하고_실행하지않음() {
+        // given
+        PointAdmission.Permit permit = pointAdmission.admit(1L);
+        CompletableFuture<Long> result = permit.guard(new CompletableFuture<>());
+
+        // when & then
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(PointDeadlineExceededException.class);
+        assertThatThrownBy(permit::begin).isInstanceOf(PointDeadlineExceededException.class);
+        assertThat(pointAdmission.expiredCount()).isEqualTo(1L);
+        assertThat(pointAdmission.inFlightCount(1L)).isZero();
+    }
+
+    @Test
+    void 이미시작한요청은_마감지나도_기다림() throws InterruptedException {
+        // given
+        PointAdmission.Permit permit = pointAdmission.admit(1L);
+        CompletableFuture<Long> work = new CompletableFuture<>();
+        CompletableFuture<Long> result = permit.guard(work);
+        permit.begin();
+
+        // when
+        Thread.sleep(100L);
+        work.complete(10L);
+
+        // then
+        assertThat(result.join()).isEqualTo(10L);
+        assertThat(pointAdmission.expiredCount()).isZero();
+        assertThat(pointAdmission.inFlightCount()).isZero();
+    }
+
+    @Test
+    void 제한없음() {
+        PointAdmission unlimited = PointAdmission.unlimited();
+        for (int i = 0; i < 1000; i++) {
+            unlimited.admit(1L);
+        }
+
+        assertThat(unlimited.inFlightCount()).isEqualTo(1000);
+        assertThat(unlimited.rejectedCount()).isZero();
+    }
+}
@@ -0,0 +1,91 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PointExecutorsTest {
+
+    @Test
+    void 가상스레드_끄면_플랫폼스레드풀() throws Exception {
+        ExecutorService pool = PointExecutors.newWorkerPool("test-pool-", 2, false);
+        try {
+            Thread worker = pool.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+
+            assertThat(worker.getName()).startsWith("test-pool-");
+            assertThat(worker.isDaemon()).isTrue();
+            assertThat(isVirtual(worker)).isFalse();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 테스트 시나리오 : Java 21 미만처럼 가상 스레드 API 가 없으면 설정을 켜도 같은 이름의 플랫폼 스레드 풀로 동작한다.
+     */
+    @Test
+    void 가상스레드_지원안하면_플랫폼스레드풀로_대체() throws Exception {
+        ExecutorService pool = PointExecutors.newWorkerPool("test-fallback-", 2, true, null);
+        try {
+            Thread worker = pool.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+
+            assertThat(worker.getName()).startsWith("test-fallback-");
+            assertThat(isVirtual(worker)).isFalse();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void 가상스레드_실행기_생성실패하면_플랫폼스레드풀로_대체() throws Exception {
+        Method failing = PointExecutorsTest.class.getDeclaredMethod("failingFactory");
+
+        ExecutorService pool = PointExecutors.newWorkerPool("test-failed-", 1, true, failing);
+        try {
+            assertThat(pool.submit(() -> Thread.currentThread().getName()).get(1, TimeUnit.SECONDS))
+                    .startsWith("test-failed-");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void 대체할때_스레드수_검증() {
+        assertThatThrownBy(() -> PointExecutors.newWorkerPool("test-", 0, true, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Java 21 이상에서만 확인한다. 설정을 켜면 작업이 가상 스레드에서 실행된다.
+     */
+    @Test
+    void 가상스레드_지원하면_가상스레드에서_실행() throws Exception {
+        assumeTrue(PointExecutors.virtualThreadsSupported());
+
+        ExecutorService pool = PointExecutors.newWorkerPool("test-virtual-", 1, true);
+        try {
+            Thread worker = pool.submit(Thread::currentThread).get(1, TimeUnit.SECONDS);
+
+            assertThat(isVirtual(worker)).isTrue();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static ExecutorService failingFactory() {
+        throw new IllegalStateException("가상 스레드 실행기 생성 실패");
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        if (!PointExecutors.virtualThreadsSupported()) {
+            return false;
+        }
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
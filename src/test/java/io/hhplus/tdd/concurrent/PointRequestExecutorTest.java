@@ -0,0 +1,69 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointRequestExecutorTest {
+
+    private PointRequestExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void 스레드와_대기열이_가득차면_바로거절() {
+        // given
+        executor = new PointRequestExecutor(1, 1, 5_000L, false);
+        executor.supply(this::blockUntilReleased);
+        executor.supply(this::blockUntilReleased);
+
+        // when
+        CompletableFuture<Long> rejected = executor.supply(() -> 1L);
+
+        // then
+        assertThatThrownBy(rejected::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void 제한시간을_넘기면_타임아웃() {
+        // given
+        executor = new PointRequestExecutor(1, 1, 50L, false);
+
+        // when
+        CompletableFuture<Long> future = executor.supply(this::blockUntilReleased);
+
+        // then
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void 정상실행() throws Exception {
+        executor = new PointRequestExecutor();
+
+        assertThat(executor.supply(() -> 10L).get()).isEqualTo(10L);
+    }
+
+    private long blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0L;
+    }
+}
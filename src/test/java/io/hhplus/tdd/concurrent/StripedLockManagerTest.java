@@ -0,0 +1,84 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedLockManagerTest {
+
+    @Test
+    void stripe개수는_2의거듭제곱으로_고정() {
+        StripedLockManager lockManager = new StripedLockManager(1000);
+
+        assertThat(lockManager.stripes()).isEqualTo(1024);
+        for (long userId = 0; userId < 100_000; userId++) {
+            assertThat(lockManager.stripeOf(userId)).isBetween(0, 1023);
+        }
+    }
+
+    @Test
+    void 같은유저_동시실행_상호배제() throws InterruptedException {
+        // given
+        StripedLockManager lockManager = new StripedLockManager(16);
+        long[] counter = new long[1];
+        int threadCount = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // when
+        for (int i = 0; i < threadCount; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    lockManager.executeWithLock(1L, () -> counter[0]++);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(counter[0]).isEqualTo(threadCount * 1000L);
+        StripedLockManager.LockStats stats = lockManager.stats();
+        assertThat(stats.acquisitions()).isEqualTo(threadCount * 1000L);
+        assertThat(stats.locked()).isZero();
+        assertThat(stats.contended()).isEqualTo(lockManager.contendedCount(lockManager.stripeOf(1L)));
+    }
+
+    /**
+     * 테스트 시나리오 : 두 유저 쌍을 서로 반대 순서로 잡는 스레드가 섞여도 교착 없이 모두 끝나고, 두 락이 함께 잡힌 구간은 상호 배제된다.
+     */
+    @Test
+    void 두유저_교차잠금_교착없음() throws InterruptedException {
+        // given : stripe 4개라 서로 다른 유저가 같은 stripe 에 걸리는 경우도 섞인다.
+        StripedLockManager lockManager = new StripedLockManager(4);
+        long[] counter = new long[1];
+        int threadCount = 16;
+        int repeats = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        // when
+        for (int i = 0; i < threadCount; i++) {
+            long from = i % 2 == 0 ? 1L : 2L;
+            long to = i % 2 == 0 ? 2L : 1L;
+            long other = 3L + i % 4;
+            executor.submit(() -> {
+                for (int j = 0; j < repeats; j++) {
+                    lockManager.executeWithLocks(from, to, () -> counter[0]++);
+                    lockManager.executeWithLocks(other, from, () -> other);
+                    lockManager.executeWithLock(to, () -> to);
+                }
+            });
+        }
+        executor.shutdown();
+        boolean finished = executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        // then
+        assertThat(finished).isTrue();
+        assertThat(lockManager.stats().locked()).isZero();
+        // 1, 2 를 함께 잡는 구간끼리는 배타적이라 카운터 증가가 유실되지 않는다.
+        assertThat(counter[0]).isEqualTo((long) threadCount * repeats);
+    }
+}
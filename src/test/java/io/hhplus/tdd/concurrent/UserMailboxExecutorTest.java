@@ -0,0 +1,120 @@
+package io.hhplus.tdd.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserMailboxExecutorTest {
+    private UserMailboxExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new UserMailboxExecutor(4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void 같은유저_명령은_도착순서대로_실행() {
+        // given
+        long userId = 1L;
+        List<Integer> processedOrder = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            futures.add(executor.submit(userId, () -> {
+                processedOrder.add(index);
+                return index;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            assertThat(processedOrder.get(i)).isEqualTo(i);
+            assertThat(futures.get(i).join()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void 다른유저_명령은_병렬로_실행() throws InterruptedException {
+        // given
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        // when : 두 유저가 서로를 기다려야 끝나는 명령
+        CompletableFuture<Boolean> first = executor.submit(1L, () -> awaitQuietly(bothStarted));
+        CompletableFuture<Boolean> second = executor.submit(2L, () -> awaitQuietly(bothStarted));
+
+        // then
+        assertThat(first.join()).isTrue();
+        assertThat(second.join()).isTrue();
+    }
+
+    @Test
+    void 처리가끝나면_메일박스제거() {
+        // when
+        executor.submit(1L, () -> 1).join();
+
+        // then : 마지막 명령 완료 직후 제거되므로 잠시 기다린다.
+        long deadline = System.currentTimeMillis() + 1000;
+        while (executor.activeMailboxes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(executor.activeMailboxes()).isZero();
+    }
+
+    @Test
+    void 명령예외는_future로_전달() {
+        CompletableFuture<Long> result = executor.submit(1L, () -> {
+            throw new IllegalStateException("포인트가 부족합니다.");
+        });
+
+        assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("포인트가 부족합니다.");
+    }
+
+    /**
+     * 테스트 시나리오 : 차례를 잡으면 그 뒤에 들어온 같은 유저의 명령은 release 전까지 실행되지 않고, 다른 유저는 그대로 처리된다.
+     */
+    @Test
+    void 차례를잡으면_release전까지_같은유저_명령대기() {
+        // given
+        UserMailboxExecutor.Hold hold = executor.hold(1L).join();
+
+        // when
+        CompletableFuture<Integer> waiting = executor.submit(1L, () -> 1);
+        CompletableFuture<Integer> other = executor.submit(2L, () -> 2);
+
+        // then
+        assertThat(other.join()).isEqualTo(2);
+        assertThat(waiting).isNotDone();
+        hold.release();
+        assertThat(waiting.join()).isEqualTo(1);
+    }
+
+    private boolean awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,30 +1,70 @@
 package io.hhplus.tdd.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.ErrorResponse;
+import io.hhplus.tdd.concurrent.PointOverloadedException;
+import io.hhplus.tdd.concurrent.PointRequestExecutor;
+import io.hhplus.tdd.point.PointBatchOperation;
+import io.hhplus.tdd.point.PointBatchResponse;
+import io.hhplus.tdd.point.PointBatchResult;
+import io.hhplus.tdd.point.PointBinaryFormat;
 import io.hhplus.tdd.point.PointController;
 import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointHistoryPage;
 import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointShardRouter;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.PointTransferRequest;
+import io.hhplus.tdd.point.PointTransferResult;
+import io.hhplus.tdd.point.PointWebConfiguration;
+import io.hhplus.tdd.point.UserPoint;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static io.hhplus.tdd.point.TransactionType.CHARGE;
 import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
 @WebMvcTest(controllers = PointController.class)
+@Import({PointRequestExecutor.class, PointStreamHub.class, PointWebConfiguration.class,
+        PointControllerTest.SingleShardConfiguration.class})
 public class PointControllerTest {
 
+    /**
+     * 샤드 하나짜리 라우터로 mock PointService 를 그대로 감싼다.
+     */
+    @TestConfiguration
+    static class SingleShardConfiguration {
+        @Bean
+        PointShardRouter pointShardRouter(PointService pointService) {
+            return new PointShardRouter(pointService);
+        }
+    }
+
     @Autowired
     private PointController pointController;
 
@@ -37,6 +77,9 @@ public class PointControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PointStreamHub pointStreamHub;
+
 
 
     private final long time = System.currentTimeMillis();
@@ -80,6 +123,196 @@ public class PointControllerTest {
 
     }
 
+    @Test
+    void 포인트이용내역_기간조회() throws Exception {
+        long userId = 1L;
+        when(pointService.searchPointhistory(userId, 1000L, Long.MAX_VALUE, USE, false))
+                .thenReturn(new PointHistory[]{new PointHistory(2L, userId, 300L, USE, 2000L)});
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/histories")
+                        .param("from", "1000")
+                        .param("type", "USE"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].updateMillis").value(2000L));
+    }
+
+    @Test
+    void 포인트이용내역_JSON은_Jackson과같음() throws Exception {
+        long userId = 1L;
+        PointHistory[] histories = {
+                new PointHistory(1L, userId, 100L, CHARGE, time),
+                new PointHistory(2L, userId, -300L, USE, time)
+        };
+        when(pointService.searchPointhistory(userId)).thenReturn(histories);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/histories"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString())
+                .isEqualTo(objectMapper.writeValueAsString(List.of(histories)));
+    }
+
+    @Test
+    void 포인트이용내역_바이너리() throws Exception {
+        long userId = 1L;
+        PointHistory[] histories = {
+                new PointHistory(1L, userId, 100L, CHARGE, time),
+                new PointHistory(2L, userId, 300L, USE, time)
+        };
+        when(pointService.searchPointhistory(userId)).thenReturn(histories);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/histories")
+                        .accept(PointBinaryFormat.MEDIA_TYPE))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(PointBinaryFormat.MEDIA_TYPE))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(body).hasSize(4 + 2 * PointBinaryFormat.POINT_HISTORY_SIZE);
+        assertThat(result.getResponse().getContentLength()).isEqualTo(body.length);
+        assertThat(PointBinaryFormat.readHistories(ByteBuffer.wrap(body))).containsExactly(histories);
+    }
+
+    @Test
+    void 포인트조회_바이너리() throws Exception {
+        long userId = 1L;
+        when(pointService.searchRestPoints(userId)).thenReturn(1000L);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId)
+                        .accept(PointBinaryFormat.MEDIA_TYPE))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn();
+
+        UserPoint userPoint = PointBinaryFormat.readUserPoint(ByteBuffer.wrap(result.getResponse().getContentAsByteArray()));
+        assertThat(userPoint.id()).isEqualTo(userId);
+        assertThat(userPoint.point()).isEqualTo(1000L);
+    }
+
+    /**
+     * 테스트 시나리오 : 바이너리만 받겠다고 한 요청이 실패하면 406 이 아니라 원래 상태 코드와 JSON 에러 본문을 내려준다.
+     */
+    @Test
+    void 포인트조회_바이너리_실패하면_JSON에러() throws Exception {
+        // given
+        long userId = 1L;
+        when(pointService.searchRestPoints(userId)).thenThrow(new RuntimeException("조회에 실패했습니다."));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId)
+                        .accept(PointBinaryFormat.MEDIA_TYPE))
+                .andExpect(MockMvcResultMatchers.status().isInternalServerError())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value("500"));
+    }
+
+    @Test
+    void 포인트충전_바이너리_요청많으면_JSON으로_429() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 1000L;
+        when(pointService.chargePoints(eq(userId), eq(amount), anyLong()))
+                .thenThrow(new PointOverloadedException("같은 유저의 요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", 1500L));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + userId + "/charge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount))
+                        .accept(PointBinaryFormat.MEDIA_TYPE))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"))
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value("429"));
+    }
+
+    @Test
+    void 포인트이용내역_커서조회() throws Exception {
+        long userId = 1L;
+
+        PointHistoryPage page = new PointHistoryPage(List.of(
+                new PointHistory(3L, userId, 100L, CHARGE, time),
+                new PointHistory(5L, userId, 300L, USE, time)
+        ), 5L);
+
+        when(pointService.searchPointhistoryPage(userId, 2L, 2)).thenReturn(page);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/histories/page")
+                        .param("cursor", "2")
+                        .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.histories.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.histories[0].id").value(3L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value(5L));
+    }
+
+    /**
+     * 테스트 시나리오 : 스트림 페이지 크기(500)보다 많은 내역을 페이지를 이어가며 한 줄에 한 건씩 빠짐없이, 순서대로 내려준다.
+     */
+    @Test
+    void 포인트이용내역_스트림() throws Exception {
+        long userId = 1L;
+        List<PointHistory> histories = new ArrayList<>();
+        for (long id = 1; id <= 1201; id++) {
+            histories.add(new PointHistory(id, userId, id, id % 2 == 0 ? USE : CHARGE, time + id));
+        }
+        when(pointService.searchPointhistoryPage(eq(userId), anyLong(), anyInt())).thenAnswer(invocation -> {
+            int from = (int) (long) invocation.getArgument(1, Long.class);
+            int limit = invocation.getArgument(2, Integer.class);
+            int to = Math.min(histories.size(), from + limit);
+            return new PointHistoryPage(histories.subList(from, to), to < histories.size() ? (long) to : null);
+        });
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/histories/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        String body = started.getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        List<PointHistory> streamed = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            streamed.add(objectMapper.readValue(line, PointHistory.class));
+        }
+        assertThat(streamed).containsExactlyElementsOf(histories);
+        // 500 + 500 + 201 건, 세 페이지
+        verify(pointService, times(3)).searchPointhistoryPage(eq(userId), anyLong(), anyInt());
+    }
+
+    @Test
+    void 포인트집계조회() throws Exception {
+        long userId = 1L;
+
+        PointSummary summary = new PointSummary(userId, 1500L, 300L, 2L, 1L, 0L, 0L, 0L, List.of(
+                new PointSummary.Daily(LocalDate.of(2024, 1, 1), 1500L, 300L, 2L, 1L)
+        ));
+
+        when(pointService.searchPointSummary(userId)).thenReturn(summary);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/summary"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalCharged").value(1500L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalUsed").value(300L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.daily[0].date").value("2024-01-01"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.daily[0].chargeCount").value(2L));
+    }
+
+    @Test
+    void 포인트구독() throws Exception {
+        long userId = 1L;
+
+        when(pointService.searchRestPoints(userId)).thenReturn(500L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+        assertThat(pointStreamHub.connectionCount()).isPositive();
+    }
+
     @Test
     void 포인트충전() throws Exception {
         // given
@@ -100,6 +333,24 @@ public class PointControllerTest {
     }
 
 
+    @Test
+    void 포인트충전_요청많으면_429() throws Exception {
+        // given
+        long userId = 1L;
+        long amount = 1000L;
+        when(pointService.chargePoints(eq(userId), eq(amount), anyLong()))
+                .thenThrow(new PointOverloadedException("같은 유저의 요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.", 1500L));
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + userId + "/charge")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount))
+                )
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value("429"));
+    }
+
     @Test
     void 포인트사용() throws Exception {
         long userId = 1L;
@@ -117,6 +368,117 @@ public class PointControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.point").value(amount));
     }
 
+    @Test
+    void 포인트이체() throws Exception {
+        long fromUserId = 1L;
+        long toUserId = 2L;
 
+        // when
+        when(pointService.transfer(eq(fromUserId), eq(toUserId), eq(300L), anyLong()))
+                .thenReturn(new PointTransferResult(fromUserId, 700L, toUserId, 800L, 300L));
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + fromUserId + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PointTransferRequest(toUserId, 300L)))
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.fromPoint").value(700L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.toUserId").value(toUserId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.toPoint").value(800L));
+    }
 
+    @Test
+    void 포인트일괄처리() throws Exception {
+        // given
+        List<PointBatchOperation> operations = List.of(
+                new PointBatchOperation(1L, CHARGE, 1000L),
+                new PointBatchOperation(2L, USE, 500L)
+        );
+        PointBatchResponse response = new PointBatchResponse(List.of(
+                PointBatchResult.success(0, operations.get(0), 1000L),
+                PointBatchResult.failure(1, operations.get(1), new ErrorResponse("400", "포인트가 부족합니다."))
+        ), 1, 1, 3L);
+
+        when(pointService.executeBatch(operations)).thenReturn(response);
+
+        // then
+        mockMvc.perform(MockMvcRequestBuilders.post("/point/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations))
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.successCount").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].point").value(1000L))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].error.message").value("포인트가 부족합니다."));
+    }
+
+    @Test
+    void 포인트조회_비동기() throws Exception {
+        long userId = 1L;
+        when(pointService.searchRestPoints(userId)).thenReturn(700L);
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.get("/point/" + userId + "/async"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(userId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.point").value(700L));
+    }
+
+    @Test
+    void 포인트충전_비동기() throws Exception {
+        long userId = 1L;
+        long amount = 1000L;
+        when(pointService.chargePointsAsync(eq(userId), eq(amount), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(amount));
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + userId + "/charge/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.point").value(amount));
+    }
+
+    @Test
+    void 포인트사용_비동기_실패() throws Exception {
+        long userId = 1L;
+        long amount = 30L;
+        when(pointService.usePointsAsync(eq(userId), eq(amount), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("포인트가 부족합니다.")));
+
+        MvcResult started = mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + userId + "/use/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value("400"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("포인트가 부족합니다."));
+    }
+
+    /**
+     * 테스트 시나리오 : 동기 API 도 잔액 부족은 배치의 건별 실패와 같이 400 과 원래 메시지로 내려준다.
+     */
+    @Test
+    void 포인트사용_잔액부족이면_400() throws Exception {
+        long userId = 1L;
+        long amount = 30L;
+        when(pointService.usePoints(eq(userId), eq(amount), anyLong()))
+                .thenThrow(new IllegalStateException("포인트가 부족합니다."));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/point/" + userId + "/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amount)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.code").value("400"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("포인트가 부족합니다."));
+    }
 }
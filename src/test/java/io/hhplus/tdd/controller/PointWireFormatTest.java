@@ -0,0 +1,112 @@
+package io.hhplus.tdd.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hhplus.tdd.point.PointBinaryFormat;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointJsonWriter;
+import io.hhplus.tdd.point.TransactionType;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointWireFormatTest {
+
+    private static final long[] EDGES = {0L, 1L, -1L, 9L, 10L, -10L, 1_700_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void JSON_Jackson과같음() throws Exception {
+        // given : 자릿수가 바뀌는 값과 long 양 끝
+        List<PointHistory> histories = new ArrayList<>();
+        for (long value : EDGES) {
+            for (TransactionType type : TransactionType.values()) {
+                histories.add(new PointHistory(value, value, value, type, value));
+            }
+        }
+        UserPoint userPoint = new UserPoint(Long.MAX_VALUE, Long.MIN_VALUE, 0L);
+
+        // when
+        String historiesJson = writeJson(writer -> writer.write(histories));
+        String userPointJson = writeJson(writer -> writer.write(userPoint));
+
+        // then
+        assertThat(historiesJson).isEqualTo(objectMapper.writeValueAsString(histories));
+        assertThat(userPointJson).isEqualTo(objectMapper.writeValueAsString(userPoint));
+        assertThat(writeJson(writer -> writer.write(List.of()))).isEqualTo("[]");
+    }
+
+    /**
+     * 테스트 시나리오 : 버퍼보다 큰 응답은 버퍼가 찰 때마다 나눠 내보내고, 이어붙인 결과는 한 번에 쓴 것과 같다.
+     */
+    @Test
+    void JSON_버퍼넘으면_나눠씀() throws Exception {
+        // given
+        List<PointHistory> histories = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            histories.add(new PointHistory(i + 1, 1L, i * 100L, TransactionType.CHARGE, 1_700_000_000_000L + i));
+        }
+        CountingOutputStream out = new CountingOutputStream();
+
+        // when
+        PointJsonWriter writer = new PointJsonWriter(out, 0);
+        writer.write(histories);
+        writer.drain();
+
+        // then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(histories));
+        assertThat(out.writes).isGreaterThan(1);
+    }
+
+    @Test
+    void 바이너리_왕복() throws Exception {
+        // given
+        List<PointHistory> histories = List.of(
+                new PointHistory(1L, 2L, 300L, TransactionType.CHARGE, 4L),
+                new PointHistory(Long.MAX_VALUE, Long.MIN_VALUE, -1L, TransactionType.EXPIRE, 0L));
+        UserPoint userPoint = new UserPoint(1L, 1000L, 1_700_000_000_000L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        PointBinaryFormat.write(userPoint, out);
+        PointBinaryFormat.write(histories, out);
+
+        // then : UserPoint 24 byte 뒤에 건수 4 byte + 내역 33 byte 씩
+        byte[] body = out.toByteArray();
+        assertThat(body).hasSize(PointBinaryFormat.USER_POINT_SIZE + (int) PointBinaryFormat.historiesSize(2));
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        assertThat(PointBinaryFormat.readUserPoint(buffer)).isEqualTo(userPoint);
+        assertThat(PointBinaryFormat.readHistories(buffer)).isEqualTo(histories);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    private static String writeJson(JsonWrite write) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PointJsonWriter writer = new PointJsonWriter(out);
+        write.to(writer);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface JsonWrite {
+        void to(PointJsonWriter writer) throws Exception;
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+
+        private int writes;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+}
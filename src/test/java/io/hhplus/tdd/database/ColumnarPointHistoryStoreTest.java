@@ -0,0 +1,99 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnarPointHistoryStoreTest {
+    private final ColumnarPointHistoryStore store = new ColumnarPointHistoryStore();
+    private final long time = System.currentTimeMillis();
+
+    @Test
+    void 유저별내역조회_id순서() {
+        // given
+        store.insert(1L, 100L, CHARGE, time);
+        store.insert(2L, 200L, CHARGE, time);
+        store.insert(1L, -50L, USE, time);
+
+        // when
+        List<PointHistory> histories = store.selectAllByUserId(1L);
+
+        // then
+        assertThat(histories).containsExactly(
+                new PointHistory(1L, 1L, 100L, CHARGE, time),
+                new PointHistory(3L, 1L, -50L, USE, time));
+        assertThat(store.countByUserId(1L)).isEqualTo(2);
+        assertThat(store.hasHistory(3L)).isFalse();
+    }
+
+    @Test
+    void 청크를_넘어가도_커서조회() {
+        // given : 청크 크기(16384)보다 많이 넣는다.
+        for (int i = 0; i < 40_000; i++) {
+            store.insert(i % 2, i, CHARGE, time);
+        }
+
+        // when
+        List<PointHistory> page = store.selectPage(1L, 30_000L, 3);
+
+        // then
+        assertThat(store.size()).isEqualTo(40_000);
+        assertThat(page).extracting(PointHistory::id).containsExactly(30_002L, 30_004L, 30_006L);
+        assertThat(store.selectById(0L, 39_999L)).isEqualTo(new PointHistory(39_999L, 0L, 39_998L, CHARGE, time));
+        assertThat(store.selectById(1L, 39_999L)).isNull();
+    }
+
+    @Test
+    void 복구한내역_뒤로_id이어짐() {
+        // given
+        store.restore(List.of(new PointHistory(7L, 1L, 100L, CHARGE, time)));
+
+        // when
+        PointHistory next = store.insert(1L, -10L, USE, time);
+
+        // then
+        assertThat(next.id()).isEqualTo(8L);
+        assertThat(store.selectAllByUserId(1L)).extracting(PointHistory::id).containsExactly(7L, 8L);
+    }
+
+    @Test
+    void 기간조회_거래종류_거름() {
+        // given
+        store.insert(1L, 100L, CHARGE, 1000L);
+        store.insert(1L, -30L, USE, 2000L);
+        store.insert(2L, -10L, USE, 2500L);
+        store.insert(1L, -20L, USE, 3000L);
+
+        // when
+        List<PointHistory> histories = store.selectByTimeRange(1L, 1000L, 3001L, USE);
+
+        // then
+        assertThat(histories).extracting(PointHistory::amount).containsExactly(-30L, -20L);
+        assertThat(store.selectByTimeRange(3L, 0L, Long.MAX_VALUE, null)).isEmpty();
+    }
+
+    /**
+     * 테스트 시나리오 : 청크를 넘는 내역 중 일부가 늦은 시각으로 들어와도, 기간 조회는 구간 안의 내역만 시각 순서로 돌려준다.
+     */
+    @Test
+    void 기간조회_시각순서어긋나도_시각순서() {
+        // given : 1000 건마다 한 건은 500 전 시각으로 들어온다.
+        for (int i = 0; i < 40_000; i++) {
+            store.insert(1L, i, CHARGE, i % 1000 == 999 ? i - 500 : i);
+        }
+
+        // when
+        List<PointHistory> histories = store.selectByTimeRange(1L, 20_400L, 20_600L, null);
+
+        // then : 20_499 시각의 두 건(원래 내역과 늦게 들어온 20_999 내역)이 id 순서로 이어진다.
+        assertThat(histories).hasSize(201);
+        assertThat(histories).extracting(PointHistory::updateMillis).isSorted();
+        assertThat(histories).filteredOn(history -> history.updateMillis() == 20_499L)
+                .extracting(PointHistory::amount).containsExactly(20_499L, 20_999L);
+    }
+}
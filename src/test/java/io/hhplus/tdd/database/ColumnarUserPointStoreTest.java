@@ -0,0 +1,35 @@
+package io.hhplus.tdd.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnarUserPointStoreTest {
+
+    @Test
+    void 없는유저_0포인트() {
+        ColumnarUserPointStore store = new ColumnarUserPointStore();
+
+        assertThat(store.selectById(1L).point()).isZero();
+        assertThat(store.selectPointById(1L)).isZero();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void 저장후_조회_확장되어도_유지() {
+        // given : 초기 크기보다 많은 유저를 넣어 배열과 해시맵을 늘린다. 0번 유저도 포함한다.
+        ColumnarUserPointStore store = new ColumnarUserPointStore(16);
+        for (long userId = 0; userId < 10_000; userId++) {
+            store.updatePoint(userId, userId * 10);
+        }
+
+        // when
+        store.insertOrUpdate(5L, 1L);
+
+        // then
+        assertThat(store.size()).isEqualTo(10_000);
+        assertThat(store.selectPointById(0L)).isZero();
+        assertThat(store.selectPointById(5L)).isEqualTo(1L);
+        assertThat(store.selectById(9_999L).point()).isEqualTo(99_990L);
+    }
+}
@@ -0,0 +1,119 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.PointHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryIndexTest {
+    private PointHistoryTable pointHistoryTable;
+    private PointHistoryIndex pointHistoryIndex;
+    private final long time = System.currentTimeMillis();
+
+    @BeforeEach
+    void setUp() {
+        pointHistoryTable = new PointHistoryTable();
+        pointHistoryIndex = new PointHistoryIndex(pointHistoryTable);
+    }
+
+    @Test
+    void 유저별내역조회_테이블과_동일() {
+        // given
+        pointHistoryIndex.insert(1L, 100L, CHARGE, time);
+        pointHistoryIndex.insert(2L, 200L, CHARGE, time);
+        pointHistoryIndex.insert(1L, -50L, USE, time);
+
+        // when
+        List<PointHistory> histories = pointHistoryIndex.selectAllByUserId(1L);
+
+        // then
+        assertThat(histories).containsExactlyElementsOf(pointHistoryTable.selectAllByUserId(1L));
+        assertThat(histories).extracting(PointHistory::amount).containsExactly(100L, -50L);
+        assertThat(pointHistoryIndex.countByUserId(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void 내역없는유저_빈목록() {
+        assertThat(pointHistoryIndex.selectAllByUserId(3L)).isEmpty();
+        assertThat(pointHistoryIndex.hasHistory(3L)).isFalse();
+    }
+
+    @Test
+    void 내역id로_단건조회() {
+        // given
+        PointHistory first = pointHistoryIndex.insert(1L, 100L, CHARGE, time);
+        PointHistory second = pointHistoryIndex.insert(1L, -30L, USE, time);
+
+        // then
+        assertThat(pointHistoryIndex.selectById(1L, second.id())).isEqualTo(second);
+        assertThat(pointHistoryIndex.selectById(1L, first.id())).isEqualTo(first);
+        assertThat(pointHistoryIndex.selectById(2L, first.id())).isNull();
+    }
+
+    @Test
+    void 커서이후_내역_limit건_조회() {
+        // given
+        PointHistory first = pointHistoryIndex.insert(1L, 100L, CHARGE, time);
+        PointHistory second = pointHistoryIndex.insert(1L, 200L, CHARGE, time);
+        pointHistoryIndex.insert(2L, 999L, CHARGE, time);
+        PointHistory third = pointHistoryIndex.insert(1L, -50L, USE, time);
+
+        // then
+        assertThat(pointHistoryIndex.selectPage(1L, 0L, 2)).containsExactly(first, second);
+        assertThat(pointHistoryIndex.selectPage(1L, second.id(), 2)).containsExactly(third);
+        assertThat(pointHistoryIndex.selectPage(1L, third.id(), 2)).isEmpty();
+    }
+
+    @Test
+    void 기간조회_시작이상_종료미만() {
+        // given
+        PointHistory first = pointHistoryIndex.insert(1L, 100L, CHARGE, 1000L);
+        PointHistory second = pointHistoryIndex.insert(1L, -30L, USE, 2000L);
+        pointHistoryIndex.insert(2L, 999L, CHARGE, 2000L);
+        pointHistoryIndex.insert(1L, 200L, CHARGE, 3000L);
+
+        // then
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 1000L, 3000L, null)).containsExactly(first, second);
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 0L, Long.MAX_VALUE, USE)).containsExactly(second);
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 3001L, 4000L, null)).isEmpty();
+    }
+
+    /**
+     * 테스트 시나리오 : 늦은 시각으로 들어온 내역이 있어도 기간 조회는 시각 순서로 돌려준다.
+     */
+    @Test
+    void 기간조회_시각순서어긋나도_시각순서() {
+        // given
+        PointHistory first = pointHistoryIndex.insert(1L, 100L, CHARGE, 1000L);
+        PointHistory third = pointHistoryIndex.insert(1L, 300L, CHARGE, 3000L);
+        PointHistory second = pointHistoryIndex.insert(1L, 200L, CHARGE, 2000L);
+        PointHistory fourth = pointHistoryIndex.insert(1L, 400L, CHARGE, 4000L);
+
+        // then
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 1500L, 5000L, null)).containsExactly(second, third, fourth);
+        assertThat(pointHistoryIndex.selectAllByUserId(1L)).containsExactly(first, third, second, fourth);
+    }
+
+    /**
+     * 테스트 시나리오 : 시각 인덱스를 만든 뒤 id 가 늦게 도착해 목록 중간에 끼어도 기간 조회는 시각 순서를 지킨다.
+     */
+    @Test
+    void 기간조회_시각인덱스있을때_id늦게도착해도_시각순서() {
+        // given
+        PointHistory first = pointHistoryIndex.insert(10L, 1L, 100L, CHARGE, 3000L);
+        PointHistory third = pointHistoryIndex.insert(30L, 1L, 300L, CHARGE, 1000L);
+
+        // when
+        PointHistory second = pointHistoryIndex.insert(20L, 1L, 200L, CHARGE, 2000L);
+
+        // then
+        assertThat(pointHistoryIndex.selectAllByUserId(1L)).containsExactly(first, second, third);
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 0L, Long.MAX_VALUE, null)).containsExactly(third, second, first);
+        assertThat(pointHistoryIndex.selectByTimeRange(1L, 1500L, 3000L, null)).containsExactly(second);
+    }
+}
@@ -0,0 +1,80 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointHistoryWriterTest {
+    private PointHistoryIndex pointHistoryIndex;
+    private PointHistoryWriter pointHistoryWriter;
+    private final long time = System.currentTimeMillis();
+
+    @BeforeEach
+    void setUp() {
+        pointHistoryIndex = new PointHistoryIndex(new PointHistoryTable());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pointHistoryWriter != null) {
+            pointHistoryWriter.close();
+        }
+    }
+
+    @Test
+    void 동기모드_바로저장() {
+        // given
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryIndex);
+
+        // when
+        CompletableFuture<PointHistory> saved = pointHistoryWriter.append(1L, 100L, CHARGE, time);
+
+        // then
+        assertThat(saved).isCompleted();
+        assertThat(pointHistoryIndex.selectAllByUserId(1L)).hasSize(1);
+    }
+
+    @Test
+    void 비동기모드_유저별순서유지_flush후조회() {
+        // given
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryIndex, PointMetrics.standalone(), true, 2, 100,
+                PointHistoryWriter.OverflowPolicy.BLOCK);
+
+        // when
+        pointHistoryWriter.append(1L, 100L, CHARGE, time);
+        pointHistoryWriter.append(2L, 200L, CHARGE, time);
+        pointHistoryWriter.append(1L, -30L, USE, time);
+        pointHistoryWriter.awaitFlushed(1L);
+
+        // then
+        assertThat(pointHistoryIndex.selectAllByUserId(1L))
+                .extracting(PointHistory::amount)
+                .containsExactly(100L, -30L);
+    }
+
+    @Test
+    void 대기열초과_CALLER_RUNS_순서유지() {
+        // given : 대기열 크기 1
+        pointHistoryWriter = new PointHistoryWriter(pointHistoryIndex, PointMetrics.standalone(), true, 1, 1,
+                PointHistoryWriter.OverflowPolicy.CALLER_RUNS);
+
+        // when
+        for (int i = 1; i <= 5; i++) {
+            pointHistoryWriter.append(1L, i, CHARGE, time);
+        }
+        pointHistoryWriter.flush();
+
+        // then
+        assertThat(pointHistoryIndex.selectAllByUserId(1L))
+                .extracting(PointHistory::amount)
+                .containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+}
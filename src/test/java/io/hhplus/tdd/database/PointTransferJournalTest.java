@@ -0,0 +1,91 @@
+package io.hhplus.tdd.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_IN;
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_OUT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointTransferJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void commit안한_이체만_재시작후_pending() {
+        // given
+        try (PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L)) {
+            long committed = journal.prepare(out(1L, 3L), in(2L, 5L));
+            journal.commit(committed);
+            journal.prepare(out(3L, 7L), in(4L, 0L));
+        }
+
+        // when
+        try (PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L)) {
+
+            // then
+            assertThat(journal.pending()).hasSize(1);
+            PointTransferJournal.Pending pending = journal.pending().get(0);
+            assertThat(pending.from()).isEqualTo(out(3L, 7L));
+            assertThat(pending.to()).isEqualTo(in(4L, 0L));
+        }
+    }
+
+    /**
+     * 테스트 시나리오 : 쓰다 끊긴 레코드는 버리고, 그 뒤에 이어서 기록한 이체는 다음 재시작 때 온전히 읽힌다.
+     */
+    @Test
+    void 끊긴레코드는_버리고_이어서기록() throws IOException {
+        // given
+        try (PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L)) {
+            journal.prepare(out(1L, 3L), in(2L, 5L));
+        }
+        Path path = directory.resolve("transfers.log");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(PointTransferJournal.RECORD_SIZE - 10L);
+        }
+
+        // when
+        try (PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L)) {
+            assertThat(journal.pending()).isEmpty();
+            journal.prepare(out(3L, 7L), in(4L, 0L));
+        }
+
+        // then
+        try (PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L)) {
+            assertThat(journal.pending()).extracting(PointTransferJournal.Pending::from).containsExactly(out(3L, 7L));
+        }
+    }
+
+    @Test
+    void 진행중인_이체없으면_크기넘을때_비움() {
+        try (PointTransferJournal journal = new PointTransferJournal(directory, PointTransferJournal.RECORD_SIZE * 4L)) {
+            // given : 첫 이체가 끝나지 않은 동안에는 비우지 않는다.
+            long first = journal.prepare(out(1L, 0L), in(2L, 0L));
+            journal.commit(journal.prepare(out(3L, 0L), in(4L, 0L)));
+            assertThat(journal.size()).isEqualTo(PointTransferJournal.RECORD_SIZE * 3L);
+            journal.commit(journal.prepare(out(5L, 0L), in(6L, 0L)));
+            assertThat(journal.size()).isEqualTo(PointTransferJournal.RECORD_SIZE * 5L);
+
+            // when
+            journal.commit(first);
+
+            // then
+            assertThat(journal.size()).isZero();
+        }
+    }
+
+    private static PointTransferJournal.Leg out(long userId, long prevSeq) {
+        return new PointTransferJournal.Leg(userId, prevSeq, -100L, TRANSFER_OUT, 10L, 900L);
+    }
+
+    private static PointTransferJournal.Leg in(long userId, long prevSeq) {
+        return new PointTransferJournal.Leg(userId, prevSeq, 100L, TRANSFER_IN, 10L, 100L);
+    }
+}
@@ -0,0 +1,296 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointLedger;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.hhplus.tdd.point.PointWritePipeline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointWriteAheadLogTest {
+
+    private static final int SEGMENT_SIZE = PointWriteAheadLog.RECORD_SIZE * 100;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void 재시작시_잔액과_내역_복구() throws Exception {
+        // given
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, 1_000L, true)) {
+            wal.append(1L, 100L, CHARGE, 1L, 100L);
+            wal.append(2L, 300L, CHARGE, 2L, 300L);
+            wal.append(1L, -30L, USE, 3L, 70L);
+            wal.awaitDurable(1L).get(1, TimeUnit.SECONDS);
+        }
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, 1_000L, true)) {
+            PointWriteAheadLog.Recovery recovered = wal.recovered();
+
+            // then
+            assertThat(recovered.balances().get(1L).point()).isEqualTo(70L);
+            assertThat(recovered.balances().get(2L).point()).isEqualTo(300L);
+            assertThat(recovered.histories()).extracting(PointHistory::amount).containsExactly(100L, 300L, -30L);
+            assertThat(recovered.lastSeq()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void 스냅샷이후_tail만_다시적용() throws Exception {
+        // given : 세그먼트 여러 개에 걸쳐 기록하고 중간에 스냅샷을 남긴다.
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            for (int i = 1; i <= 250; i++) {
+                wal.append(i % 5, 10L, CHARGE, i, i * 10L);
+            }
+            wal.snapshot();
+            for (int i = 251; i <= 260; i++) {
+                wal.append(i % 5, 10L, CHARGE, i, i * 10L);
+            }
+        }
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            PointWriteAheadLog.Recovery recovered = wal.recovered();
+
+            // then
+            assertThat(recovered.snapshotSeq()).isEqualTo(250L);
+            assertThat(recovered.replayed()).isEqualTo(10);
+            assertThat(recovered.balances().get(0L).point()).isEqualTo(2600L);
+            assertThat(recovered.balances().get(1L).point()).isEqualTo(2560L);
+            assertThat(recovered.lastSeq()).isEqualTo(260L);
+        }
+    }
+
+    /**
+     * 테스트 시나리오 : 스냅샷에 반영된 유저도 재시작 후 마지막 레코드의 순번을 그대로 돌려준다. (이체 journal 복구가 이 순번으로 판단한다)
+     */
+    @Test
+    void 스냅샷으로_재시작해도_유저별_마지막순번_유지() throws Exception {
+        // given
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            wal.append(1L, 100L, CHARGE, 1L, 100L);
+            wal.append(2L, 100L, CHARGE, 2L, 100L);
+            wal.append(1L, -30L, USE, 3L, 70L);
+            wal.snapshot();
+            wal.append(2L, 50L, CHARGE, 4L, 150L);
+        }
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+
+            // then
+            assertThat(wal.recovered().snapshotSeq()).isEqualTo(3L);
+            assertThat(wal.lastSeqOf(1L)).isEqualTo(3L);
+            assertThat(wal.lastSeqOf(2L)).isEqualTo(4L);
+            assertThat(wal.lastSeqOf(3L)).isZero();
+        }
+    }
+
+    /**
+     * 테스트 시나리오 : 스냅샷에 반영된 세그먼트는 지워지고 내역은 아카이브로 남아, 내역 복구를 켜고 재시작하면 빠짐없이 돌아온다.
+     */
+    @Test
+    void 스냅샷에_반영된_세그먼트는_아카이브로_옮기고_지움() throws Exception {
+        // given
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            for (int i = 1; i <= 250; i++) {
+                wal.append(i % 5, 10L, CHARGE, i, i * 10L);
+            }
+            wal.snapshot();
+            for (int i = 251; i <= 260; i++) {
+                wal.append(i % 5, 10L, CHARGE, i, i * 10L);
+            }
+        }
+
+        // when
+        List<String> files = fileNames();
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, true)) {
+            PointWriteAheadLog.Recovery recovered = wal.recovered();
+
+            // then : 100건짜리 세그먼트 3개 중 앞의 2개가 아카이브로 바뀌었다.
+            assertThat(files).filteredOn(name -> name.startsWith("wal-")).hasSize(1);
+            assertThat(files).filteredOn(name -> name.startsWith("history-")).hasSize(2);
+            assertThat(recovered.histories()).extracting(PointHistory::id)
+                    .containsExactlyElementsOf(LongStream.rangeClosed(1L, 260L).boxed().toList());
+            assertThat(recovered.replayed()).isEqualTo(10);
+            assertThat(recovered.balances().get(0L).point()).isEqualTo(2600L);
+        }
+    }
+
+    @Test
+    void 세그먼트를_지우기전에_끊겨도_내역_중복없음() throws Exception {
+        // given : 아카이브를 남긴 뒤 세그먼트를 지우기 전에 끊긴 상황을 세그먼트를 되살려 만든다.
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            for (int i = 1; i <= 150; i++) {
+                wal.append(1L, 10L, CHARGE, i, i * 10L);
+            }
+        }
+        Path segment = firstSegment();
+        byte[] copy = Files.readAllBytes(segment);
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, false)) {
+            wal.snapshot();
+        }
+        Files.write(segment, copy);
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, Long.MAX_VALUE, true)) {
+            // then
+            assertThat(wal.recovered().histories()).extracting(PointHistory::id).doesNotHaveDuplicates().hasSize(150);
+        }
+    }
+
+    @Test
+    void 쓰다끊긴_레코드는_버림() throws Exception {
+        // given
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 0L, 1_000L, true)) {
+            wal.append(1L, 100L, CHARGE, 1L, 100L);
+            wal.append(1L, 50L, CHARGE, 2L, 150L);
+        }
+        // 두 번째 레코드의 잔액 부분을 망가뜨린다.
+        corrupt(firstSegment(), PointWriteAheadLog.RECORD_SIZE + 33);
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 0L, 1_000L, true)) {
+            // then
+            assertThat(wal.recovered().balances().get(1L).point()).isEqualTo(100L);
+            assertThat(wal.recovered().histories()).hasSize(1);
+        }
+    }
+
+    @Test
+    void 복구한_잔액과_내역을_캐시와_인덱스에_채움() throws Exception {
+        // given
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 0L, 1_000L, true)) {
+            wal.append(1L, 100L, CHARGE, 1L, 100L);
+        }
+        UserPointCache userPointCache = new UserPointCache(new UserPointTable());
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(new PointHistoryTable());
+
+        // when
+        try (PointWriteAheadLog ignored = new PointWriteAheadLog(userPointCache, pointHistoryIndex, true,
+                directory.toString(), 1, 0L, 1_000L, true)) {
+            PointHistory next = pointHistoryIndex.insert(1L, -40L, USE, 2L);
+
+            // then
+            assertThat(userPointCache.selectById(1L).point()).isEqualTo(100L);
+            // 새 내역 id 는 복구된 내역 id 뒤에 이어진다.
+            assertThat(pointHistoryIndex.selectAllByUserId(1L)).extracting(PointHistory::id).containsExactly(1L, next.id());
+            assertThat(next.id()).isGreaterThan(1L);
+        }
+    }
+
+    /**
+     * 테스트 시나리오 : 테이블이 매기는 id 와 WAL 순번이 어긋나 있어도, 실행 중에 저장한 내역 id 와 재시작 후 복구한 내역 id 가 같다.
+     * 다르면 재시작 전에 받은 커서로 이어서 조회할 때 내역을 건너뛰거나 중복해서 받는다.
+     */
+    @Test
+    void 재시작전후_내역id_같음() throws Exception {
+        // given : 테이블에는 이미 다른 내역이 있다.
+        PointHistoryTable pointHistoryTable = new PointHistoryTable();
+        pointHistoryTable.insert(9L, 1L, CHARGE, 0L);
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(pointHistoryTable);
+        List<PointHistory> live;
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 0L, 1_000L, true)) {
+            PointService pointService = pointService(pointHistoryIndex, wal);
+            pointService.chargePoints(1L, 100L, 1L);
+            pointService.chargePoints(2L, 200L, 2L);
+            pointService.usePoints(1L, 30L, 3L);
+            live = pointHistoryIndex.selectAllByUserId(1L);
+        }
+
+        // when
+        try (PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 0L, 1_000L, true)) {
+            PointHistoryIndex restored = new PointHistoryIndex(new PointHistoryTable());
+            restored.restore(wal.recovered().histories());
+
+            // then
+            assertThat(live).extracting(PointHistory::id).containsExactly(1L, 3L);
+            assertThat(restored.selectAllByUserId(1L)).containsExactlyElementsOf(live);
+        }
+    }
+
+    @Test
+    void 세그먼트크기_범위검사() {
+        assertThat(PointWriteAheadLog.segmentSize(PointWriteAheadLog.MAX_SEGMENT_SIZE_MB)).isPositive();
+        assertThatThrownBy(() -> PointWriteAheadLog.segmentSize(PointWriteAheadLog.MAX_SEGMENT_SIZE_MB + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PointWriteAheadLog.segmentSize(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 테스트 시나리오 : 세그먼트를 여러 번 교체해 매핑을 해제한 뒤에도 fsync 와 복구가 정상이고, 닫은 뒤에는 기록을 거절한다.
+     */
+    @Test
+    void 세그먼트교체후_닫으면_기록거절() throws Exception {
+        // given
+        PointWriteAheadLog wal = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, 1_000L, true);
+        for (int i = 1; i <= 350; i++) {
+            wal.append(1L, 1L, CHARGE, i, i);
+        }
+        wal.sync();
+
+        // when
+        wal.close();
+
+        // then
+        assertThatThrownBy(() -> wal.append(1L, 1L, CHARGE, 351L, 351L))
+                .isInstanceOf(IllegalStateException.class);
+        try (PointWriteAheadLog reopened = new PointWriteAheadLog(directory, SEGMENT_SIZE, 1L, 1_000L, true)) {
+            assertThat(reopened.recovered().lastSeq()).isEqualTo(350L);
+            assertThat(reopened.recovered().balances().get(1L).point()).isEqualTo(350L);
+        }
+    }
+
+    private static PointService pointService(PointHistoryStore pointHistoryStore, PointWriteAheadLog wal) {
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        PointRollup pointRollup = new PointRollup();
+        return new PointService(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryStore), new UserPointCache(new UserPointTable()),
+                new UserMailboxExecutor(), new StripedLockManager(), new PointLedger(), pointMetrics, wal, pointRollup,
+                PointExpiration.disabled(), new PointStreamHub(), PointAdmission.unlimited(), PointWriteMode.SERIAL,
+                0L, 1));
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    private Path firstSegment() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("wal-")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private void corrupt(Path segment, int position) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), position);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package io.hhplus.tdd.database;
+
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserPointCacheTest {
+    private UserPointTable userPointTable;
+    private UserPointCache userPointCache;
+
+    @BeforeEach
+    void setUp() {
+        userPointTable = new UserPointTable();
+        userPointCache = new UserPointCache(userPointTable, 2);
+    }
+
+    @Test
+    void 캐시조회_두번째부터_히트() {
+        // given
+        userPointTable.insertOrUpdate(1L, 500L);
+
+        // when
+        UserPoint first = userPointCache.selectById(1L);
+        UserPoint second = userPointCache.selectById(1L);
+
+        // then
+        assertThat(first.point()).isEqualTo(500L);
+        assertThat(second).isEqualTo(first);
+        assertThat(userPointCache.missCount()).isEqualTo(1L);
+        assertThat(userPointCache.hitCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void 저장시_테이블과_캐시_동시갱신() {
+        // when
+        userPointCache.insertOrUpdate(1L, 700L);
+
+        // then
+        assertThat(userPointTable.selectById(1L).point()).isEqualTo(700L);
+        assertThat(userPointCache.selectById(1L).point()).isEqualTo(700L);
+        assertThat(userPointCache.missCount()).isEqualTo(0L);
+    }
+
+    @Test
+    void 최대크기초과시_가장오래된유저_제거() {
+        // given
+        userPointCache.insertOrUpdate(1L, 100L);
+        userPointCache.insertOrUpdate(2L, 200L);
+        userPointCache.selectById(1L); // 1번 유저를 최근 사용으로 갱신
+
+        // when
+        userPointCache.insertOrUpdate(3L, 300L);
+
+        // then
+        assertThat(userPointCache.size()).isEqualTo(2);
+        assertThat(userPointCache.evictionCount()).isEqualTo(1L);
+
+        userPointCache.selectById(2L); // 제거된 유저는 다시 테이블에서 읽는다.
+        assertThat(userPointCache.missCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void 동시조회_테이블조회_한번() throws Exception {
+        // given
+        AtomicInteger tableCalls = new AtomicInteger();
+        UserPointTable countingTable = new UserPointTable() {
+            @Override
+            public UserPoint selectById(Long id) {
+                tableCalls.incrementAndGet();
+                return super.selectById(id);
+            }
+        };
+        countingTable.insertOrUpdate(1L, 500L);
+        UserPointCache cache = new UserPointCache(countingTable, 2);
+        int readers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+
+        // when
+        List<Future<UserPoint>> results = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return cache.selectById(1L);
+            }));
+        }
+        start.countDown();
+        for (Future<UserPoint> result : results) {
+            assertThat(result.get().point()).isEqualTo(500L);
+        }
+        executor.shutdown();
+
+        // then : 테이블 조회가 최대 200ms 걸리는 동안 들어온 조회는 모두 같은 결과를 받는다.
+        assertThat(tableCalls.get()).isLessThan(readers);
+        assertThat(cache.coalescedCount() + cache.hitCount() + tableCalls.get()).isEqualTo(readers);
+    }
+
+    @Test
+    void 조회중_저장하면_저장값이_우선() throws Exception {
+        // given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch saved = new CountDownLatch(1);
+        UserPointTable slowTable = new UserPointTable() {
+            @Override
+            public UserPoint selectById(Long id) {
+                UserPoint before = super.selectById(id);
+                loading.countDown();
+                try {
+                    saved.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return before;
+            }
+        };
+        UserPointCache cache = new UserPointCache(slowTable, 2);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when : 조회가 옛 값을 읽은 뒤 저장이 먼저 끝난다.
+        Future<UserPoint> reading = executor.submit(() -> cache.selectById(1L));
+        loading.await();
+        cache.insertOrUpdate(1L, 300L);
+        saved.countDown();
+
+        // then
+        assertThat(reading.get().point()).isEqualTo(300L);
+        assertThat(cache.selectById(1L).point()).isEqualTo(300L);
+        executor.shutdown();
+    }
+
+    @Test
+    void 캐시크기_0이하_생성실패() {
+        assertThatThrownBy(() -> new UserPointCache(userPointTable, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
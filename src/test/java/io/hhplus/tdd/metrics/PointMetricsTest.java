@@ -0,0 +1,159 @@
+package io.hhplus.tdd.metrics;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryIndex;
+import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.database.UserPointCache;
+import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointLedger;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.hhplus.tdd.point.PointWritePipeline;
+import io.hhplus.tdd.point.TransactionType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointMetricsTest {
+
+    @Test
+    void 충전시_지연과_락_테이블호출수_기록() {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointMetrics pointMetrics = new PointMetrics(registry);
+        PointService pointService = pointService(pointMetrics);
+
+        // when
+        pointService.chargePoints(1L, 100L, System.currentTimeMillis());
+
+        // then
+        assertThat(registry.get("point.operation").tag("operation", "charge").tag("outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.mailbox.wait").tag("operation", "charge").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.lock.wait").tag("operation", "charge").timer().count()).isEqualTo(1);
+        assertThat(registry.get("point.lock.hold").tag("operation", "charge").timer().count()).isEqualTo(1);
+        // 잔액 조회(캐시 미스) + 잔액 저장 + 내역 저장
+        DistributionSummary tableCalls = registry.get("point.table.calls.per.operation")
+                .tag("operation", "charge").summary();
+        assertThat(tableCalls.totalAmount()).isEqualTo(3);
+        assertThat(registry.get("point.table.calls").tag("table", "userPoint").tag("method", "selectById")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 실패한요청은_failure로_기록() {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointService pointService = pointService(new PointMetrics(registry));
+
+        // when
+        assertThatThrownBy(() -> pointService.usePoints(1L, 100L, System.currentTimeMillis()))
+                .isInstanceOf(IllegalStateException.class);
+
+        // then
+        Timer failure = registry.get("point.operation").tag("operation", "use").tag("outcome", "failure").timer();
+        assertThat(failure.count()).isEqualTo(1);
+    }
+
+    @Test
+    void 백분위는_기본으로_끔() {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointService pointService = pointService(new PointMetrics(registry));
+
+        // when
+        pointService.chargePoints(1L, 100L, System.currentTimeMillis());
+
+        // then
+        Timer timer = registry.get("point.operation").tag("operation", "charge").timer();
+        assertThat(timer.takeSnapshot().percentileValues()).isEmpty();
+        assertThat(timer.takeSnapshot().histogramCounts()).isEmpty();
+    }
+
+    /**
+     * 테스트 시나리오 : 설정으로 켜면 p50/p95/p99 를 남기고, 히스토그램 버킷이 µs 범위부터 시작해 µs 단위 기록이 가장 낮은 버킷 하나에 몰리지 않는다.
+     * SimpleMeterRegistry 는 히스토그램 버킷을 내보내지 않으므로 타이머에 실제로 적용된 버킷 경계를 본다.
+     */
+    @Test
+    void 백분위_켜면_µs단위로_기록() {
+        // given
+        Map<String, DistributionStatisticConfig> configs = new HashMap<>();
+        MeterRegistry registry = new SimpleMeterRegistry() {
+            @Override
+            protected Timer newTimer(Meter.Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+                configs.put(id.getName(), config);
+                return super.newTimer(id, config, pauseDetector);
+            }
+        };
+        PointMetrics pointMetrics = new PointMetrics(registry, true);
+
+        // when
+        pointMetrics.recordLockHold("charge", 2_000L);
+        pointMetrics.recordLockHold("charge", 50_000L);
+        pointMetrics.recordLockHold("charge", 800_000L);
+
+        // then
+        Timer timer = registry.get("point.lock.hold").tag("operation", "charge").timer();
+        assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+        NavigableSet<Double> buckets = configs.get("point.lock.hold").getHistogramBuckets(true);
+        // 2µs 와 50µs 가 서로 다른 버킷에 들어간다. (하한이 1ms 면 100µs 이하 버킷이 없다.)
+        assertThat(buckets.ceiling(2_000.0)).isLessThan(50_000.0);
+        assertThat(buckets.ceiling(50_000.0)).isLessThan(800_000.0);
+        assertThat(buckets.first()).isLessThanOrEqualTo(2_000.0);
+    }
+
+    /**
+     * 테스트 시나리오 : 비동기 내역 저장은 writer 스레드에서 일어나므로 요청한 기능이 아니라 historyWriter 로 센다.
+     */
+    @Test
+    void 비동기_내역저장은_writer스레드에서_기록() {
+        // given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        PointMetrics pointMetrics = new PointMetrics(registry);
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(new PointHistoryTable(), pointMetrics);
+
+        // when
+        try (PointHistoryWriter pointHistoryWriter = new PointHistoryWriter(pointHistoryIndex, pointMetrics, true, 1, 10,
+                PointHistoryWriter.OverflowPolicy.BLOCK)) {
+            pointHistoryWriter.append(1L, 100L, TransactionType.CHARGE, System.currentTimeMillis());
+            pointHistoryWriter.append(1L, -30L, TransactionType.USE, System.currentTimeMillis());
+            pointHistoryWriter.flush();
+        }
+
+        // then
+        DistributionSummary tableCalls = registry.get("point.table.calls.per.operation")
+                .tag("operation", "historyWriter").summary();
+        assertThat(tableCalls.count()).isEqualTo(2);
+        assertThat(tableCalls.totalAmount()).isEqualTo(2);
+    }
+
+    private PointService pointService(PointMetrics pointMetrics) {
+        PointHistoryIndex pointHistoryIndex = new PointHistoryIndex(new PointHistoryTable(), pointMetrics);
+        UserPointCache userPointCache = new UserPointCache(new UserPointTable(), UserPointCache.DEFAULT_MAX_SIZE, pointMetrics);
+        PointRollup pointRollup = new PointRollup();
+        return new PointService(pointHistoryIndex, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryIndex), userPointCache, new UserMailboxExecutor(),
+                new StripedLockManager(), new PointLedger(), pointMetrics, new PointWriteAheadLog(), pointRollup,
+                PointExpiration.disabled(), new PointStreamHub(), PointAdmission.unlimited(),
+                PointWriteMode.SERIAL, 0L, 1));
+    }
+}
@@ -0,0 +1,174 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.concurrent.StripedLockManager;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.ColumnarPointHistoryStore;
+import io.hhplus.tdd.database.ColumnarUserPointStore;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointLedger;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointWriteMode;
+import io.hhplus.tdd.point.PointWritePipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.EXPIRE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class PointExpirationTest {
+    private static final long TTL = TimeUnit.DAYS.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // 내역 시각은 반영할 때의 현재 시각보다 이르게 찍히지 않는다. 테스트가 넘긴 시각이 그대로 쓰이도록 미래로 잡는다.
+    private final long time = System.currentTimeMillis() + HOUR;
+    private final ColumnarPointHistoryStore pointHistoryStore = new ColumnarPointHistoryStore();
+    private final UserMailboxExecutor userMailboxExecutor = new UserMailboxExecutor();
+    private final PointExpiration pointExpiration = new PointExpiration(TTL, 1000L, false);
+    private final PointRollup pointRollup = new PointRollup();
+
+    @AfterEach
+    void tearDown() {
+        userMailboxExecutor.close();
+    }
+
+    /**
+     * 테스트 시나리오 : 사용한 포인트는 먼저 충전한 lot 에서 빠지고, 만료 시각이 지나면 그 lot 의 남은 포인트만 소멸된다.
+     */
+    @Test
+    void 만료시각지나면_남은포인트만_소멸() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.SERIAL);
+        pointService.chargePoints(1L, 1000L, time);
+        pointService.chargePoints(1L, 500L, time + HOUR);
+        pointService.usePoints(1L, 300L, time + 2 * HOUR);
+
+        // when : 첫 번째 lot 만 만료
+        pointExpiration.expireDue(time + TTL + 1000L);
+
+        // then
+        assertThat(pointService.searchRestPoints(1L)).isEqualTo(500L);
+        assertThat(pointHistoryStore.selectAllByUserId(1L))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(CHARGE, 1000L), tuple(CHARGE, 500L), tuple(USE, -300L), tuple(EXPIRE, -700L));
+        assertThat(pointExpiration.remainingLotPoints(1L)).isEqualTo(500L);
+        assertThat(pointRollup.summaryOf(1L).totalExpired()).isEqualTo(700L);
+
+        // 두 번째 lot 도 만료
+        pointExpiration.expireDue(time + HOUR + TTL + 1000L);
+        assertThat(pointService.searchRestPoints(1L)).isZero();
+        assertThat(pointExpiration.expiredPoints()).isEqualTo(1200L);
+    }
+
+    @Test
+    void 만료전_모두사용하면_소멸없음() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.SERIAL);
+        pointService.chargePoints(1L, 1000L, time);
+        pointService.usePoints(1L, 1000L, time + HOUR);
+
+        // when
+        pointExpiration.expireDue(time + TTL + 1000L);
+
+        // then
+        assertThat(pointService.searchRestPoints(1L)).isZero();
+        assertThat(pointHistoryStore.selectAllByUserId(1L)).extracting(PointHistory::type).doesNotContain(EXPIRE);
+        assertThat(pointExpiration.scheduledCount()).isZero();
+    }
+
+    @Test
+    void 만료시각전에는_그대로() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.SERIAL);
+        pointService.chargePoints(1L, 1000L, time);
+
+        // when
+        pointExpiration.expireDue(time + TTL - HOUR);
+
+        // then
+        assertThat(pointService.searchRestPoints(1L)).isEqualTo(1000L);
+        assertThat(pointExpiration.scheduledCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void 그룹커밋모드_여러유저_한번에_소멸() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.GROUP_COMMIT);
+        for (long userId = 1; userId <= 50; userId++) {
+            pointService.chargePoints(userId, 100L * userId, time);
+        }
+        pointService.usePoints(7L, 200L, time + HOUR);
+
+        // when
+        pointExpiration.expireDue(time + TTL + 1000L);
+
+        // then
+        for (long userId = 1; userId <= 50; userId++) {
+            assertThat(pointService.searchRestPoints(userId)).isZero();
+        }
+        assertThat(pointRollup.summaryOf(7L).totalExpired()).isEqualTo(500L);
+    }
+
+    /**
+     * 테스트 시나리오 : 보낸 이체는 보낸 쪽의 먼저 충전한 lot 에서 빠지고, 받은 쪽에는 받은 시각 기준의 새 lot 이 된다.
+     */
+    @Test
+    void 이체는_오래된lot에서_빠지고_받는쪽은_새lot() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.SERIAL);
+        pointService.chargePoints(1L, 1000L, time);
+        pointService.chargePoints(1L, 500L, time + HOUR);
+
+        // when
+        pointService.transfer(1L, 2L, 400L, time + 2 * HOUR);
+
+        // then : 첫 번째 lot 의 남은 600 만 소멸되고 받은 400 은 아직 남는다.
+        assertThat(pointExpiration.remainingLotPoints(1L)).isEqualTo(1100L);
+        assertThat(pointExpiration.remainingLotPoints(2L)).isEqualTo(400L);
+        pointExpiration.expireDue(time + TTL + 1000L);
+        assertThat(pointService.searchRestPoints(1L)).isEqualTo(500L);
+        assertThat(pointService.searchRestPoints(2L)).isEqualTo(400L);
+        assertThat(pointRollup.summaryOf(1L).totalExpired()).isEqualTo(600L);
+    }
+
+    /**
+     * 테스트 시나리오 : lot 을 모두 사용하거나 만료된 유저는 lot 대기열이 지워져, 충전한 적 있는 유저 수만큼 쌓이지 않는다.
+     */
+    @Test
+    void lot이_비면_유저항목_제거() {
+        // given
+        PointService pointService = pointServiceOf(PointWriteMode.SERIAL);
+        pointService.chargePoints(1L, 1000L, time);
+        pointService.chargePoints(2L, 500L, time);
+        pointService.chargePoints(3L, 300L, time + 2 * TTL);
+        assertThat(pointExpiration.trackedUsers()).isEqualTo(3);
+
+        // when
+        pointService.usePoints(1L, 1000L, time + HOUR);
+        pointExpiration.expireDue(time + TTL + 1000L);
+
+        // then : 남은 lot 이 있는 3번 유저만 남는다.
+        assertThat(pointService.searchRestPoints(2L)).isZero();
+        assertThat(pointExpiration.trackedUsers()).isEqualTo(1);
+        assertThat(pointExpiration.remainingLotPoints(3L)).isEqualTo(300L);
+    }
+
+    private PointService pointServiceOf(PointWriteMode writeMode) {
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        return new PointService(pointHistoryStore, pointRollup, pointMetrics, new PointWritePipeline(
+                new PointHistoryWriter(pointHistoryStore), new ColumnarUserPointStore(), userMailboxExecutor,
+                new StripedLockManager(), new PointLedger(), pointMetrics, new PointWriteAheadLog(), pointRollup,
+                pointExpiration, new PointStreamHub(), PointAdmission.unlimited(), writeMode, 0L, 1));
+    }
+}
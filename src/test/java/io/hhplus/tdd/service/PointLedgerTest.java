@@ -0,0 +1,141 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.point.PointLedger;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PointLedgerTest {
+    private static final long MAX_POINT = 10000L;
+
+    private final PointLedger pointLedger = new PointLedger();
+
+    @Test
+    void 한도초과_충전실패() {
+        pointLedger.apply(1L, 9000L, MAX_POINT, () -> 0L);
+
+        assertThatThrownBy(() -> pointLedger.apply(1L, 1001L, MAX_POINT, () -> 0L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("이미 최대 포인트 입니다.");
+        assertThat(pointLedger.balanceOf(1L)).isEqualTo(9000L);
+    }
+
+    @Test
+    void 잔액부족_사용실패() {
+        assertThatThrownBy(() -> pointLedger.apply(1L, -1L, MAX_POINT, () -> 0L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("포인트가 부족합니다.");
+    }
+
+    @Test
+    void 변경이있을때만_저장() {
+        // given
+        long[] saved = {-1L};
+        pointLedger.apply(1L, 100L, MAX_POINT, () -> 0L);
+        pointLedger.apply(1L, 200L, MAX_POINT, () -> 0L);
+
+        // when
+        boolean first = pointLedger.syncIfDirty(1L, balance -> saved[0] = balance);
+        boolean second = pointLedger.syncIfDirty(1L, balance -> saved[0] = balance);
+
+        // then : 밀린 변경 두 번이 최신 잔액 한 번으로 저장된다.
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(saved[0]).isEqualTo(300L);
+    }
+
+    @Test
+    void 저장한뒤_바뀌지않았으면_원장에서_내림() {
+        // given
+        long[] saved = {-1L};
+        pointLedger.apply(1L, 100L, MAX_POINT, () -> 0L);
+
+        // when
+        boolean beforeSync = pointLedger.evictIfSynced(1L);
+        pointLedger.syncIfDirty(1L, balance -> saved[0] = balance);
+        boolean afterSync = pointLedger.evictIfSynced(1L);
+
+        // then : 저장하기 전에는 내리지 않고, 저장한 뒤에는 내린 뒤 다음 요청이 저장 사본에서 다시 읽는다.
+        assertThat(beforeSync).isFalse();
+        assertThat(afterSync).isTrue();
+        assertThat(pointLedger.size()).isZero();
+        assertThat(pointLedger.balanceOf(1L)).isNull();
+        assertThat(pointLedger.apply(1L, 50L, MAX_POINT, () -> saved[0])).isEqualTo(150L);
+    }
+
+    /**
+     * 테스트 시나리오 : 원장에서 내리기 전에 계정을 잡아둔 요청도 잃어버리지 않는다.
+     * 내리는 쪽과 충전하는 쪽이 동시에 돌아도 최종 잔액은 저장 사본 + 성공한 충전 합계다.
+     */
+    @Test
+    void 동시성_내리는중_충전해도_잃지않음() throws InterruptedException {
+        // given
+        AtomicLong table = new AtomicLong();
+        Object userLock = new Object();
+        Runnable syncAndEvict = () -> {
+            // 같은 유저의 저장/내리기는 직렬화된 상태에서 부른다. (서비스에서는 stripe 락)
+            synchronized (userLock) {
+                pointLedger.syncIfDirty(1L, table::set);
+                pointLedger.evictIfSynced(1L);
+            }
+        };
+
+        // when
+        int charged = runConcurrently(2000, () -> {
+            pointLedger.apply(1L, 1L, MAX_POINT, table::get);
+            syncAndEvict.run();
+        });
+        syncAndEvict.run();
+
+        // then
+        assertThat(charged).isEqualTo(2000);
+        assertThat(table.get()).isEqualTo(2000L);
+    }
+
+    /**
+     * 테스트 시나리오 : 2000개의 동시 충전(10포인트)이 들어오면 한도(10000)까지 정확히 1000개만 성공하고,
+     * 이어서 2000개의 동시 사용(10포인트)이 들어오면 0 까지 정확히 1000개만 성공한다.
+     */
+    @Test
+    void 동시성_한도와잔액_원자적검사() throws InterruptedException {
+        int callers = 2000;
+
+        assertThat(runConcurrently(callers, () -> pointLedger.apply(1L, 10L, MAX_POINT, () -> 0L))).isEqualTo(1000);
+        assertThat(pointLedger.balanceOf(1L)).isEqualTo(MAX_POINT);
+
+        assertThat(runConcurrently(callers, () -> pointLedger.apply(1L, -10L, MAX_POINT, () -> 0L))).isEqualTo(1000);
+        assertThat(pointLedger.balanceOf(1L)).isZero();
+    }
+
+    private int runConcurrently(int callers, Runnable action) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successCount = new AtomicInteger();
+        for (int i = 0; i < callers; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    action.run();
+                    successCount.incrementAndGet();
+                } catch (IllegalStateException ignored) {
+                    // 한도 초과/잔액 부족으로 거절된 요청
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return successCount.get();
+    }
+}
@@ -0,0 +1,89 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointRollupTest {
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    private final PointRollup pointRollup = new PointRollup(ZONE, 3);
+
+    @Test
+    void 집계없는유저_0() {
+        PointSummary summary = pointRollup.summaryOf(1L);
+
+        assertThat(summary.totalCharged()).isZero();
+        assertThat(summary.totalUsed()).isZero();
+        assertThat(summary.daily()).isEmpty();
+    }
+
+    @Test
+    void 날짜별로_나눠_집계() {
+        // given : 같은 UTC 날짜라도 시간대 기준으로는 다른 날이다.
+        pointRollup.record(1L, 1000L, CHARGE, millisOf(2024, 1, 1, 23));
+        pointRollup.record(1L, -300L, USE, millisOf(2024, 1, 2, 1));
+        pointRollup.record(1L, 200L, CHARGE, millisOf(2024, 1, 2, 9));
+
+        // when
+        PointSummary summary = pointRollup.summaryOf(1L);
+
+        // then
+        assertThat(summary.totalCharged()).isEqualTo(1200L);
+        assertThat(summary.totalUsed()).isEqualTo(300L);
+        assertThat(summary.daily()).containsExactly(
+                new PointSummary.Daily(LocalDate.of(2024, 1, 1), 1000L, 0L, 1L, 0L),
+                new PointSummary.Daily(LocalDate.of(2024, 1, 2), 200L, 300L, 1L, 1L));
+    }
+
+    @Test
+    void 보관기간_지난날_일별에서만_빠짐() {
+        // given : 보관 기간 3일
+        pointRollup.record(1L, 100L, CHARGE, millisOf(2024, 1, 1, 12));
+        pointRollup.record(1L, 100L, CHARGE, millisOf(2024, 1, 2, 12));
+        pointRollup.record(1L, 100L, CHARGE, millisOf(2024, 1, 4, 12));
+
+        // when
+        PointSummary summary = pointRollup.summaryOf(1L);
+
+        // then
+        assertThat(summary.totalCharged()).isEqualTo(300L);
+        assertThat(summary.daily()).extracting(PointSummary.Daily::date)
+                .containsExactly(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4));
+
+        // 보관 기간보다 늦게 도착한 거래는 누적 합계에만 반영된다.
+        pointRollup.record(1L, 100L, CHARGE, millisOf(2024, 1, 1, 13));
+        assertThat(pointRollup.summaryOf(1L).totalCharged()).isEqualTo(400L);
+        assertThat(pointRollup.summaryOf(1L).daily()).hasSize(2);
+    }
+
+    @Test
+    void 복구한내역으로_다시집계() {
+        // given
+        long time = millisOf(2024, 1, 1, 12);
+
+        // when
+        pointRollup.restore(List.of(
+                new PointHistory(1L, 1L, 1000L, CHARGE, time),
+                new PointHistory(2L, 2L, 500L, CHARGE, time),
+                new PointHistory(3L, 1L, -400L, USE, time)));
+
+        // then
+        assertThat(pointRollup.summaryOf(1L).totalUsed()).isEqualTo(400L);
+        assertThat(pointRollup.summaryOf(2L).chargeCount()).isEqualTo(1L);
+        assertThat(pointRollup.size()).isEqualTo(2);
+    }
+
+    private long millisOf(int year, int month, int day, int hour) {
+        return LocalDate.of(year, month, day).atTime(hour, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+}
@@ -1,22 +1,38 @@
 package io.hhplus.tdd.service;
 
+import io.hhplus.tdd.concurrent.PointRequestExecutor;
+import io.hhplus.tdd.concurrent.UserMailboxExecutor;
+import io.hhplus.tdd.database.PointHistoryIndex;
 import io.hhplus.tdd.database.PointHistoryTable;
+import io.hhplus.tdd.database.UserPointCache;
 import io.hhplus.tdd.database.UserPointTable;
+import io.hhplus.tdd.point.PointBatchOperation;
+import io.hhplus.tdd.point.PointBatchResponse;
 import io.hhplus.tdd.point.PointHistory;
 import io.hhplus.tdd.point.PointService;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.PointTransferResult;
+import io.hhplus.tdd.point.PointWriteMode;
 import io.hhplus.tdd.point.UserPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_IN;
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_OUT;
+import static io.hhplus.tdd.point.TransactionType.USE;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
@@ -240,4 +256,265 @@ public class PointServiceTest {
             assertEquals(i, processedOrder.get(i), "처리된 순서가 올바르지 않습니다.");
         }
     }
+
+    /**
+     * 테스트 시나리오 : group commit 모드에서 같은 유저의 요청 3개가 한 번에 반영될 때
+     * 한도를 넘는 요청만 실패하고, 나머지는 각자 자신의 결과와 내역을 가지는지 확인
+     */
+    @Test
+    void 그룹커밋_요청별결과_유지() {
+        // given
+        long userId = 1L;
+        userPointTable.insertOrUpdate(userId, 0L);
+        PointService groupCommitService = new PointService(new PointHistoryIndex(pointHistoryTable),
+                new UserPointCache(userPointTable), new UserMailboxExecutor(), PointWriteMode.GROUP_COMMIT, 100L, 10);
+
+        // when
+        CompletableFuture<Long> charge = groupCommitService.chargePointsAsync(userId, 1000L, time);
+        CompletableFuture<Long> overCharge = groupCommitService.chargePointsAsync(userId, 9500L, time);
+        CompletableFuture<Long> use = groupCommitService.usePointsAsync(userId, 300L, time);
+
+        // then
+        assertThat(charge.join()).isEqualTo(1000L);
+        assertThatThrownBy(overCharge::join)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("이미 최대 포인트 입니다.");
+        assertThat(use.join()).isEqualTo(700L);
+
+        assertThat(userPointTable.selectById(userId).point()).isEqualTo(700L);
+        assertThat(pointHistoryTable.selectAllByUserId(userId))
+                .extracting(PointHistory::amount)
+                .containsExactly(1000L, -300L);
+    }
+
+    /**
+     * 테스트 시나리오 : 메일박스에서 차례를 기다리던 충전이 비동기 API 타임아웃으로 먼저 실패하면, 차례가 와도 반영하지 않는다.
+     */
+    @Test
+    void 비동기타임아웃_대기중이던_충전은_반영안됨() throws Exception {
+        // given
+        long userId = 1L;
+        UserMailboxExecutor mailbox = new UserMailboxExecutor();
+        PointService mailboxService = new PointService(new PointHistoryIndex(pointHistoryTable),
+                new UserPointCache(userPointTable), mailbox, PointWriteMode.SERIAL, 0L, 1);
+        PointRequestExecutor requestExecutor = new PointRequestExecutor(1, 1, 50L, false);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CompletableFuture<Long> ahead = mailbox.submit(userId, () -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0L;
+        });
+
+        // when
+        CompletableFuture<Long> charge = requestExecutor.withTimeout(mailboxService.chargePointsAsync(userId, 1000L, time));
+        assertThatThrownBy(charge::join).hasCauseInstanceOf(TimeoutException.class);
+        blocked.countDown();
+        ahead.join();
+        // 같은 메일박스 뒤에 줄을 세워, 앞선 충전 명령의 차례가 지나갔음을 확인한다.
+        mailbox.submit(userId, () -> 0L).join();
+
+        // then
+        assertThat(mailboxService.searchRestPoints(userId)).isEqualTo(0L);
+        assertThat(pointHistoryTable.selectAllByUserId(userId)).isEmpty();
+        requestExecutor.close();
+        mailbox.close();
+    }
+
+    /**
+     * 테스트 시나리오 : LEDGER 모드는 CAS 직후에 응답하고 내역은 메일박스에서 뒤따라 남긴다.
+     * consistent 조회는 응답을 받은 충전의 내역이 남을 때까지 기다렸다가 조회한다.
+     */
+    @Test
+    void 원장모드_일관조회_응답받은충전의_내역포함() throws Exception {
+        // given
+        long userId = 1L;
+        UserMailboxExecutor mailbox = new UserMailboxExecutor();
+        PointService ledgerService = new PointService(new PointHistoryIndex(pointHistoryTable),
+                new UserPointCache(userPointTable), mailbox, PointWriteMode.LEDGER, 0L, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        mailbox.submit(userId, () -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0L;
+        });
+
+        // when : 메일박스가 막혀 있어도 충전은 응답을 받는다.
+        long charged = ledgerService.chargePoints(userId, 1000L, time);
+        CompletableFuture<PointHistory[]> consistent = CompletableFuture.supplyAsync(
+                () -> ledgerService.searchPointhistory(userId, true));
+        Thread.sleep(100L);
+        boolean answeredBeforeSync = consistent.isDone();
+        blocked.countDown();
+
+        // then
+        assertThat(charged).isEqualTo(1000L);
+        assertThat(answeredBeforeSync).isFalse();
+        assertThat(consistent.get(5, TimeUnit.SECONDS))
+                .extracting(PointHistory::amount)
+                .containsExactly(1000L);
+        mailbox.close();
+    }
+
+    /**
+     * 테스트 시나리오 : 두 유저의 요청이 섞여 들어올 때 유저별 순서대로 처리되고, 실패한 건만 에러로 돌아오는지 확인
+     */
+    @Test
+    void 일괄처리_유저별순서유지_건별결과() {
+        // when
+        PointBatchResponse response = pointService.executeBatch(List.of(
+                new PointBatchOperation(1L, CHARGE, 1000L),
+                new PointBatchOperation(2L, CHARGE, 300L),
+                new PointBatchOperation(1L, USE, 400L),
+                new PointBatchOperation(2L, USE, 500L)
+        ));
+
+        // then
+        assertThat(response.successCount()).isEqualTo(3);
+        assertThat(response.results().get(0).point()).isEqualTo(1000L);
+        assertThat(response.results().get(2).point()).isEqualTo(600L);
+        assertThat(response.results().get(3).error().message()).isEqualTo("포인트가 부족합니다.");
+        assertThat(pointService.searchRestPoints(2L)).isEqualTo(300L);
+    }
+
+    @Test
+    void 포인트집계_충전사용_누적() {
+        // given
+        pointService.chargePoints(1L, 1000L, time);
+        pointService.usePoints(1L, 300L, time);
+        pointService.chargePoints(1L, 500L, time);
+
+        // when
+        PointSummary summary = pointService.searchPointSummary(1L);
+
+        // then
+        assertThat(summary.totalCharged()).isEqualTo(1500L);
+        assertThat(summary.totalUsed()).isEqualTo(300L);
+        assertThat(summary.chargeCount()).isEqualTo(2L);
+        assertThat(summary.useCount()).isEqualTo(1L);
+        assertThat(summary.daily()).hasSize(1);
+        assertThat(summary.totalCharged() - summary.totalUsed()).isEqualTo(pointService.searchRestPoints(1L));
+    }
+
+    /**
+     * 테스트 시나리오 : 대기 전에 잡은 요청 시각이 앞 요청보다 이르더라도, 내역 시각은 반영 순서대로 찍힌다.
+     */
+    @Test
+    void 내역시각_반영순서대로() {
+        // given
+        pointService.chargePoints(1L, 1000L, time);
+
+        // when
+        pointService.usePoints(1L, 300L, time - 5000L);
+
+        // then
+        PointHistory[] histories = pointService.searchPointhistory(1L);
+        assertThat(histories[1].updateMillis()).isGreaterThanOrEqualTo(histories[0].updateMillis());
+        assertThat(pointService.searchPointhistory(1L, time, Long.MAX_VALUE, null, false))
+                .extracting(PointHistory::type)
+                .containsExactly(CHARGE, USE);
+    }
+
+    @Test
+    void 포인트이체성공_양쪽잔액과내역() {
+        // given
+        userPointTable.insertOrUpdate(1L, 1000L);
+        userPointTable.insertOrUpdate(2L, 500L);
+
+        // when
+        PointTransferResult result = pointService.transfer(1L, 2L, 300L, time);
+
+        // then
+        assertThat(result.fromPoint()).isEqualTo(700L);
+        assertThat(result.toPoint()).isEqualTo(800L);
+        assertThat(userPointTable.selectById(1L).point()).isEqualTo(700L);
+        assertThat(userPointTable.selectById(2L).point()).isEqualTo(800L);
+        assertThat(pointHistoryTable.selectAllByUserId(1L)).extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(TRANSFER_OUT, -300L));
+        assertThat(pointHistoryTable.selectAllByUserId(2L)).extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(TRANSFER_IN, 300L));
+        assertThat(pointService.searchPointSummary(2L).totalTransferredIn()).isEqualTo(300L);
+    }
+
+    @Test
+    void 포인트이체실패_잔액부족_양쪽그대로() {
+        // given
+        userPointTable.insertOrUpdate(1L, 100L);
+
+        // when, then
+        assertThatThrownBy(() -> pointService.transfer(1L, 2L, 300L, time))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("포인트가 부족합니다.");
+        assertThat(pointService.searchRestPoints(1L)).isEqualTo(100L);
+        assertThat(pointService.searchRestPoints(2L)).isZero();
+        assertThat(pointHistoryTable.selectAllByUserId(1L)).isEmpty();
+    }
+
+    @Test
+    void 포인트이체실패_받는쪽한도초과_양쪽그대로() {
+        // given
+        userPointTable.insertOrUpdate(1L, 1000L);
+        userPointTable.insertOrUpdate(2L, 9500L);
+
+        // when, then
+        assertThatThrownBy(() -> pointService.transfer(1L, 2L, 600L, time))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("이미 최대 포인트 입니다.");
+        assertThat(pointService.searchRestPoints(1L)).isEqualTo(1000L);
+        assertThat(pointService.searchRestPoints(2L)).isEqualTo(9500L);
+        assertThat(pointHistoryTable.selectAllByUserId(1L)).isEmpty();
+        assertThat(pointHistoryTable.selectAllByUserId(2L)).isEmpty();
+    }
+
+    @Test
+    void 포인트이체실패_자기자신() {
+        assertThatThrownBy(() -> pointService.transfer(1L, 1L, 100L, time))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("자기 자신에게는 이체할 수 없습니다.");
+    }
+
+    /**
+     * 테스트 시나리오 : 세 유저가 1->2, 2->3, 3->1 로 동시에 엇갈려 이체해도 교착 없이 끝나고 총합이 유지된다.
+     */
+    @Test
+    void 동시성_교차이체_교착없음_총합유지() throws InterruptedException {
+        // given
+        for (long userId = 1; userId <= 3; userId++) {
+            userPointTable.insertOrUpdate(userId, 1000L);
+        }
+        int repeats = 5;
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch latch = new CountDownLatch(3 * repeats);
+
+        // when
+        for (int i = 0; i < repeats; i++) {
+            for (long from = 1; from <= 3; from++) {
+                long sender = from;
+                long receiver = from % 3 + 1;
+                executor.submit(() -> {
+                    try {
+                        pointService.transfer(sender, receiver, 10L, System.currentTimeMillis());
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+
+        // then
+        assertThat(latch.await(60, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        long total = 0;
+        for (long userId = 1; userId <= 3; userId++) {
+            assertThat(pointService.searchRestPoints(userId)).isEqualTo(1000L);
+            assertThat(pointHistoryTable.selectAllByUserId(userId)).hasSize(repeats * 2);
+            total += pointService.searchRestPoints(userId);
+        }
+        assertThat(total).isEqualTo(3000L);
+    }
 }
@@ -0,0 +1,353 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.concurrent.PointAdmission;
+import io.hhplus.tdd.database.PointHistoryWriter;
+import io.hhplus.tdd.database.PointStoreType;
+import io.hhplus.tdd.database.PointTransferJournal;
+import io.hhplus.tdd.database.PointWriteAheadLog;
+import io.hhplus.tdd.metrics.PointMetrics;
+import io.hhplus.tdd.point.PointBatchOperation;
+import io.hhplus.tdd.point.PointBatchResponse;
+import io.hhplus.tdd.point.PointExpiration;
+import io.hhplus.tdd.point.PointHistory;
+import io.hhplus.tdd.point.PointRollup;
+import io.hhplus.tdd.point.PointShard;
+import io.hhplus.tdd.point.PointShardRouter;
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.PointSummary;
+import io.hhplus.tdd.point.PointTransferResult;
+import io.hhplus.tdd.point.PointWriteMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.hhplus.tdd.point.TransactionType.CHARGE;
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_OUT;
+import static io.hhplus.tdd.point.TransactionType.TRANSFER_IN;
+import static io.hhplus.tdd.point.TransactionType.USE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class PointShardRouterTest {
+    private static final int SHARDS = 4;
+
+    private PointShardRouter pointShardRouter;
+    private final long time = System.currentTimeMillis();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        List<PointShard> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new PointShard(i, PointStoreType.TABLE, 4, false, 1000, 64, PointWriteMode.SERIAL, 0L, 1,
+                    pointMetrics));
+        }
+        pointShardRouter = new PointShardRouter(shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pointShardRouter.close();
+    }
+
+    @Test
+    void 같은유저_항상같은샤드() {
+        for (long userId = 1; userId <= 1000; userId++) {
+            assertThat(pointShardRouter.route(userId)).isSameAs(pointShardRouter.route(userId));
+        }
+    }
+
+    @Test
+    void 연속된유저_샤드에_고르게분산() {
+        // given
+        int[] counts = new int[SHARDS];
+
+        // when
+        for (long userId = 1; userId <= 10000; userId++) {
+            counts[pointShardRouter.shardOf(userId)]++;
+        }
+
+        // then : 샤드당 2500 명 기준 ±10% 안에 든다.
+        for (int count : counts) {
+            assertThat(count).isBetween(2250, 2750);
+        }
+    }
+
+    @Test
+    void 샤드별_상태분리() {
+        // given
+        long first = 1L;
+        long second = 2L;
+        while (pointShardRouter.shardOf(second) == pointShardRouter.shardOf(first)) {
+            second++;
+        }
+
+        // when
+        pointShardRouter.route(first).chargePoints(first, 1000L, time);
+        pointShardRouter.route(second).chargePoints(second, 300L, time);
+
+        // then : 담당 샤드에서만 잔액과 내역이 보인다.
+        assertThat(pointShardRouter.route(first).searchRestPoints(first)).isEqualTo(1000L);
+        assertThat(pointShardRouter.route(second).searchRestPoints(second)).isEqualTo(300L);
+        assertThat(pointShardRouter.route(second).searchRestPoints(first)).isZero();
+        assertThat(pointShardRouter.route(second).searchPointhistory(first)).isEmpty();
+    }
+
+    @Test
+    void 배치_여러샤드에걸쳐_요청순서대로결과() {
+        // given
+        List<PointBatchOperation> operations = new ArrayList<>();
+        for (long userId = 1; userId <= 20; userId++) {
+            operations.add(new PointBatchOperation(userId, CHARGE, 100L));
+            operations.add(new PointBatchOperation(userId, USE, 30L));
+        }
+        operations.add(new PointBatchOperation(1L, USE, 1000L));
+
+        // when
+        PointBatchResponse response = pointShardRouter.executeBatch(operations);
+
+        // then
+        assertThat(response.successCount()).isEqualTo(40);
+        assertThat(response.failureCount()).isEqualTo(1);
+        for (long userId = 1; userId <= 20; userId++) {
+            assertThat(pointShardRouter.route(userId).searchRestPoints(userId)).isEqualTo(70L);
+        }
+    }
+
+    @Test
+    void 다른샤드_이체() {
+        // given
+        long from = 1L;
+        long to = otherShardUserOf(from);
+        pointShardRouter.route(from).chargePoints(from, 1000L, time);
+
+        // when
+        PointTransferResult result = pointShardRouter.transfer(from, to, 400L, time);
+
+        // then
+        assertThat(result.fromPoint()).isEqualTo(600L);
+        assertThat(result.toPoint()).isEqualTo(400L);
+        assertThat(pointShardRouter.route(to).searchRestPoints(to)).isEqualTo(400L);
+    }
+
+    /**
+     * 테스트 시나리오 : 받는 쪽이 한도를 넘으면 두 쪽 모두 아무것도 반영하지 않고 거절한다. 보낸 쪽에 잠깐 빠졌다 돌아오는 내역도 없다.
+     */
+    @Test
+    void 다른샤드_받는쪽_한도초과면_아무것도_반영안함() {
+        // given
+        long from = 1L;
+        long to = otherShardUserOf(from);
+        pointShardRouter.route(from).chargePoints(from, 1000L, time);
+        pointShardRouter.route(to).chargePoints(to, 9800L, time);
+
+        // when
+        assertThatThrownBy(() -> pointShardRouter.transfer(from, to, 400L, time))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("이미 최대 포인트 입니다.");
+
+        // then
+        assertThat(pointShardRouter.route(from).searchRestPoints(from)).isEqualTo(1000L);
+        assertThat(pointShardRouter.route(to).searchRestPoints(to)).isEqualTo(9800L);
+        assertThat(pointShardRouter.route(from).searchPointhistory(from))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(CHARGE, 1000L));
+        assertThat(pointShardRouter.route(to).searchPointhistory(to)).hasSize(1);
+        PointSummary summary = pointShardRouter.route(from).searchPointSummary(from);
+        assertThat(summary.totalTransferredIn()).isZero();
+        assertThat(summary.totalTransferredOut()).isZero();
+    }
+
+    /**
+     * 테스트 시나리오 : WAL 을 쓰는 샤드 모드에서도 다른 샤드 사이의 이체가 되고, 재시작하면 두 쪽 모두 복구된다.
+     */
+    @Test
+    void WAL켜도_다른샤드_이체_재시작후_양쪽복구() {
+        // given
+        pointShardRouter.close();
+        PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L);
+        pointShardRouter = walRouter(journal, new ArrayList<>());
+        long from = 1L;
+        long to = otherShardUserOf(from);
+        pointShardRouter.route(from).chargePoints(from, 1000L, time);
+
+        // when
+        PointTransferResult result = pointShardRouter.transfer(from, to, 400L, time);
+        pointShardRouter.close();
+        journal.close();
+        PointTransferJournal restarted = new PointTransferJournal(directory, 1024L * 1024L);
+        pointShardRouter = walRouter(restarted, new ArrayList<>());
+
+        // then
+        assertThat(result.fromPoint()).isEqualTo(600L);
+        assertThat(restarted.pending()).isEmpty();
+        assertThat(pointShardRouter.route(from).searchRestPoints(from)).isEqualTo(600L);
+        assertThat(pointShardRouter.route(to).searchRestPoints(to)).isEqualTo(400L);
+        assertThat(pointShardRouter.route(to).searchPointhistory(to))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(TRANSFER_IN, 400L));
+        restarted.close();
+    }
+
+    /**
+     * 테스트 시나리오 : journal 에 prepare 하고 보내는 쪽 WAL 에만 남긴 채 끊겼다면, 재시작할 때 받는 쪽만 마저 반영한다.
+     * 한 번 더 재시작해도 두 번 반영하지 않는다.
+     */
+    @Test
+    void journal에만_남은_이체_재시작하면_받는쪽만_마저반영() {
+        // given
+        pointShardRouter.close();
+        PointTransferJournal journal = new PointTransferJournal(directory, 1024L * 1024L);
+        List<PointWriteAheadLog> wals = new ArrayList<>();
+        pointShardRouter = walRouter(journal, wals);
+        long from = 1L;
+        long to = otherShardUserOf(from);
+        pointShardRouter.route(from).chargePoints(from, 1000L, time);
+        PointWriteAheadLog fromWal = wals.get(pointShardRouter.shardOf(from));
+        PointWriteAheadLog toWal = wals.get(pointShardRouter.shardOf(to));
+        journal.prepare(
+                new PointTransferJournal.Leg(from, fromWal.lastSeqOf(from), -400L, TRANSFER_OUT, time, 600L),
+                new PointTransferJournal.Leg(to, toWal.lastSeqOf(to), 400L, TRANSFER_IN, time, 400L));
+        fromWal.append(from, -400L, TRANSFER_OUT, time, 600L);
+        fromWal.awaitDurable(from).join();
+        pointShardRouter.close();
+        journal.close();
+
+        // when
+        PointTransferJournal restarted = new PointTransferJournal(directory, 1024L * 1024L);
+        assertThat(restarted.pending()).hasSize(1);
+        pointShardRouter = walRouter(restarted, new ArrayList<>());
+        pointShardRouter.close();
+        restarted.close();
+        PointTransferJournal again = new PointTransferJournal(directory, 1024L * 1024L);
+        pointShardRouter = walRouter(again, new ArrayList<>());
+
+        // then
+        assertThat(pointShardRouter.route(from).searchRestPoints(from)).isEqualTo(600L);
+        assertThat(pointShardRouter.route(from).searchPointhistory(from))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(CHARGE, 1000L), tuple(TRANSFER_OUT, -400L));
+        assertThat(pointShardRouter.route(to).searchRestPoints(to)).isEqualTo(400L);
+        assertThat(pointShardRouter.route(to).searchPointhistory(to))
+                .extracting(PointHistory::type, PointHistory::amount)
+                .containsExactly(tuple(TRANSFER_IN, 400L));
+        again.close();
+    }
+
+    /**
+     * 테스트 시나리오 : 다른 샤드의 두 유저가 서로에게 동시에 이체해도 교착 없이 끝나고 두 잔액의 합은 그대로다.
+     * 내역 저장 지연 없이 차례 경합만 보도록 COLUMNAR 저장소를 쓴다.
+     */
+    @Test
+    void 동시성_다른샤드_엇갈린이체_총합유지() throws InterruptedException {
+        // given
+        pointShardRouter.close();
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        List<PointShard> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new PointShard(i, PointStoreType.COLUMNAR, 4, false, 1000, 64, PointWriteMode.SERIAL, 0L, 1,
+                    pointMetrics));
+        }
+        pointShardRouter = new PointShardRouter(shards);
+        long first = 1L;
+        long second = otherShardUserOf(first);
+        pointShardRouter.route(first).chargePoints(first, 5000L, time);
+        pointShardRouter.route(second).chargePoints(second, 5000L, time);
+        int repeats = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch latch = new CountDownLatch(repeats * 2);
+
+        // when
+        for (int i = 0; i < repeats; i++) {
+            executor.execute(() -> {
+                try {
+                    pointShardRouter.transfer(first, second, 10L, time);
+                } finally {
+                    latch.countDown();
+                }
+            });
+            executor.execute(() -> {
+                try {
+                    pointShardRouter.transfer(second, first, 7L, time);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        // then
+        assertThat(pointShardRouter.route(first).searchRestPoints(first)).isEqualTo(5000L - 200 * 10 + 200 * 7);
+        assertThat(pointShardRouter.route(second).searchRestPoints(second)).isEqualTo(5000L + 200 * 10 - 200 * 7);
+    }
+
+    /**
+     * 테스트 시나리오 : 20명에게 10포인트씩 10번 동시에 충전하면 샤드와 상관없이 모두 100 이 된다.
+     */
+    @Test
+    void 동시성_샤드별_충전() throws InterruptedException {
+        int users = 20;
+        int repeats = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch latch = new CountDownLatch(users * repeats);
+
+        for (int i = 0; i < repeats; i++) {
+            for (long userId = 1; userId <= users; userId++) {
+                long id = userId;
+                executor.execute(() -> {
+                    try {
+                        pointShardRouter.route(id).chargePoints(id, 10L, time);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+        assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        for (long userId = 1; userId <= users; userId++) {
+            assertThat(pointShardRouter.route(userId).searchRestPoints(userId)).isEqualTo(100L);
+            assertThat(pointShardRouter.route(userId).searchPointhistory(userId)).hasSize(repeats);
+        }
+    }
+
+    /**
+     * 샤드마다 WAL 을 켜고 이체 journal 을 같이 쓰는 라우터. 만든 WAL 은 wals 에 샤드 순서대로 담는다.
+     */
+    private PointShardRouter walRouter(PointTransferJournal journal, List<PointWriteAheadLog> wals) {
+        PointMetrics pointMetrics = PointMetrics.standalone();
+        List<PointShard> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            PointWriteAheadLog wal = new PointWriteAheadLog(directory.resolve("shard-" + i),
+                    PointWriteAheadLog.segmentSize(1), 0L, 1_000L, true);
+            wals.add(wal);
+            shards.add(new PointShard(i, PointStoreType.TABLE, 4, false, 1000, 64, PointWriteMode.SERIAL, 0L, 1,
+                    pointMetrics, wal, journal, new PointRollup(), PointExpiration.disabled(), new PointStreamHub(),
+                    PointAdmission.unlimited(), PointHistoryWriter::new));
+        }
+        return new PointShardRouter(shards, journal);
+    }
+
+    private long otherShardUserOf(long userId) {
+        long other = userId + 1;
+        while (pointShardRouter.shardOf(other) == pointShardRouter.shardOf(userId)) {
+            other++;
+        }
+        return other;
+    }
+}
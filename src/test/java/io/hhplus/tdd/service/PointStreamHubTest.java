@@ -0,0 +1,156 @@
+package io.hhplus.tdd.service;
+
+import io.hhplus.tdd.point.PointStreamHub;
+import io.hhplus.tdd.point.UserPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PointStreamHubTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private volatile boolean blocking;
+    private volatile boolean broken;
+
+    private final PointStreamHub pointStreamHub = new PointStreamHub(2, 0L, 0L, 1, false) {
+        @Override
+        protected SseEmitter newEmitter() {
+            return new RecordingEmitter();
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        pointStreamHub.close();
+    }
+
+    @Test
+    void 구독한유저의_변경만_받음() throws InterruptedException {
+        // given
+        RecordingEmitter user1 = (RecordingEmitter) pointStreamHub.subscribe(1L);
+        RecordingEmitter user2 = (RecordingEmitter) pointStreamHub.subscribe(2L);
+
+        // when
+        pointStreamHub.publish(1L, 100L, 1L);
+
+        // then
+        assertThat(user1.await(1)).containsExactly(new UserPoint(1L, 100L, 1L));
+        assertThat(user2.received).isEmpty();
+        assertThat(pointStreamHub.connectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void 구독자없으면_무시() {
+        pointStreamHub.publish(1L, 100L, 1L);
+
+        assertThat(pointStreamHub.publishedCount()).isZero();
+    }
+
+    /**
+     * 테스트 시나리오 : 첫 전송이 막혀 있는 동안 같은 유저가 여러 번 바뀌면 마지막 잔액만 보내고,
+     * 버퍼(2명)를 넘는 다른 유저가 들어오면 가장 오래 기다린 유저부터 버린다.
+     */
+    @Test
+    void 느린구독자_최신값만_보내고_넘치면_버림() throws InterruptedException {
+        // given
+        RecordingEmitter all = (RecordingEmitter) pointStreamHub.subscribeAll();
+        blocking = true;
+        pointStreamHub.publish(1L, 100L, 1L);
+        all.awaitSending();
+
+        // when
+        pointStreamHub.publish(2L, 200L, 2L);
+        pointStreamHub.publish(2L, 210L, 3L);
+        pointStreamHub.publish(3L, 300L, 4L);
+        pointStreamHub.publish(4L, 400L, 5L);
+        gate.countDown();
+
+        // then
+        assertThat(all.await(3)).containsExactly(
+                new UserPoint(1L, 100L, 1L), new UserPoint(3L, 300L, 4L), new UserPoint(4L, 400L, 5L));
+        assertThat(pointStreamHub.coalescedCount()).isEqualTo(1L);
+        assertThat(pointStreamHub.droppedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void 연결끊기면_구독해제() throws InterruptedException {
+        // given
+        RecordingEmitter user1 = (RecordingEmitter) pointStreamHub.subscribe(1L);
+        broken = true;
+
+        // when
+        pointStreamHub.publish(1L, 100L, 1L);
+
+        // then
+        assertThat(user1.closed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(pointStreamHub.connectionCount()).isZero();
+    }
+
+    @Test
+    void 구독직후_현재잔액_전송() throws InterruptedException {
+        // given
+        RecordingEmitter user1 = (RecordingEmitter) pointStreamHub.subscribe(1L);
+
+        // when
+        pointStreamHub.sendInitial(user1, new UserPoint(1L, 500L, 1L));
+
+        // then
+        assertThat(user1.await(1)).containsExactly(new UserPoint(1L, 500L, 1L));
+    }
+
+    /**
+     * 보낸 UserPoint 를 모은다. blocking 이면 첫 전송에서 gate 가 열릴 때까지 멈춘다.
+     */
+    private class RecordingEmitter extends SseEmitter {
+        private final List<UserPoint> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("연결 끊김");
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof UserPoint userPoint) {
+                    received.add(userPoint);
+                }
+            }
+            sending.countDown();
+            if (blocking) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            closed.countDown();
+        }
+
+        void awaitSending() throws InterruptedException {
+            sending.await(5, TimeUnit.SECONDS);
+        }
+
+        List<UserPoint> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return received;
+        }
+    }
+}